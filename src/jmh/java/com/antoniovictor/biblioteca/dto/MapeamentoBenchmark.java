@@ -0,0 +1,45 @@
+package com.antoniovictor.biblioteca.dto;
+
+import com.antoniovictor.biblioteca.entities.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapeamentoBenchmark {
+
+    private Livro livro;
+    private Emprestimo emprestimo;
+    private Reserva reserva;
+
+    @Setup
+    public void setUp() {
+        var usuario = new Usuario(1L, "Leitor", "leitor@biblioteca.com", "senha", "00000000000", new ArrayList<>(), true, new ArrayList<>(), RoleUsuario.LEITOR, true, "");
+        livro = new Livro(1L, "Dom Casmurro", "Machado de Assis", Categoria.FICCAO, 10, true, new ArrayList<>(), new ArrayList<>());
+        emprestimo = new Emprestimo(usuario, livro);
+        emprestimo.setId(1L);
+        reserva = new Reserva(usuario, livro);
+        reserva.setId(1L);
+    }
+
+    @Benchmark
+    public LivroSaida livroSaida() {
+        return new LivroSaida(livro);
+    }
+
+    @Benchmark
+    public EmprestimoSaida emprestimoSaida() {
+        return new EmprestimoSaida(emprestimo);
+    }
+
+    @Benchmark
+    public ReservaSaida reservaSaida() {
+        return new ReservaSaida(reserva);
+    }
+}
@@ -0,0 +1,55 @@
+package com.antoniovictor.biblioteca.dto;
+
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaginaJsonBenchmark {
+
+    @Param({"20", "100"})
+    private int tamanho;
+
+    private ObjectMapper objectMapper;
+    private Page<LivroSaida> livros;
+    private Page<EmprestimoSaida> emprestimos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        var paginacao = PageRequest.of(0, tamanho);
+        List<LivroSaida> conteudoLivros = IntStream.range(0, tamanho)
+                .mapToObj(i -> new LivroSaida((long) i, "Livro " + i, "Autor " + i, Categoria.values()[i % Categoria.values().length], i))
+                .toList();
+        List<EmprestimoSaida> conteudoEmprestimos = IntStream.range(0, tamanho)
+                .mapToObj(i -> new EmprestimoSaida((long) i, LocalDate.now(), LocalDate.now().plusDays(7), 0.0, "Livro " + i, StatusEmprestimo.ATIVO, "Usuário " + i))
+                .toList();
+        livros = new PageImpl<>(conteudoLivros, paginacao, 10_000);
+        emprestimos = new PageImpl<>(conteudoEmprestimos, paginacao, 10_000);
+    }
+
+    @Benchmark
+    public byte[] paginaLivros() throws Exception {
+        return objectMapper.writeValueAsBytes(livros);
+    }
+
+    @Benchmark
+    public byte[] paginaEmprestimos() throws Exception {
+        return objectMapper.writeValueAsBytes(emprestimos);
+    }
+}
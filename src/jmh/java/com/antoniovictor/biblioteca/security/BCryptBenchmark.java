@@ -0,0 +1,37 @@
+package com.antoniovictor.biblioteca.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BCryptBenchmark {
+
+    @Param({"10", "12"})
+    private int custo;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(custo);
+        hash = passwordEncoder.encode("usuario");
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode("usuario");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("usuario", hash);
+    }
+}
@@ -0,0 +1,43 @@
+package com.antoniovictor.biblioteca.security;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtConfig jwtConfig;
+    private Authentication autenticacao;
+
+    @Setup
+    public void setUp() throws Exception {
+        var geradorChaves = KeyPairGenerator.getInstance("RSA");
+        geradorChaves.initialize(2048);
+        var chaves = geradorChaves.generateKeyPair();
+        var jwk = new RSAKey.Builder((RSAPublicKey) chaves.getPublic()).privateKey((RSAPrivateKey) chaves.getPrivate()).build();
+        jwtConfig = new JwtConfig(new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk))));
+        autenticacao = new UsernamePasswordAuthenticationToken("user@admin.com.br", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+
+    @Benchmark
+    public String gerarToken() {
+        return jwtConfig.generateToken(autenticacao);
+    }
+}
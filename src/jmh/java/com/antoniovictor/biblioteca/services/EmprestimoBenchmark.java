@@ -0,0 +1,54 @@
+package com.antoniovictor.biblioteca.services;
+
+import com.antoniovictor.biblioteca.entities.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmprestimoBenchmark {
+
+    @Param({"0", "10", "100"})
+    private int historico;
+
+    private Usuario usuario;
+    private Livro livro;
+    private Livro livroReservado;
+
+    @Setup
+    public void setUp() {
+        usuario = new Usuario(1L, "Leitor", "leitor@biblioteca.com", "senha", "00000000000", new ArrayList<>(), true, new ArrayList<>(), RoleUsuario.LEITOR, true, "");
+        livro = new Livro(1L, "Dom Casmurro", "Machado de Assis", Categoria.FICCAO, 10, true, new ArrayList<>(), new ArrayList<>());
+        for (int i = 0; i < historico; i++) {
+            var emprestimo = new Emprestimo(usuario, livro);
+            emprestimo.setStatus(StatusEmprestimo.FINALIZADO);
+            usuario.getEmprestimos().add(emprestimo);
+        }
+        var outroUsuario = new Usuario(2L, "Outro", "outro@biblioteca.com", "senha", "11111111111", new ArrayList<>(), true, new ArrayList<>(), RoleUsuario.LEITOR, true, "");
+        livroReservado = new Livro(2L, "Memórias Póstumas", "Machado de Assis", Categoria.FICCAO, 1, true, new ArrayList<>(), new ArrayList<>());
+        for (int i = 0; i < historico; i++) {
+            var reserva = new Reserva(outroUsuario, livroReservado);
+            reserva.setStatus(StatusReserva.FINALIZADA);
+            livroReservado.getReservas().add(reserva);
+        }
+        var reservaAtiva = new Reserva(outroUsuario, livroReservado);
+        reservaAtiva.setStatus(StatusReserva.ATIVA);
+        livroReservado.getReservas().add(reservaAtiva);
+    }
+
+    @Benchmark
+    public String elegivel() {
+        return EmprestimoService.motivoRecusa(usuario, livro);
+    }
+
+    @Benchmark
+    public String recusadoPorReserva() {
+        return EmprestimoService.motivoRecusa(usuario, livroReservado);
+    }
+}
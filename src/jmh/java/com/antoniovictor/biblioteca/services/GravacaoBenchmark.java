@@ -0,0 +1,70 @@
+package com.antoniovictor.biblioteca.services;
+
+import com.antoniovictor.biblioteca.BibliotecaApplication;
+import com.antoniovictor.biblioteca.dto.LivroEntrada;
+import com.antoniovictor.biblioteca.entities.Livro;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GravacaoBenchmark {
+
+    private static final int LIVROS_POR_TRANSACAO = 500;
+
+    @Param({"IDENTITY", "TABLE"})
+    private String ids;
+
+    private ConfigurableApplicationContext contexto;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private long proximo;
+
+    @Setup
+    public void setUp() {
+        var propriedades = new ArrayList<String>();
+        propriedades.add("spring.datasource.url=jdbc:h2:mem:gravacao-" + ids + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        propriedades.add("spring.devtools.restart.enabled=false");
+        propriedades.add("spring.main.banner-mode=off");
+        propriedades.add("logging.level.root=WARN");
+        propriedades.add("biblioteca.recomendacoes.atraso-inicial=86400000");
+        if (ids.equals("IDENTITY")) {
+            propriedades.add("spring.jpa.mapping-resources=ids-identity.xml");
+        }
+        contexto = new SpringApplicationBuilder(BibliotecaApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("perf")
+                .properties(propriedades.toArray(String[]::new))
+                .run();
+        entityManager = contexto.getBean(EntityManager.class);
+        transactionTemplate = contexto.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIVROS_POR_TRANSACAO)
+    public void gravarLivros() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < LIVROS_POR_TRANSACAO; i++) {
+                entityManager.persist(new Livro(new LivroEntrada("Livro " + proximo++, "Autor", "ficcao", 2)));
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+}
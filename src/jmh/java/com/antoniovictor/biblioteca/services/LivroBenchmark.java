@@ -0,0 +1,22 @@
+package com.antoniovictor.biblioteca.services;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LivroBenchmark {
+
+    @Param({"ficcao", "BIOGRAFIA", "inexistente"})
+    private String categoria;
+
+    @Benchmark
+    public boolean categoriaExistente() {
+        return LivroService.categoriaExistente(categoria);
+    }
+}
@@ -4,6 +4,7 @@ import com.antoniovictor.biblioteca.dto.EmprestimoEntrada;
 import com.antoniovictor.biblioteca.dto.EmprestimoSaida;
 import com.antoniovictor.biblioteca.error.CadastroEmprestimoException;
 import com.antoniovictor.biblioteca.error.RenovacaoEmprestimoException;
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
 import com.antoniovictor.biblioteca.services.EmprestimoService;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.Operation;
@@ -16,10 +17,15 @@ import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -60,6 +66,24 @@ public class EmprestimoController {
         return ResponseEntity.ok(emprestimos);
     }
 
+    @Operation(summary = "Exportar empréstimos", description = "Exporta os empréstimos em NDJSON ou CSV, filtrando pela data de início",responses = {
+            @ApiResponse(responseCode = "200", description = "Exportação iniciada com sucesso",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "400", description = "Formato inválido",
+                    content = @Content(mediaType = "text/plain",schema = @Schema(implementation = String.class)))
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarEmprestimos(@RequestParam(name = "de", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                                     @RequestParam(name = "ate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                                                     @RequestParam(name = "formato", defaultValue = "ndjson") String formato) {
+        var formatoArquivo = FormatoArquivo.de(formato);
+        StreamingResponseBody corpo = saida -> emprestimoService.exportarEmprestimos(de, ate, formatoArquivo, saida);
+        return ResponseEntity.ok()
+                .contentType(formatoArquivo.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(formatoArquivo.nomeArquivo("emprestimos")).build().toString())
+                .body(corpo);
+    }
+
     @Operation(summary = "Buscar empréstimo por ID", description = "Busca um empréstimo na base de dados pelo ID",responses = {
             @ApiResponse(responseCode = "200", description = "Empréstimo encontrado com sucesso",
                     content = @Content(mediaType = "application/json",schema = @Schema(implementation = EmprestimoSaida.class)))
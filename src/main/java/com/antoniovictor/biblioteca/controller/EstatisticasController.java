@@ -0,0 +1,36 @@
+package com.antoniovictor.biblioteca.controller;
+
+import com.antoniovictor.biblioteca.dto.EstatisticasSaida;
+import com.antoniovictor.biblioteca.services.EstatisticasService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("estatisticas")
+@SecurityRequirement(name = "bearer-key")
+@Tag(name = "Estatisticas", description = "Painel de circulação do acervo")
+public class EstatisticasController {
+
+    private final EstatisticasService estatisticasService;
+
+    public EstatisticasController(EstatisticasService estatisticasService) {
+        this.estatisticasService = estatisticasService;
+    }
+
+    @Operation(summary = "Consultar estatísticas", description = "Retorna empréstimos e reservas por status, empréstimos atrasados e estoque por categoria", responses = {
+            @ApiResponse(responseCode = "200", description = "Estatísticas consultadas com sucesso", content =
+            @Content(mediaType = "application/json", schema = @Schema(implementation = EstatisticasSaida.class)))
+    })
+    @GetMapping
+    public ResponseEntity<EstatisticasSaida> consultar() {
+        return ResponseEntity.ok(estatisticasService.consultar());
+    }
+}
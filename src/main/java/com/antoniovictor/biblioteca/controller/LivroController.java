@@ -1,8 +1,16 @@
 package com.antoniovictor.biblioteca.controller;
 
+import com.antoniovictor.biblioteca.dto.BuscaLivrosSaida;
 import com.antoniovictor.biblioteca.dto.LivroAtualizacao;
 import com.antoniovictor.biblioteca.dto.LivroEntrada;
+import com.antoniovictor.biblioteca.dto.LivroFiltro;
+import com.antoniovictor.biblioteca.dto.ImportacaoProgresso;
+import com.antoniovictor.biblioteca.dto.LivroPopular;
+import com.antoniovictor.biblioteca.dto.LivroRecomendado;
 import com.antoniovictor.biblioteca.dto.LivroSaida;
+import com.antoniovictor.biblioteca.infra.CatalogoVersoes;
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
+import com.antoniovictor.biblioteca.services.ImportacaoLivroService;
 import com.antoniovictor.biblioteca.services.LivroService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,10 +21,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -26,9 +39,11 @@ import java.util.List;
 public class LivroController {
 
     private final LivroService livroService;
+    private final ImportacaoLivroService importacaoLivroService;
 
-    public LivroController(LivroService livroService) {
+    public LivroController(LivroService livroService, ImportacaoLivroService importacaoLivroService) {
         this.livroService = livroService;
+        this.importacaoLivroService = importacaoLivroService;
     }
 
     @Operation(summary = "Cadastrar um livro", description = "Cadastra um livro na base de dados",responses ={
@@ -44,42 +59,160 @@ public class LivroController {
         return ResponseEntity.created(uri).body(livro);
     }
     
+    @Operation(summary = "Importar livros", description = "Importa livros em lote a partir de um arquivo CSV (titulo,autor,categoria,quantidade) ou NDJSON, " +
+            "retornando em NDJSON os erros por linha e o progresso a cada lote gravado",responses = {
+            @ApiResponse(responseCode = "200", description = "Importação iniciada com sucesso",content =
+            @Content(mediaType = "application/x-ndjson",schema = @Schema(implementation = ImportacaoProgresso.class))),
+            @ApiResponse(responseCode = "400", description = "Formato ou tamanho de lote inválido",content =
+            @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class)))
+    })
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<StreamingResponseBody> importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                          @RequestParam(name = "lote", required = false) Integer lote,
+                                                          InputStream entrada) {
+        var formato = FormatoArquivo.de(MediaType.parseMediaType(contentType));
+        var tamanhoLote = importacaoLivroService.tamanhoLote(lote);
+        StreamingResponseBody corpo = saida -> importacaoLivroService.importar(entrada, formato, tamanhoLote, saida);
+        return ResponseEntity.ok()
+                .contentType(FormatoArquivo.NDJSON.getMediaType())
+                .body(corpo);
+    }
+
     @Operation(summary = "Listar livros", description = "Lista todos os livros cadastrados na base de dados",responses = {
             @ApiResponse(responseCode = "200", description = "Livros listados com sucesso",content = 
             @Content(mediaType = "application/json",schema = @Schema(implementation = LivroSaida.class)))
     })
     @GetMapping
-    public ResponseEntity<Page<LivroSaida>> listarLivros(Pageable pageable) {
+    public ResponseEntity<Page<LivroSaida>> listarLivros(Pageable pageable,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        var etag = livroService.etagCatalogo();
+        if (CatalogoVersoes.corresponde(etag, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         var livros = livroService.listarLivros(pageable);
-        return ResponseEntity.ok(livros);
+        return ResponseEntity.ok().eTag(etag).body(livros);
     }
     
     @Operation(summary = "Buscar livro por ID", description = "Busca um livro na base de dados pelo ID",responses = {
             @ApiResponse(responseCode = "200", description = "Livro encontrado com sucesso",content = 
             @Content(mediaType = "application/json",schema = @Schema(implementation = LivroSaida.class))),
+            @ApiResponse(responseCode = "304", description = "Livro não modificado desde a última consulta"),
             @ApiResponse(responseCode = "404", description = "Livro não encontrado",content = 
             @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class)))
     })
     @GetMapping("/livro/{id}")
-    public ResponseEntity<LivroSaida> buscarLivroPorId(@PathVariable("id") long id) {
+    public ResponseEntity<LivroSaida> buscarLivroPorId(@PathVariable("id") long id,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        var versaoEmCache = livroService.buscarVersao(id);
+        if (versaoEmCache.isPresent() && CatalogoVersoes.corresponde(versaoEmCache.get().etag(), ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(versaoEmCache.get().etag())
+                    .lastModified(versaoEmCache.get().ultimaModificacao())
+                    .build();
+        }
         var livro = livroService.buscarLivroPorId(id);
-        return ResponseEntity.ok(livro);
+        return livroService.buscarVersao(id)
+                .map(v -> ResponseEntity.ok().eTag(v.etag()).lastModified(v.ultimaModificacao()))
+                .orElseGet(ResponseEntity::ok)
+                .body(livro);
     }
     
+    @Operation(summary = "Recomendar livros", description = "Lista os livros mais emprestados pelos leitores que também emprestaram o livro informado",responses = {
+            @ApiResponse(responseCode = "200", description = "Recomendações listadas com sucesso",content =
+            @Content(mediaType = "application/json",schema = @Schema(implementation = LivroRecomendado.class))),
+            @ApiResponse(responseCode = "400", description = "Limite inválido",content =
+            @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "404", description = "Livro não encontrado",content =
+            @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class)))
+    })
+    @GetMapping("/livro/{id}/recomendacoes")
+    public ResponseEntity<List<LivroRecomendado>> listarRecomendacoes(@PathVariable("id") long id,
+                                                                      @RequestParam(name = "limite", defaultValue = "10") int limite) {
+        return ResponseEntity.ok(livroService.listarRecomendacoes(id, limite));
+    }
+
     @Operation(summary = "Buscar livros por categoria", description = "Busca livros na base de dados por categoria",responses = {
             @ApiResponse(responseCode = "200", description = "Livros encontrados com sucesso",content = 
             @Content(mediaType = "application/json",schema = @Schema(implementation = LivroSaida.class))),
             @ApiResponse(responseCode = "404", description = "Nenhum livro encontrado",content = 
             @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "304", description = "Catálogo não modificado desde a última consulta"),
             @ApiResponse(responseCode = "400", description = "Categoria inválida",content =
             @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class)))
     })
     @GetMapping("/categorias")
-    public ResponseEntity<Page<LivroSaida>> buscarLivrosPorCategoria(@RequestParam("categoria") String categoria, Pageable pageable) {
+    public ResponseEntity<Page<LivroSaida>> buscarLivrosPorCategoria(@RequestParam("categoria") String categoria, Pageable pageable,
+                                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        var etag = livroService.etagCatalogo();
+        if (CatalogoVersoes.corresponde(etag, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         var livros = livroService.listarLivrosPorCategoria(categoria, pageable);
-        return ResponseEntity.ok(livros);
+        return ResponseEntity.ok().eTag(etag).body(livros);
     }
     
+    @Operation(summary = "Buscar livros por filtros", description = "Busca livros combinando título (contém), autor (começa com), categoria, disponibilidade e estoque mínimo",responses = {
+            @ApiResponse(responseCode = "200", description = "Livros encontrados com sucesso",content =
+            @Content(mediaType = "application/json",schema = @Schema(implementation = LivroSaida.class))),
+            @ApiResponse(responseCode = "304", description = "Catálogo não modificado desde a última consulta"),
+            @ApiResponse(responseCode = "400", description = "Categoria ou estoque mínimo inválido",content =
+            @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class)))
+    })
+    @GetMapping("/busca")
+    public ResponseEntity<Page<LivroSaida>> buscarLivros(@RequestParam(name = "titulo", required = false) String titulo,
+                                                         @RequestParam(name = "autor", required = false) String autor,
+                                                         @RequestParam(name = "categoria", required = false) String categoria,
+                                                         @RequestParam(name = "disponivel", required = false) Boolean disponivel,
+                                                         @RequestParam(name = "estoqueMinimo", required = false) Integer estoqueMinimo,
+                                                         Pageable pageable,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        var etag = livroService.etagDisponibilidade();
+        if (CatalogoVersoes.corresponde(etag, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        var livros = livroService.buscarLivros(new LivroFiltro(titulo, autor, categoria, disponivel, estoqueMinimo), pageable);
+        return ResponseEntity.ok().eTag(etag).body(livros);
+    }
+
+    @Operation(summary = "Buscar livros com facetas", description = "Busca livros pelos mesmos filtros de /livros/busca e retorna junto as contagens por categoria, " +
+            "por disponibilidade e dos autores com mais livros no resultado",responses = {
+            @ApiResponse(responseCode = "200", description = "Livros e facetas retornados com sucesso",content =
+            @Content(mediaType = "application/json",schema = @Schema(implementation = BuscaLivrosSaida.class))),
+            @ApiResponse(responseCode = "304", description = "Catálogo não modificado desde a última consulta"),
+            @ApiResponse(responseCode = "400", description = "Categoria, estoque mínimo ou limite de autores inválido",content =
+            @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class)))
+    })
+    @GetMapping("/busca/facetas")
+    public ResponseEntity<BuscaLivrosSaida> buscarLivrosComFacetas(@RequestParam(name = "titulo", required = false) String titulo,
+                                                                   @RequestParam(name = "autor", required = false) String autor,
+                                                                   @RequestParam(name = "categoria", required = false) String categoria,
+                                                                   @RequestParam(name = "disponivel", required = false) Boolean disponivel,
+                                                                   @RequestParam(name = "estoqueMinimo", required = false) Integer estoqueMinimo,
+                                                                   @RequestParam(name = "autores", defaultValue = "10") int autores,
+                                                                   Pageable pageable,
+                                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        var etag = livroService.etagDisponibilidade();
+        if (CatalogoVersoes.corresponde(etag, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        var busca = livroService.buscarLivrosComFacetas(new LivroFiltro(titulo, autor, categoria, disponivel, estoqueMinimo), pageable, autores);
+        return ResponseEntity.ok().eTag(etag).body(busca);
+    }
+
+    @Operation(summary = "Listar livros populares", description = "Lista os livros mais emprestados ou reservados nos últimos dias",responses = {
+            @ApiResponse(responseCode = "200", description = "Livros populares listados com sucesso",content =
+            @Content(mediaType = "application/json",schema = @Schema(implementation = LivroPopular.class))),
+            @ApiResponse(responseCode = "400", description = "Categoria, período, tipo ou limite inválido",content =
+            @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class)))
+    })
+    @GetMapping("/populares")
+    public ResponseEntity<List<LivroPopular>> listarPopulares(@RequestParam(name = "categoria", required = false) String categoria,
+                                                              @RequestParam(name = "periodo", defaultValue = "7") int periodo,
+                                                              @RequestParam(name = "tipo", defaultValue = "emprestimos") String tipo,
+                                                              @RequestParam(name = "limite", defaultValue = "10") int limite) {
+        return ResponseEntity.ok(livroService.listarPopulares(categoria, periodo, tipo, limite));
+    }
+
     @Operation(summary = "Buscar livros por título", description = "Busca livros na base de dados por título",responses = {
             @ApiResponse(responseCode = "200", description = "Livros encontrados com sucesso",content = 
             @Content(mediaType = "application/json",schema = @Schema(implementation = LivroSaida.class))),
@@ -87,9 +220,14 @@ public class LivroController {
             @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class)))
     })
     @GetMapping("/livro")
-    public ResponseEntity<Page<LivroSaida>> buscarLivrosPorTitulo(@RequestParam("titulo") String titulo, Pageable pageable) {
+    public ResponseEntity<Page<LivroSaida>> buscarLivrosPorTitulo(@RequestParam("titulo") String titulo, Pageable pageable,
+                                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        var etag = livroService.etagCatalogo();
+        if (CatalogoVersoes.corresponde(etag, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         var livros = livroService.listarLivrosPorNome(titulo, pageable);
-        return ResponseEntity.ok(livros);
+        return ResponseEntity.ok().eTag(etag).body(livros);
     }
     
     @Operation(summary = "Atualizar livro", description = "Atualiza um livro na base de dados",responses = {
@@ -5,6 +5,7 @@ import com.antoniovictor.biblioteca.dto.ReservaEntrada;
 import com.antoniovictor.biblioteca.dto.ReservaSaida;
 import com.antoniovictor.biblioteca.error.AtualizacaoReservaException;
 import com.antoniovictor.biblioteca.error.CadastroReservaException;
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
 import com.antoniovictor.biblioteca.services.ReservaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,10 +15,15 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -60,6 +66,24 @@ public class ReservaController {
         return ResponseEntity.ok(reservas);
     }
 
+    @Operation(summary = "Exportar reservas", description = "Exporta as reservas em NDJSON ou CSV, filtrando pela data da reserva",responses = {
+            @ApiResponse(responseCode = "200", description = "Exportação iniciada com sucesso",content =
+                    {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "400", description = "Formato inválido",content =
+            @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class)))
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarReservas(@RequestParam(name = "de", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                                  @RequestParam(name = "ate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                                                  @RequestParam(name = "formato", defaultValue = "ndjson") String formato) {
+        var formatoArquivo = FormatoArquivo.de(formato);
+        StreamingResponseBody corpo = saida -> reservaService.exportarReservas(de, ate, formatoArquivo, saida);
+        return ResponseEntity.ok()
+                .contentType(formatoArquivo.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(formatoArquivo.nomeArquivo("reservas")).build().toString())
+                .body(corpo);
+    }
+
     @Operation(summary = "Buscar reserva por ID", description = "Busca uma reserva na base de dados pelo ID",responses = {
             @ApiResponse(responseCode = "200", description = "Reserva encontrada com sucesso",content =
             @Content(mediaType = "application/json",schema = @Schema(implementation = ReservaSaida.class))),
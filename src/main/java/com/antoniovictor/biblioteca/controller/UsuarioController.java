@@ -1,8 +1,13 @@
 package com.antoniovictor.biblioteca.controller;
 
+import com.antoniovictor.biblioteca.dto.EmprestimoSaida;
+import com.antoniovictor.biblioteca.dto.HistoricoSaida;
+import com.antoniovictor.biblioteca.dto.ReservaSaida;
 import com.antoniovictor.biblioteca.dto.UsuarioAtualizacao;
 import com.antoniovictor.biblioteca.dto.UsuarioEntrada;
 import com.antoniovictor.biblioteca.dto.UsuarioSaida;
+import com.antoniovictor.biblioteca.services.EmprestimoService;
+import com.antoniovictor.biblioteca.services.ReservaService;
 import com.antoniovictor.biblioteca.services.UsuarioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -25,9 +30,13 @@ import org.springframework.web.util.UriComponentsBuilder;
 public class UsuarioController {
 
     private final UsuarioService usuarioService;
+    private final EmprestimoService emprestimoService;
+    private final ReservaService reservaService;
 
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService, EmprestimoService emprestimoService, ReservaService reservaService) {
         this.usuarioService = usuarioService;
+        this.emprestimoService = emprestimoService;
+        this.reservaService = reservaService;
     }
 
     @Operation(summary = "Cadastrar um usuário", description = "Cadastra um usuário na base de dados",responses ={
@@ -76,6 +85,42 @@ public class UsuarioController {
         return ResponseEntity.ok(usuario);
     }
 
+    @Operation(summary = "Histórico de empréstimos do usuário", description = "Lista os empréstimos do usuário do mais recente ao mais antigo, incluindo os arquivados. " +
+            "Para a próxima página envie o valor de 'proximo' no parâmetro 'antes'",responses = {
+            @ApiResponse(responseCode = "200", description = "Empréstimos listados com sucesso",content =
+            @Content(mediaType = "application/json",schema = @Schema(implementation = HistoricoSaida.class))),
+            @ApiResponse(responseCode = "400", description = "Status ou limite inválido",content =
+            @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado",content =
+            @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class)))
+    })
+    @GetMapping("/usuario/{id}/emprestimos")
+    public ResponseEntity<HistoricoSaida<EmprestimoSaida>> historicoEmprestimos(@PathVariable(value = "id") long id,
+                                                                               @RequestParam(name = "status", required = false) String status,
+                                                                               @RequestParam(name = "antes", required = false) Long antes,
+                                                                               @RequestParam(name = "limite", defaultValue = "20") int limite) {
+        var emprestimos = emprestimoService.historicoUsuario(id, status, antes, limite);
+        return ResponseEntity.ok(emprestimos);
+    }
+
+    @Operation(summary = "Histórico de reservas do usuário", description = "Lista as reservas do usuário da mais recente à mais antiga, incluindo as arquivadas. " +
+            "Para a próxima página envie o valor de 'proximo' no parâmetro 'antes'",responses = {
+            @ApiResponse(responseCode = "200", description = "Reservas listadas com sucesso",content =
+            @Content(mediaType = "application/json",schema = @Schema(implementation = HistoricoSaida.class))),
+            @ApiResponse(responseCode = "400", description = "Status ou limite inválido",content =
+            @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado",content =
+            @Content(mediaType = "text/pain",schema = @Schema(implementation = String.class)))
+    })
+    @GetMapping("/usuario/{id}/reservas")
+    public ResponseEntity<HistoricoSaida<ReservaSaida>> historicoReservas(@PathVariable(value = "id") long id,
+                                                                         @RequestParam(name = "status", required = false) String status,
+                                                                         @RequestParam(name = "antes", required = false) Long antes,
+                                                                         @RequestParam(name = "limite", defaultValue = "20") int limite) {
+        var reservas = reservaService.historicoUsuario(id, status, antes, limite);
+        return ResponseEntity.ok(reservas);
+    }
+
     @Operation(summary = "Atualizar usuário", description = "Atualiza um usuário na base de dados",responses = {
             @ApiResponse(responseCode = "200", description = "Usuário atualizado com sucesso",content =
             @Content(mediaType = "application/json",schema = @Schema(implementation = UsuarioSaida.class))),
@@ -0,0 +1,9 @@
+package com.antoniovictor.biblioteca.dto;
+
+import org.springframework.data.domain.Page;
+
+public record BuscaLivrosSaida(
+        Page<LivroSaida> livros,
+        LivroFacetas facetas
+) {
+}
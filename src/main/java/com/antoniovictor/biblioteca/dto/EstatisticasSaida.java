@@ -0,0 +1,17 @@
+package com.antoniovictor.biblioteca.dto;
+
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.antoniovictor.biblioteca.entities.StatusReserva;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public record EstatisticasSaida(
+        Map<StatusEmprestimo, Long> emprestimosPorStatus,
+        long emprestimosAtrasados,
+        Map<StatusReserva, Long> reservasPorStatus,
+        Map<Categoria, Long> estoquePorCategoria,
+        LocalDateTime reconstruidoEm
+) {
+}
@@ -0,0 +1,17 @@
+package com.antoniovictor.biblioteca.dto;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+public record HistoricoSaida<T>(
+        List<T> conteudo,
+        Long proximo
+) {
+    public static <T> HistoricoSaida<T> de(List<T> itens, int limite, ToLongFunction<T> id) {
+        if (itens.size() <= limite) {
+            return new HistoricoSaida<>(itens, null);
+        }
+        var pagina = List.copyOf(itens.subList(0, limite));
+        return new HistoricoSaida<>(pagina, id.applyAsLong(pagina.getLast()));
+    }
+}
@@ -0,0 +1,7 @@
+package com.antoniovictor.biblioteca.dto;
+
+public record ImportacaoErro(
+        long linha,
+        String mensagem
+) {
+}
@@ -0,0 +1,9 @@
+package com.antoniovictor.biblioteca.dto;
+
+public record ImportacaoProgresso(
+        long processadas,
+        long importadas,
+        long erros,
+        boolean concluida
+) {
+}
@@ -0,0 +1,19 @@
+package com.antoniovictor.biblioteca.dto;
+
+import com.antoniovictor.biblioteca.entities.Categoria;
+
+import java.util.List;
+import java.util.Map;
+
+public record LivroFacetas(
+        Map<Categoria, Long> categorias,
+        long disponiveis,
+        long indisponiveis,
+        List<Autor> autores
+) {
+    public record Autor(
+            String autor,
+            long livros
+    ) {
+    }
+}
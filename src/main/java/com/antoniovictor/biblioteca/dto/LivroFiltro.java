@@ -0,0 +1,10 @@
+package com.antoniovictor.biblioteca.dto;
+
+public record LivroFiltro(
+        String titulo,
+        String autor,
+        String categoria,
+        Boolean disponivel,
+        Integer estoqueMinimo
+) {
+}
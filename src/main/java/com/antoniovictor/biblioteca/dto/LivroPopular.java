@@ -0,0 +1,12 @@
+package com.antoniovictor.biblioteca.dto;
+
+import com.antoniovictor.biblioteca.entities.Categoria;
+
+public record LivroPopular(
+        Long id,
+        String titulo,
+        String autor,
+        Categoria categoria,
+        long quantidade
+) {
+}
@@ -0,0 +1,16 @@
+package com.antoniovictor.biblioteca.dto;
+
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.Livro;
+
+public record LivroRecomendado(
+        Long id,
+        String titulo,
+        String autor,
+        Categoria categoria,
+        int emprestimosEmComum
+) {
+    public LivroRecomendado(Livro livro, int emprestimosEmComum) {
+        this(livro.getId(), livro.getTitulo(), livro.getAutor(), livro.getCategoria(), emprestimosEmComum);
+    }
+}
@@ -10,9 +10,10 @@ public record UsuarioSaida(
         String cpf,
         RoleUsuario role,
         Boolean ativo,
-        Boolean emailVerificado
+        Boolean emailVerificado,
+        Double saldoDevedor
 ) {
     public UsuarioSaida(Usuario usuario) {
-        this(usuario.getId(), usuario.getNome(), usuario.getEmail(), usuario.getCpf(), usuario.getRole(), usuario.getAtivo(), usuario.getEmailVerificado());
+        this(usuario.getId(), usuario.getNome(), usuario.getEmail(), usuario.getCpf(), usuario.getRole(), usuario.getAtivo(), usuario.getEmailVerificado(), usuario.getSaldoDevedor());
     }
 }
@@ -1,5 +1,6 @@
 package com.antoniovictor.biblioteca.entities;
 
+import com.antoniovictor.biblioteca.infra.OuvinteCirculacao;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -14,10 +15,13 @@ import java.util.Objects;
 @NoArgsConstructor
 @Entity
 @Table(name = "emprestimos")
+@EntityListeners(OuvinteCirculacao.class)
 public class Emprestimo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "emprestimos_id")
+    @TableGenerator(name = "emprestimos_id", table = "id_geradores", pkColumnName = "entidade",
+            valueColumnName = "proximo_id", pkColumnValue = "emprestimos", allocationSize = 50)
     private Long id;
     private LocalDate inicio;
     private LocalDate fim;
@@ -30,6 +34,15 @@ public class Emprestimo {
     @ManyToOne
     @JoinColumn(name = "usuario_id")
     private Usuario usuario;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exemplar_id")
+    private Exemplar exemplar;
+    @Version
+    private Long versao;
+    @Transient
+    private StatusEmprestimo statusCarregado;
+    @Transient
+    private LocalDate fimCarregado;
 
     public Emprestimo(Usuario usuario,Livro livro) {
         this.inicio = LocalDate.now();
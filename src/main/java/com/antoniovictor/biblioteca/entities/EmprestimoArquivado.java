@@ -0,0 +1,32 @@
+package com.antoniovictor.biblioteca.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "emprestimos_arquivo")
+public class EmprestimoArquivado {
+
+    @Id
+    private Long id;
+    private LocalDate inicio;
+    private LocalDate fim;
+    private Double multa;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "livro_id")
+    private Livro livro;
+    @Enumerated(EnumType.STRING)
+    private StatusEmprestimo status;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id")
+    private Usuario usuario;
+    private LocalDateTime arquivadoEm;
+}
@@ -0,0 +1,47 @@
+package com.antoniovictor.biblioteca.entities;
+
+import com.antoniovictor.biblioteca.infra.OuvinteCatalogo;
+import com.antoniovictor.biblioteca.infra.OuvinteCirculacao;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Objects;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "exemplares")
+@EntityListeners({OuvinteCatalogo.class, OuvinteCirculacao.class})
+public class Exemplar {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "exemplares_id")
+    @TableGenerator(name = "exemplares_id", table = "id_geradores", pkColumnName = "entidade",
+            valueColumnName = "proximo_id", pkColumnValue = "exemplares", allocationSize = 50)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "livro_id")
+    private Livro livro;
+    private Boolean emprestado = false;
+    @Transient
+    private Boolean emprestadoCarregado;
+
+    public Exemplar(Livro livro) {
+        this.livro = livro;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Exemplar exemplar)) return false;
+        return Objects.equals(id, exemplar.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
@@ -1,9 +1,14 @@
 package com.antoniovictor.biblioteca.entities;
 
 import com.antoniovictor.biblioteca.dto.LivroEntrada;
+import com.antoniovictor.biblioteca.infra.OuvinteCatalogo;
+import com.antoniovictor.biblioteca.infra.OuvinteCirculacao;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -11,38 +16,59 @@ import java.util.Objects;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
 @Table(name = "livros")
+@EntityListeners({OuvinteCatalogo.class, OuvinteCirculacao.class})
 public class Livro {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "livros_id")
+    @TableGenerator(name = "livros_id", table = "id_geradores", pkColumnName = "entidade",
+            valueColumnName = "proximo_id", pkColumnValue = "livros", allocationSize = 50)
     private Long id;
     private String titulo;
     private String autor;
     @Enumerated(EnumType.STRING)
     private Categoria categoria;
+    @Formula("(select count(*) from exemplares ex where ex.livro_id = id and ex.emprestado = false)")
     private Integer estoque;
+    @Formula("(exists (select 1 from exemplares ex where ex.livro_id = id and ex.emprestado = false))")
     private Boolean disponivel;
     @OneToMany(mappedBy = "livro", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<Exemplar> exemplares = new ArrayList<>();
+    @OneToMany(mappedBy = "livro", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Emprestimo> emprestimos = new ArrayList<>();
     @OneToMany(mappedBy = "livro", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Reserva> reservas = new ArrayList<>();
+    @Version
+    private Long versao;
+    @UpdateTimestamp
+    private LocalDateTime atualizadoEm;
+    @Transient
+    private Integer estoqueCarregado;
+    @Transient
+    private Categoria categoriaCarregada;
+
+    public Livro(Long id, String titulo, String autor, Categoria categoria, Integer estoque, Boolean disponivel,
+                 List<Emprestimo> emprestimos, List<Reserva> reservas) {
+        this.id = id;
+        this.titulo = titulo;
+        this.autor = autor;
+        this.categoria = categoria;
+        this.estoque = estoque;
+        this.disponivel = disponivel;
+        this.emprestimos = emprestimos;
+        this.reservas = reservas;
+    }
 
     public Livro(LivroEntrada livroEntrada) {
         this.titulo = livroEntrada.titulo();
         this.autor = livroEntrada.autor();
         this.categoria = Categoria.valueOf(livroEntrada.categoria().toUpperCase());
         this.estoque = livroEntrada.quantidade();
-        this.disponivel = true;
-    }
-
-    public void addEmprestimo(Emprestimo emprestimo) {
-        this.emprestimos.add(emprestimo);
-        this.estoque -= 1;
-        if (this.estoque == 0) {
-            this.disponivel = false;
+        this.disponivel = this.estoque > 0;
+        for (int i = 0; i < this.estoque; i++) {
+            this.exemplares.add(new Exemplar(this));
         }
     }
 
@@ -1,6 +1,7 @@
 package com.antoniovictor.biblioteca.entities;
 
 import com.antoniovictor.biblioteca.dto.ReservaEntrada;
+import com.antoniovictor.biblioteca.infra.OuvinteCirculacao;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -12,10 +13,13 @@ import java.util.Objects;
 @NoArgsConstructor
 @Entity
 @Table(name = "reservas")
+@EntityListeners(OuvinteCirculacao.class)
 public class Reserva {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reservas_id")
+    @TableGenerator(name = "reservas_id", table = "id_geradores", pkColumnName = "entidade",
+            valueColumnName = "proximo_id", pkColumnValue = "reservas", allocationSize = 50)
     private Long id;
     private LocalDateTime data;
     private LocalDateTime inicio;
@@ -28,6 +32,10 @@ public class Reserva {
     private Livro livro;
     @Enumerated(EnumType.STRING)
     private StatusReserva status;
+    @Version
+    private Long versao;
+    @Transient
+    private StatusReserva statusCarregado;
 
     public Reserva(Usuario usuario, Livro livro) {
         this.data = LocalDateTime.now();
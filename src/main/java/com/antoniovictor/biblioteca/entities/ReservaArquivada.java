@@ -0,0 +1,31 @@
+package com.antoniovictor.biblioteca.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "reservas_arquivo")
+public class ReservaArquivada {
+
+    @Id
+    private Long id;
+    private LocalDateTime data;
+    private LocalDateTime inicio;
+    private LocalDateTime expiracao;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id")
+    private Usuario usuario;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "livro_id")
+    private Livro livro;
+    @Enumerated(EnumType.STRING)
+    private StatusReserva status;
+    private LocalDateTime arquivadoEm;
+}
@@ -15,13 +15,14 @@ import java.util.Objects;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
 @Table(name = "usuarios")
 public class Usuario implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "usuarios_id")
+    @TableGenerator(name = "usuarios_id", table = "id_geradores", pkColumnName = "entidade",
+            valueColumnName = "proximo_id", pkColumnValue = "usuarios", allocationSize = 50)
     private Long id;
     private String nome;
     private String email;
@@ -36,6 +37,22 @@ public class Usuario implements UserDetails {
     private RoleUsuario role;
     private Boolean emailVerificado = false;
     private String codigoVerificacao;
+    private Double saldoDevedor = 0.0;
+
+    public Usuario(Long id, String nome, String email, String senha, String cpf, List<Emprestimo> emprestimos, Boolean ativo,
+                   List<Reserva> reservas, RoleUsuario role, Boolean emailVerificado, String codigoVerificacao) {
+        this.id = id;
+        this.nome = nome;
+        this.email = email;
+        this.senha = senha;
+        this.cpf = cpf;
+        this.emprestimos = emprestimos;
+        this.ativo = ativo;
+        this.reservas = reservas;
+        this.role = role;
+        this.emailVerificado = emailVerificado;
+        this.codigoVerificacao = codigoVerificacao;
+    }
 
     public Usuario(UsuarioEntrada usuarioEntrada, String senha) {
         this.nome = usuarioEntrada.nome();
@@ -1,6 +1,8 @@
 package com.antoniovictor.biblioteca.error;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.FieldError;
@@ -29,6 +31,11 @@ public class TrataErros {
         return ResponseEntity.badRequest().body(e.getMessage());
     }
 
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<String> conflito() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("O registro foi alterado por outra requisição, tente novamente");
+    }
+
     private record ErrosDto(
             String msg,
             String field
@@ -0,0 +1,16 @@
+package com.antoniovictor.biblioteca.eventos;
+
+import java.time.Instant;
+
+public record EmprestimoDevolvido(
+        Long emprestimoId,
+        Long usuarioId,
+        Long livroId,
+        double multa,
+        Instant publicadoEm
+) implements EventoDominio {
+
+    public EmprestimoDevolvido(Long emprestimoId, Long usuarioId, Long livroId, double multa) {
+        this(emprestimoId, usuarioId, livroId, multa, Instant.now());
+    }
+}
@@ -0,0 +1,8 @@
+package com.antoniovictor.biblioteca.eventos;
+
+import java.time.Instant;
+
+public interface EventoDominio {
+
+    Instant publicadoEm();
+}
@@ -0,0 +1,55 @@
+package com.antoniovictor.biblioteca.eventos;
+
+import com.antoniovictor.biblioteca.services.NotificacaoService;
+import com.antoniovictor.biblioteca.services.UsuarioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Component
+public class OuvinteEventosDominio {
+
+    private final NotificacaoService notificacaoService;
+    private final UsuarioService usuarioService;
+    private final MeterRegistry meterRegistry;
+
+    public OuvinteEventosDominio(NotificacaoService notificacaoService, UsuarioService usuarioService, MeterRegistry meterRegistry) {
+        this.notificacaoService = notificacaoService;
+        this.usuarioService = usuarioService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Async("eventosExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void emprestimoDevolvido(EmprestimoDevolvido evento) {
+        registrarEspera(evento);
+        meterRegistry.counter("biblioteca.emprestimos.devolvidos", "multa", evento.multa() > 0 ? "sim" : "nao").increment();
+    }
+
+    @Async("eventosExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void reservaAtivada(ReservaAtivada evento) {
+        registrarEspera(evento);
+        notificacaoService.notificarLivroDisponivel(evento.email(), evento.titulo());
+    }
+
+    @Async("eventosExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void usuarioCadastrado(UsuarioCadastrado evento) {
+        registrarEspera(evento);
+        usuarioService.enviarEmailVerificacao(evento.email(), evento.codigoVerificacao());
+    }
+
+    private void registrarEspera(EventoDominio evento) {
+        Timer.builder("biblioteca.eventos.espera")
+                .description("Tempo entre a publicação do evento e o início do seu processamento após o commit")
+                .tag("evento", evento.getClass().getSimpleName())
+                .register(meterRegistry)
+                .record(Duration.between(evento.publicadoEm(), Instant.now()));
+    }
+}
@@ -0,0 +1,16 @@
+package com.antoniovictor.biblioteca.eventos;
+
+import java.time.Instant;
+
+public record ReservaAtivada(
+        Long reservaId,
+        Long livroId,
+        String titulo,
+        String email,
+        Instant publicadoEm
+) implements EventoDominio {
+
+    public ReservaAtivada(Long reservaId, Long livroId, String titulo, String email) {
+        this(reservaId, livroId, titulo, email, Instant.now());
+    }
+}
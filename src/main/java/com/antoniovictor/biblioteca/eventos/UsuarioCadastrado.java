@@ -0,0 +1,15 @@
+package com.antoniovictor.biblioteca.eventos;
+
+import java.time.Instant;
+
+public record UsuarioCadastrado(
+        Long usuarioId,
+        String email,
+        String codigoVerificacao,
+        Instant publicadoEm
+) implements EventoDominio {
+
+    public UsuarioCadastrado(Long usuarioId, String email, String codigoVerificacao) {
+        this(usuarioId, email, codigoVerificacao, Instant.now());
+    }
+}
@@ -0,0 +1,67 @@
+package com.antoniovictor.biblioteca.infra;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+public class AnelCircular<T> {
+
+    private final AtomicReferenceArray<T> elementos;
+    private final AtomicLongArray sequencias;
+    private final int mascara;
+    private final AtomicLong cauda = new AtomicLong();
+    private final AtomicLong cabeca = new AtomicLong();
+
+    public AnelCircular(int capacidade) {
+        if (capacidade < 2 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("A capacidade deve ser uma potência de 2");
+        }
+        elementos = new AtomicReferenceArray<>(capacidade);
+        sequencias = new AtomicLongArray(capacidade);
+        mascara = capacidade - 1;
+        for (int i = 0; i < capacidade; i++) {
+            sequencias.set(i, i);
+        }
+    }
+
+    public boolean oferecer(T elemento) {
+        while (true) {
+            var posicao = cauda.get();
+            var indice = (int) posicao & mascara;
+            var diferenca = sequencias.get(indice) - posicao;
+            if (diferenca == 0) {
+                if (cauda.compareAndSet(posicao, posicao + 1)) {
+                    elementos.lazySet(indice, elemento);
+                    sequencias.set(indice, posicao + 1);
+                    return true;
+                }
+            } else if (diferenca < 0) {
+                return false;
+            }
+        }
+    }
+
+    public int drenar(Consumer<? super T> consumidor, int maximo) {
+        var posicao = cabeca.get();
+        var drenados = 0;
+        while (drenados < maximo) {
+            var indice = (int) posicao & mascara;
+            if (sequencias.get(indice) != posicao + 1) {
+                break;
+            }
+            var elemento = elementos.get(indice);
+            elementos.lazySet(indice, null);
+            sequencias.set(indice, posicao + mascara + 1);
+            consumidor.accept(elemento);
+            posicao++;
+            drenados++;
+        }
+        cabeca.set(posicao);
+        return drenados;
+    }
+
+    public int tamanho() {
+        return (int) Math.max(0, cauda.get() - cabeca.get());
+    }
+}
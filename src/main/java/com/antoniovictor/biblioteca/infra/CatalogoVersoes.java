@@ -0,0 +1,108 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.entities.Livro;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class CatalogoVersoes {
+
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong geracao = new AtomicLong();
+    private final AtomicLong circulacao = new AtomicLong();
+    private final Map<Long, VersaoLivro> versoes = new ConcurrentHashMap<>();
+    private final int maximo;
+
+    public CatalogoVersoes(@Value("${biblioteca.catalogo.maximo-versoes:10000}") int maximo) {
+        this.maximo = maximo;
+    }
+
+    public void lembrar(Livro livro) {
+        if (livro.getId() == null || livro.getVersao() == null || livro.getAtualizadoEm() == null) {
+            return;
+        }
+        if (!versoes.containsKey(livro.getId()) && versoes.size() >= maximo) {
+            var iterador = versoes.keySet().iterator();
+            if (iterador.hasNext()) {
+                iterador.next();
+                iterador.remove();
+            }
+        }
+        var nova = new VersaoLivro(livro.getId(), livro.getVersao(), estoque(livro), livro.getAtualizadoEm());
+        versoes.merge(livro.getId(), nova, (atual, recebida) -> recebida.versao() >= atual.versao() ? recebida : atual);
+    }
+
+    public int tamanho() {
+        return versoes.size();
+    }
+
+    public void registrar(Livro livro) {
+        lembrar(livro);
+        geracao.incrementAndGet();
+    }
+
+    public void remover(Livro livro) {
+        versoes.remove(livro.getId());
+        geracao.incrementAndGet();
+    }
+
+    public void circular(Livro livro) {
+        versoes.remove(livro.getId());
+        circulacao.incrementAndGet();
+    }
+
+    public void invalidar() {
+        versoes.clear();
+        geracao.incrementAndGet();
+    }
+
+    public Optional<VersaoLivro> buscar(long id) {
+        return Optional.ofNullable(versoes.get(id));
+    }
+
+    public String etagCatalogo() {
+        return "W/\"" + instancia + "-" + geracao.get() + "\"";
+    }
+
+    public String etagDisponibilidade() {
+        return "W/\"" + instancia + "-" + geracao.get() + "-" + circulacao.get() + "\"";
+    }
+
+    private static int estoque(Livro livro) {
+        return livro.getEstoque() == null ? 0 : livro.getEstoque();
+    }
+
+    public static boolean corresponde(String etag, String ifNoneMatch) {
+        if (etag == null || ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        var etagFraca = etag.startsWith("W/") ? etag.substring(2) : etag;
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(e -> e.startsWith("W/") ? e.substring(2) : e)
+                .anyMatch(e -> e.equals("*") || e.equals(etagFraca));
+    }
+
+    public record VersaoLivro(
+            long id,
+            long versao,
+            int estoque,
+            LocalDateTime atualizadoEm
+    ) {
+        public String etag() {
+            return "\"" + id + "-" + versao + "-" + estoque + "\"";
+        }
+
+        public long ultimaModificacao() {
+            return atualizadoEm.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.dto.EstatisticasSaida;
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.Emprestimo;
+import com.antoniovictor.biblioteca.entities.Exemplar;
+import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.entities.Reserva;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.antoniovictor.biblioteca.entities.StatusReserva;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class ContadoresCirculacao {
+
+    private final Map<StatusEmprestimo, LongAdder> emprestimos = contadores(StatusEmprestimo.class);
+    private final Map<StatusReserva, LongAdder> reservas = contadores(StatusReserva.class);
+    private final Map<Categoria, LongAdder> estoque = contadores(Categoria.class);
+    private final TreeMap<LocalDate, Long> vencimentos = new TreeMap<>();
+    private final ReentrantLock trava = new ReentrantLock();
+    private LocalDate dataReferencia = LocalDate.now();
+    private long atrasados;
+    private volatile LocalDateTime reconstruidoEm;
+
+    public void carregar(Object entidade) {
+        switch (entidade) {
+            case Emprestimo emprestimo -> {
+                emprestimo.setStatusCarregado(emprestimo.getStatus());
+                emprestimo.setFimCarregado(emprestimo.getFim());
+            }
+            case Reserva reserva -> reserva.setStatusCarregado(reserva.getStatus());
+            case Livro livro -> {
+                livro.setEstoqueCarregado(livro.getEstoque());
+                livro.setCategoriaCarregada(livro.getCategoria());
+            }
+            case Exemplar exemplar -> exemplar.setEmprestadoCarregado(exemplar.getEmprestado());
+            default -> {
+            }
+        }
+    }
+
+    public void inserir(Object entidade) {
+        switch (entidade) {
+            case Emprestimo emprestimo -> {
+                var status = emprestimo.getStatus();
+                var fim = emprestimo.getFim();
+                AposCommit.executar(() -> alterarEmprestimo(null, null, status, fim));
+            }
+            case Reserva reserva -> {
+                var status = reserva.getStatus();
+                AposCommit.executar(() -> alterar(reservas, status, 1));
+            }
+            case Exemplar exemplar -> {
+                if (!Boolean.TRUE.equals(exemplar.getEmprestado())) {
+                    var categoria = exemplar.getLivro().getCategoria();
+                    AposCommit.executar(() -> alterar(estoque, categoria, 1));
+                }
+            }
+            default -> {
+            }
+        }
+        carregar(entidade);
+    }
+
+    public void atualizar(Object entidade) {
+        switch (entidade) {
+            case Emprestimo emprestimo -> {
+                var statusAnterior = emprestimo.getStatusCarregado();
+                var fimAnterior = emprestimo.getFimCarregado();
+                var status = emprestimo.getStatus();
+                var fim = emprestimo.getFim();
+                if (statusAnterior != status || !Objects.equals(fimAnterior, fim)) {
+                    AposCommit.executar(() -> alterarEmprestimo(statusAnterior, fimAnterior, status, fim));
+                }
+            }
+            case Reserva reserva -> {
+                var statusAnterior = reserva.getStatusCarregado();
+                var status = reserva.getStatus();
+                if (statusAnterior != status) {
+                    AposCommit.executar(() -> {
+                        alterar(reservas, statusAnterior, -1);
+                        alterar(reservas, status, 1);
+                    });
+                }
+            }
+            case Livro livro -> {
+                var categoriaAnterior = livro.getCategoriaCarregada();
+                var categoria = livro.getCategoria();
+                var quantidade = quantidade(livro.getEstoqueCarregado());
+                if (categoriaAnterior != categoria) {
+                    AposCommit.executar(() -> {
+                        alterar(estoque, categoriaAnterior, -quantidade);
+                        alterar(estoque, categoria, quantidade);
+                    });
+                }
+            }
+            case Exemplar exemplar -> {
+                var emprestadoAnterior = Boolean.TRUE.equals(exemplar.getEmprestadoCarregado());
+                var emprestado = Boolean.TRUE.equals(exemplar.getEmprestado());
+                if (emprestadoAnterior != emprestado) {
+                    var categoria = exemplar.getLivro().getCategoria();
+                    AposCommit.executar(() -> alterar(estoque, categoria, emprestado ? -1 : 1));
+                }
+            }
+            default -> {
+            }
+        }
+        carregar(entidade);
+    }
+
+    public void remover(Object entidade) {
+        switch (entidade) {
+            case Emprestimo emprestimo -> {
+                var status = emprestimo.getStatusCarregado();
+                var fim = emprestimo.getFimCarregado();
+                AposCommit.executar(() -> alterarEmprestimo(status, fim, null, null));
+            }
+            case Reserva reserva -> {
+                var status = reserva.getStatusCarregado();
+                AposCommit.executar(() -> alterar(reservas, status, -1));
+            }
+            case Exemplar exemplar -> {
+                if (!Boolean.TRUE.equals(exemplar.getEmprestadoCarregado())) {
+                    var categoria = exemplar.getLivro().getCategoria();
+                    AposCommit.executar(() -> alterar(estoque, categoria, -1));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    public void reconstruir(Map<StatusEmprestimo, Long> emprestimosPorStatus, Map<StatusReserva, Long> reservasPorStatus,
+                            Map<Categoria, Long> estoquePorCategoria, Map<LocalDate, Long> emprestimosAbertosPorVencimento) {
+        trava.lock();
+        try {
+            redefinir(emprestimos, emprestimosPorStatus);
+            redefinir(reservas, reservasPorStatus);
+            redefinir(estoque, estoquePorCategoria);
+            vencimentos.clear();
+            vencimentos.putAll(emprestimosAbertosPorVencimento);
+            dataReferencia = LocalDate.now();
+            var vencidos = vencimentos.headMap(dataReferencia);
+            atrasados = vencidos.values().stream().mapToLong(Long::longValue).sum();
+            vencidos.clear();
+            reconstruidoEm = LocalDateTime.now();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public long emprestimos(StatusEmprestimo status) {
+        return emprestimos.get(status).sum();
+    }
+
+    public long reservas(StatusReserva status) {
+        return reservas.get(status).sum();
+    }
+
+    public long emprestimosAtrasados() {
+        trava.lock();
+        try {
+            avancarData();
+            return atrasados;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public EstatisticasSaida resumo() {
+        return new EstatisticasSaida(somar(emprestimos), emprestimosAtrasados(), somar(reservas), somar(estoque), reconstruidoEm);
+    }
+
+    private void alterarEmprestimo(StatusEmprestimo statusAnterior, LocalDate fimAnterior, StatusEmprestimo status, LocalDate fim) {
+        trava.lock();
+        try {
+            alterar(emprestimos, statusAnterior, -1);
+            alterar(emprestimos, status, 1);
+            avancarData();
+            if (aberto(statusAnterior) && fimAnterior != null) {
+                alterarVencimento(fimAnterior, -1);
+            }
+            if (aberto(status) && fim != null) {
+                alterarVencimento(fim, 1);
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void alterarVencimento(LocalDate fim, long quantidade) {
+        if (fim.isBefore(dataReferencia)) {
+            atrasados += quantidade;
+        } else {
+            vencimentos.merge(fim, quantidade, (atual, delta) -> atual + delta == 0 ? null : atual + delta);
+        }
+    }
+
+    private void avancarData() {
+        var hoje = LocalDate.now();
+        if (hoje.isAfter(dataReferencia)) {
+            var vencidos = vencimentos.headMap(hoje);
+            atrasados += vencidos.values().stream().mapToLong(Long::longValue).sum();
+            vencidos.clear();
+            dataReferencia = hoje;
+        }
+    }
+
+    private static boolean aberto(StatusEmprestimo status) {
+        return status == StatusEmprestimo.ATIVO || status == StatusEmprestimo.PENDENTE;
+    }
+
+    private static int quantidade(Integer estoque) {
+        return estoque == null ? 0 : estoque;
+    }
+
+    private static <E extends Enum<E>> void alterar(Map<E, LongAdder> contadores, E chave, long quantidade) {
+        if (chave != null) {
+            contadores.get(chave).add(quantidade);
+        }
+    }
+
+    private static <E extends Enum<E>> Map<E, LongAdder> contadores(Class<E> tipo) {
+        var contadores = new EnumMap<E, LongAdder>(tipo);
+        for (var chave : tipo.getEnumConstants()) {
+            contadores.put(chave, new LongAdder());
+        }
+        return contadores;
+    }
+
+    private static <E extends Enum<E>> void redefinir(Map<E, LongAdder> contadores, Map<E, Long> valores) {
+        contadores.forEach((chave, contador) -> {
+            contador.reset();
+            contador.add(valores.getOrDefault(chave, 0L));
+        });
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> somar(Map<E, LongAdder> contadores) {
+        var valores = new EnumMap<E, Long>(contadores.keySet().iterator().next().getDeclaringClass());
+        contadores.forEach((chave, contador) -> valores.put(chave, contador.sum()));
+        return valores;
+    }
+}
@@ -0,0 +1,62 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "biblioteca.datasource.replica", name = "url")
+public class DataSourceConfiguration {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaria(DataSourceProperties properties) {
+        var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primaria");
+        return dataSource;
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("biblioteca.datasource.replica.hikari")
+    public HikariDataSource replica(@Value("${biblioteca.datasource.replica.url}") String url,
+                                    @Value("${biblioteca.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                    @Value("${biblioteca.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        var dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        meterRegistry.ifAvailable(dataSource::setMetricRegistry);
+        return dataSource;
+    }
+
+    @Bean
+    public MonitorReplica monitorReplica(@Qualifier("replica") DataSource replica,
+                                         @Value("${biblioteca.datasource.replica.consulta-atraso:SHOW REPLICA STATUS}") String consultaAtraso,
+                                         @Value("${biblioteca.datasource.replica.atraso-maximo:5s}") Duration atrasoMaximo) {
+        return new MonitorReplica(replica, consultaAtraso, atrasoMaximo);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaria") DataSource primaria, @Qualifier("replica") DataSource replica, MonitorReplica monitorReplica) {
+        var dataSource = new LazyConnectionDataSourceProxy(primaria);
+        dataSource.setReadOnlyDataSource(new DataSourceLeitura(primaria, replica, monitorReplica));
+        return dataSource;
+    }
+}
@@ -0,0 +1,44 @@
+package com.antoniovictor.biblioteca.infra;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public class DataSourceLeitura extends AbstractDataSource {
+
+    private final DataSource primaria;
+    private final DataSource replica;
+    private final MonitorReplica monitorReplica;
+
+    public DataSourceLeitura(DataSource primaria, DataSource replica, MonitorReplica monitorReplica) {
+        this.primaria = primaria;
+        this.replica = replica;
+        this.monitorReplica = monitorReplica;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (monitorReplica.replicaDisponivel()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                monitorReplica.marcarIndisponivel();
+            }
+        }
+        return primaria.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (monitorReplica.replicaDisponivel()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                monitorReplica.marcarIndisponivel();
+            }
+        }
+        return primaria.getConnection(username, password);
+    }
+}
@@ -0,0 +1,67 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.entities.Emprestimo;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("biblioteca.Emprestimo")
+@Label("Empréstimo")
+@Description("Criação, renovação ou devolução de um empréstimo")
+@Category("Biblioteca")
+@StackTrace(false)
+public class EventoEmprestimo extends Event {
+
+    @Label("Operação")
+    private final String operacao;
+    @Label("Empréstimo")
+    private long emprestimoId;
+    @Label("Usuário")
+    private long usuarioId;
+    @Label("Livro")
+    private long livroId;
+    @Label("Resultado")
+    private String resultado = "erro";
+
+    private EventoEmprestimo(String operacao) {
+        this.operacao = operacao;
+    }
+
+    public static EventoEmprestimo iniciar(String operacao) {
+        var evento = new EventoEmprestimo(operacao);
+        evento.begin();
+        return evento;
+    }
+
+    public EventoEmprestimo emprestimo(Long emprestimoId) {
+        this.emprestimoId = emprestimoId == null ? 0 : emprestimoId;
+        return this;
+    }
+
+    public EventoEmprestimo emprestimo(Emprestimo emprestimo) {
+        if (emprestimo.getUsuario() != null) {
+            usuario(emprestimo.getUsuario().getId());
+        }
+        if (emprestimo.getLivro() != null) {
+            livro(emprestimo.getLivro().getId());
+        }
+        return emprestimo(emprestimo.getId());
+    }
+
+    public EventoEmprestimo usuario(Long usuarioId) {
+        this.usuarioId = usuarioId == null ? 0 : usuarioId;
+        return this;
+    }
+
+    public EventoEmprestimo livro(Long livroId) {
+        this.livroId = livroId == null ? 0 : livroId;
+        return this;
+    }
+
+    public void resultado(String resultado) {
+        this.resultado = resultado;
+    }
+}
@@ -0,0 +1,35 @@
+package com.antoniovictor.biblioteca.infra;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("biblioteca.EnvioEmail")
+@Label("Envio de E-mail")
+@Description("Envio de um e-mail de notificação pelo servidor SMTP")
+@Category("Biblioteca")
+@StackTrace(false)
+public class EventoEnvioEmail extends Event {
+
+    @Label("Assunto")
+    private final String assunto;
+    @Label("Resultado")
+    private String resultado = "erro";
+
+    private EventoEnvioEmail(String assunto) {
+        this.assunto = assunto;
+    }
+
+    public static EventoEnvioEmail iniciar(String assunto) {
+        var evento = new EventoEnvioEmail(assunto);
+        evento.begin();
+        return evento;
+    }
+
+    public void resultado(String resultado) {
+        this.resultado = resultado;
+    }
+}
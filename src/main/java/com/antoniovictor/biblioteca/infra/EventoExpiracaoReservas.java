@@ -0,0 +1,32 @@
+package com.antoniovictor.biblioteca.infra;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("biblioteca.ExpiracaoReservas")
+@Label("Expiração de Reservas")
+@Description("Execução do job que expira as reservas ativas vencidas")
+@Category("Biblioteca")
+@StackTrace(false)
+public class EventoExpiracaoReservas extends Event {
+
+    @Label("Reservas Expiradas")
+    private int expiradas;
+    @Label("Resultado")
+    private String resultado = "erro";
+
+    public static EventoExpiracaoReservas iniciar() {
+        var evento = new EventoExpiracaoReservas();
+        evento.begin();
+        return evento;
+    }
+
+    public void concluir(int expiradas) {
+        this.expiradas = expiradas;
+        this.resultado = "sucesso";
+    }
+}
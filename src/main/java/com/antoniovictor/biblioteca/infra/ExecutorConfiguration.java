@@ -0,0 +1,57 @@
+package com.antoniovictor.biblioteca.infra;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfiguration {
+
+    @Bean(defaultCandidate = false)
+    public ThreadPoolTaskExecutor emailExecutor(@Value("${biblioteca.email.threads:4}") int threads,
+                                                @Value("${biblioteca.email.fila:10000}") int fila) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("email-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Bean(defaultCandidate = false)
+    public ThreadPoolTaskExecutor eventosExecutor(@Value("${biblioteca.eventos.threads:4}") int threads,
+                                                  @Value("${biblioteca.eventos.fila:10000}") int fila,
+                                                  MeterRegistry meterRegistry) {
+        var descartados = Counter.builder("biblioteca.eventos.descartados")
+                .description("Eventos de domínio descartados com a fila do eventosExecutor cheia")
+                .register(meterRegistry);
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("eventos-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setRejectedExecutionHandler((tarefa, pool) -> descartados.increment());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Bean(defaultCandidate = false)
+    public ThreadPoolTaskExecutor recomendacoesExecutor() {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("recomendacoes-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
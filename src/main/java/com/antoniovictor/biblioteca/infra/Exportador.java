@@ -0,0 +1,85 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class Exportador {
+
+    private static final int LINHAS_POR_FLUSH = 500;
+
+    private final ObjectMapper objectMapper;
+
+    public Exportador(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public <T extends Record> long escrever(Stream<T> linhas, Class<T> tipo, FormatoArquivo formato, OutputStream saida) throws IOException {
+        return escrever(List.of(() -> linhas), tipo, formato, saida);
+    }
+
+    public <T extends Record> long escrever(List<Supplier<Stream<T>>> partes, Class<T> tipo, FormatoArquivo formato, OutputStream saida) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        var componentes = tipo.getRecordComponents();
+        if (formato == FormatoArquivo.CSV) {
+            writer.write(Arrays.stream(componentes).map(RecordComponent::getName).collect(Collectors.joining(",")));
+            writer.newLine();
+        }
+        var total = 0L;
+        for (var parte : partes) {
+            try (var linhas = parte.get()) {
+                for (var iterator = linhas.iterator(); iterator.hasNext(); ) {
+                    var linha = iterator.next();
+                    if (formato == FormatoArquivo.CSV) {
+                        escreverCsv(writer, componentes, linha);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(linha));
+                    }
+                    writer.newLine();
+                    if (++total % LINHAS_POR_FLUSH == 0) {
+                        writer.flush();
+                    }
+                }
+            }
+        }
+        writer.flush();
+        return total;
+    }
+
+    private void escreverCsv(Writer writer, RecordComponent[] componentes, Record linha) throws IOException {
+        for (int i = 0; i < componentes.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object valor;
+            try {
+                valor = componentes[i].getAccessor().invoke(linha);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+            if (valor != null) {
+                writer.write(escaparCsv(valor.toString()));
+            }
+        }
+    }
+
+    private String escaparCsv(String valor) {
+        if (valor.contains(",") || valor.contains("\"") || valor.contains("\n") || valor.contains("\r")) {
+            return "\"" + valor.replace("\"", "\"\"") + "\"";
+        }
+        return valor;
+    }
+}
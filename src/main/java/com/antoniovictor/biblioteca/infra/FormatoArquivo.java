@@ -0,0 +1,40 @@
+package com.antoniovictor.biblioteca.infra;
+
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+
+public enum FormatoArquivo {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extensao;
+
+    FormatoArquivo(MediaType mediaType, String extensao) {
+        this.mediaType = mediaType;
+        this.extensao = extensao;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String nomeArquivo(String base) {
+        return base + "." + extensao;
+    }
+
+    public static FormatoArquivo de(MediaType mediaType) {
+        return Arrays.stream(values())
+                .filter(f -> f.mediaType.isCompatibleWith(mediaType))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Digite um formato de arquivo válido: ndjson ou csv"));
+    }
+
+    public static FormatoArquivo de(String formato) {
+        return Arrays.stream(values())
+                .filter(f -> f.name().equalsIgnoreCase(formato))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Digite um formato de arquivo válido: ndjson ou csv"));
+    }
+}
@@ -0,0 +1,292 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.antoniovictor.biblioteca.entities.StatusReserva;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@Profile("gerador")
+public class GeradorDados implements ApplicationRunner {
+
+    private static final Categoria[] CATEGORIAS = Categoria.values();
+    private static final int DURACAO_EMPRESTIMO = 14;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogoVersoes catalogoVersoes;
+    private final ApplicationContext applicationContext;
+
+    @Value("${biblioteca.gerador.usuarios:100000}")
+    private long usuarios;
+    @Value("${biblioteca.gerador.livros:50000}")
+    private long livros;
+    @Value("${biblioteca.gerador.exemplares-por-livro:5}")
+    private int exemplaresPorLivro;
+    @Value("${biblioteca.gerador.emprestimos:10000000}")
+    private long emprestimos;
+    @Value("${biblioteca.gerador.reservas:1000000}")
+    private long reservas;
+    @Value("${biblioteca.gerador.anos:5}")
+    private int anos;
+    @Value("${biblioteca.gerador.expoente-livros:1.1}")
+    private double expoenteLivros;
+    @Value("${biblioteca.gerador.expoente-usuarios:0.8}")
+    private double expoenteUsuarios;
+    @Value("${biblioteca.gerador.lote:5000}")
+    private int lote;
+    @Value("${biblioteca.gerador.threads:4}")
+    private int threads;
+    @Value("${biblioteca.gerador.semente:42}")
+    private long semente;
+    @Value("${biblioteca.gerador.senha:usuario}")
+    private String senha;
+    @Value("${biblioteca.gerador.encerrar:true}")
+    private boolean encerrar;
+
+    public GeradorDados(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, CatalogoVersoes catalogoVersoes, ApplicationContext applicationContext) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogoVersoes = catalogoVersoes;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        var inicio = System.nanoTime();
+        var primeiroUsuario = reservarIds("usuarios", usuarios);
+        var primeiroLivro = reservarIds("livros", livros);
+        var primeiroExemplar = reservarIds("exemplares", livros * exemplaresPorLivro);
+        var primeiroEmprestimo = reservarIds("emprestimos", emprestimos);
+        var primeiraReserva = reservarIds("reservas", reservas);
+        var hoje = LocalDate.now();
+        var agora = LocalDateTime.now();
+        var hash = BCrypt.hashpw(senha, BCrypt.gensalt(10));
+        var livrosPopulares = new Zipf(livros, expoenteLivros);
+        var leitoresAssiduos = new Zipf(usuarios, expoenteUsuarios);
+
+        gerar("usuarios", usuarios, """
+                insert into usuarios (id, nome, email, senha, cpf, ativo, role, email_verificado, codigo_verificacao)
+                values (?, ?, ?, ?, ?, true, 'LEITOR', true, null)
+                """, (ps, i, random) -> {
+            var id = primeiroUsuario + i;
+            ps.setLong(1, id);
+            ps.setString(2, "Leitor " + id);
+            ps.setString(3, "leitor" + id + "@gerador.local");
+            ps.setString(4, hash);
+            ps.setString(5, String.format("%011d", id));
+        });
+
+        gerar("livros", livros, """
+                insert into livros (id, titulo, autor, categoria, versao, atualizado_em)
+                values (?, ?, ?, ?, 0, ?)
+                """, (ps, i, random) -> {
+            var id = primeiroLivro + i;
+            ps.setLong(1, id);
+            ps.setString(2, "Livro " + id);
+            ps.setString(3, "Autor " + random.nextLong(Math.max(livros / 5, 1)));
+            ps.setString(4, CATEGORIAS[random.nextInt(CATEGORIAS.length)].name());
+            ps.setTimestamp(5, Timestamp.valueOf(agora));
+        });
+
+        gerar("exemplares", livros * exemplaresPorLivro, """
+                insert into exemplares (id, livro_id, emprestado)
+                values (?, ?, false)
+                """, (ps, i, random) -> {
+            ps.setLong(1, primeiroExemplar + i);
+            ps.setLong(2, primeiroLivro + i / exemplaresPorLivro);
+        });
+
+        var diasHistorico = anos * 365;
+        gerar("emprestimos", emprestimos, """
+                insert into emprestimos (id, inicio, fim, multa, livro_id, status, usuario_id)
+                values (?, ?, ?, ?, ?, ?, ?)
+                """, (ps, i, random) -> {
+            var inicioEmprestimo = hoje.minusDays(random.nextInt(diasHistorico));
+            var fim = inicioEmprestimo.plusDays(DURACAO_EMPRESTIMO);
+            StatusEmprestimo status;
+            double multa = 0;
+            if (!fim.isBefore(hoje)) {
+                status = StatusEmprestimo.ATIVO;
+            } else if (random.nextInt(100) < 3) {
+                status = StatusEmprestimo.PENDENTE;
+            } else {
+                status = StatusEmprestimo.FINALIZADO;
+                if (random.nextInt(100) < 10) {
+                    multa = (1 + random.nextInt(10)) * 2.0;
+                }
+            }
+            ps.setLong(1, primeiroEmprestimo + i);
+            ps.setDate(2, Date.valueOf(inicioEmprestimo));
+            ps.setDate(3, Date.valueOf(fim));
+            ps.setDouble(4, multa);
+            ps.setLong(5, primeiroLivro + livrosPopulares.sortear(random));
+            ps.setString(6, status.name());
+            ps.setLong(7, primeiroUsuario + leitoresAssiduos.sortear(random));
+        });
+
+        var horasHistorico = diasHistorico * 24;
+        gerar("reservas", reservas, """
+                insert into reservas (id, data, inicio, expiracao, usuario_id, livro_id, status)
+                values (?, ?, ?, ?, ?, ?, ?)
+                """, (ps, i, random) -> {
+            var data = agora.minusHours(random.nextInt(horasHistorico));
+            LocalDateTime inicioReserva = null;
+            StatusReserva status;
+            if (data.isAfter(agora.minusDays(DURACAO_EMPRESTIMO))) {
+                status = random.nextInt(100) < 80 ? StatusReserva.PENDENTE : StatusReserva.ATIVA;
+            } else {
+                status = random.nextInt(100) < 70 ? StatusReserva.FINALIZADA : StatusReserva.EXPIRADA;
+            }
+            if (status != StatusReserva.PENDENTE) {
+                inicioReserva = data.plusDays(random.nextInt(DURACAO_EMPRESTIMO));
+            }
+            ps.setLong(1, primeiraReserva + i);
+            ps.setTimestamp(2, Timestamp.valueOf(data));
+            ps.setTimestamp(3, inicioReserva == null ? null : Timestamp.valueOf(inicioReserva));
+            ps.setTimestamp(4, inicioReserva == null ? null : Timestamp.valueOf(inicioReserva.plusHours(48)));
+            ps.setLong(5, primeiroUsuario + leitoresAssiduos.sortear(random));
+            ps.setLong(6, primeiroLivro + livrosPopulares.sortear(random));
+            ps.setString(7, status.name());
+        });
+
+        emprestarExemplares(primeiroLivro, primeiroExemplar, primeiroEmprestimo, hoje);
+        catalogoVersoes.invalidar();
+        log.info("Geração concluída em {}s", (System.nanoTime() - inicio) / 1_000_000_000);
+        if (encerrar) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private void emprestarExemplares(long primeiroLivro, long primeiroExemplar, long primeiroEmprestimo, LocalDate hoje) {
+        var inicio = System.nanoTime();
+        var vinculados = new ArrayList<Object[]>();
+        var devolvidos = new ArrayList<Object[]>();
+        var livroAtual = new long[]{-1};
+        var emUso = new int[1];
+        jdbcTemplate.query("""
+                select id, livro_id from emprestimos
+                where status in ('ATIVO', 'PENDENTE') and id >= ?
+                order by livro_id, id
+                """, rs -> {
+            var livro = rs.getLong(2);
+            if (livro != livroAtual[0]) {
+                livroAtual[0] = livro;
+                emUso[0] = 0;
+            }
+            if (emUso[0] < exemplaresPorLivro) {
+                var exemplar = primeiroExemplar + (livro - primeiroLivro) * exemplaresPorLivro + emUso[0]++;
+                vinculados.add(new Object[]{exemplar, rs.getLong(1)});
+            } else {
+                devolvidos.add(new Object[]{Date.valueOf(hoje), rs.getLong(1)});
+            }
+        }, primeiroEmprestimo);
+        jdbcTemplate.batchUpdate("update emprestimos set exemplar_id = ? where id = ?", vinculados);
+        jdbcTemplate.batchUpdate("update exemplares set emprestado = true where id = ?",
+                vinculados.stream().map(v -> new Object[]{v[0]}).toList());
+        jdbcTemplate.batchUpdate("update emprestimos set status = 'FINALIZADO', fim = ? where id = ?", devolvidos);
+        var segundos = Math.max((System.nanoTime() - inicio) / 1e9, 0.001);
+        log.info("exemplares: {} emprestados, {} empréstimos sem exemplar livre finalizados em {}s",
+                vinculados.size(), devolvidos.size(), String.format("%.1f", segundos));
+    }
+
+    private long reservarIds(String entidade, long quantidade) {
+        return transactionTemplate.execute(status -> {
+            var proximoId = jdbcTemplate.queryForObject("select proximo_id from id_geradores where entidade = ? for update", Long.class, entidade);
+            jdbcTemplate.update("update id_geradores set proximo_id = ? where entidade = ?", proximoId + quantidade + 50, entidade);
+            return proximoId + 1;
+        });
+    }
+
+    private void gerar(String tabela, long quantidade, String sql, Linha linha) throws InterruptedException, ExecutionException {
+        if (quantidade <= 0) {
+            return;
+        }
+        var inicio = System.nanoTime();
+        var lotes = (quantidade + lote - 1) / lote;
+        var gravadas = new AtomicLong();
+        var passoLog = Math.max(quantidade / 10, 1);
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            var tarefas = new ArrayList<Future<?>>();
+            for (long l = 0; l < lotes; l++) {
+                var primeiro = l * lote;
+                var tamanho = (int) Math.min(lote, quantidade - primeiro);
+                var random = new SplittableRandom(semente ^ (tabela.hashCode() * 31L + l));
+                tarefas.add(executor.submit(() -> {
+                    jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            linha.preencher(ps, primeiro + i, random);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return tamanho;
+                        }
+                    });
+                    var total = gravadas.addAndGet(tamanho);
+                    if (total / passoLog != (total - tamanho) / passoLog) {
+                        log.info("{}: {}/{}", tabela, total, quantidade);
+                    }
+                }));
+            }
+            for (var tarefa : tarefas) {
+                tarefa.get();
+            }
+        }
+        var segundos = Math.max((System.nanoTime() - inicio) / 1e9, 0.001);
+        log.info("{}: {} linhas em {}s ({} linhas/s)", tabela, quantidade, String.format("%.1f", segundos), (long) (quantidade / segundos));
+    }
+
+    @FunctionalInterface
+    private interface Linha {
+        void preencher(PreparedStatement ps, long indice, SplittableRandom random) throws SQLException;
+    }
+
+    static class Zipf {
+        private final double[] acumulada;
+
+        Zipf(long elementos, double expoente) {
+            acumulada = new double[(int) Math.max(elementos, 1)];
+            var soma = 0.0;
+            for (int i = 0; i < acumulada.length; i++) {
+                soma += 1 / Math.pow(i + 1, expoente);
+                acumulada[i] = soma;
+            }
+            for (int i = 0; i < acumulada.length; i++) {
+                acumulada[i] /= soma;
+            }
+        }
+
+        long sortear(SplittableRandom random) {
+            var indice = Arrays.binarySearch(acumulada, random.nextDouble());
+            return indice >= 0 ? indice : Math.min(-indice - 1, acumulada.length - 1);
+        }
+    }
+}
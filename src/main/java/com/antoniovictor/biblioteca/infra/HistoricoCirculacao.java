@@ -0,0 +1,279 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.entities.Emprestimo;
+import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.entities.Reserva;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.antoniovictor.biblioteca.entities.StatusReserva;
+import com.antoniovictor.biblioteca.entities.Usuario;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+@Component
+public class HistoricoCirculacao implements SmartLifecycle {
+
+    private static final String INSERIR = """
+            insert into eventos_circulacao (tipo, emprestimo_id, reserva_id, usuario_id, livro_id, ocorrido_em)
+            values (?, ?, ?, ?, ?, ?)
+            """;
+    private static final int TENTATIVAS_ENCERRAMENTO = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AnelCircular<Evento> anel;
+    private final List<Evento> pendentes = new ArrayList<>();
+    private final int lote;
+    private final long intervalo;
+    private final int tentativas;
+    private final Counter descartados;
+    private final Counter rejeitados;
+    private int falhas;
+    private volatile boolean executando;
+    private volatile Thread escritor;
+
+    public HistoricoCirculacao(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                               @Value("${biblioteca.historico.capacidade:65536}") int capacidade,
+                               @Value("${biblioteca.historico.lote:500}") int lote,
+                               @Value("${biblioteca.historico.intervalo:200}") long intervalo,
+                               @Value("${biblioteca.historico.tentativas:5}") int tentativas) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.anel = new AnelCircular<>(capacidade);
+        this.lote = lote;
+        this.intervalo = TimeUnit.MILLISECONDS.toNanos(intervalo);
+        this.tentativas = tentativas;
+        Gauge.builder("biblioteca.historico.fila", anel, AnelCircular::tamanho)
+                .description("Eventos de circulação aguardando gravação")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("biblioteca.historico.descartados")
+                .description("Eventos de circulação descartados com a fila cheia")
+                .register(meterRegistry);
+        this.rejeitados = Counter.builder("biblioteca.historico.rejeitados")
+                .description("Eventos de circulação descartados após esgotar as tentativas de gravação")
+                .register(meterRegistry);
+    }
+
+    public void inserir(Object entidade) {
+        switch (entidade) {
+            case Emprestimo emprestimo -> publicarAposCommit(Tipo.EMPRESTIMO_CRIADO, emprestimo);
+            case Reserva reserva -> publicarAposCommit(Tipo.RESERVA_CRIADA, reserva);
+            default -> {
+            }
+        }
+    }
+
+    public void atualizar(Object entidade) {
+        switch (entidade) {
+            case Emprestimo emprestimo -> {
+                if (emprestimo.getStatusCarregado() != emprestimo.getStatus()) {
+                    publicarAposCommit(tipo(emprestimo.getStatus()), emprestimo);
+                } else if (!Objects.equals(emprestimo.getFimCarregado(), emprestimo.getFim())) {
+                    publicarAposCommit(Tipo.EMPRESTIMO_RENOVADO, emprestimo);
+                }
+            }
+            case Reserva reserva -> {
+                if (reserva.getStatusCarregado() != reserva.getStatus()) {
+                    publicarAposCommit(tipo(reserva.getStatus()), reserva);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    public void remover(Object entidade) {
+        switch (entidade) {
+            case Emprestimo emprestimo -> publicarAposCommit(Tipo.EMPRESTIMO_REMOVIDO, emprestimo);
+            case Reserva reserva -> publicarAposCommit(Tipo.RESERVA_REMOVIDA, reserva);
+            default -> {
+            }
+        }
+    }
+
+    public void publicar(Evento evento) {
+        if (!anel.oferecer(evento)) {
+            descartados.increment();
+            log.debug("Fila do histórico de circulação cheia, evento descartado: {}", evento);
+        }
+    }
+
+    int descarregar() {
+        anel.drenar(pendentes::add, lote - pendentes.size());
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+        try {
+            gravar(pendentes);
+            var gravados = pendentes.size();
+            pendentes.clear();
+            falhas = 0;
+            return gravados;
+        } catch (DataAccessException e) {
+            if (++falhas < tentativas) {
+                log.error("Falha ao gravar {} eventos de circulação (tentativa {} de {}): {}", pendentes.size(), falhas, tentativas, e.getMessage());
+                return 0;
+            }
+            log.error("Falha ao gravar {} eventos de circulação após {} tentativas, gravando um a um: {}", pendentes.size(), tentativas, e.getMessage());
+            var gravados = gravarUmAUm();
+            pendentes.clear();
+            falhas = 0;
+            return gravados;
+        }
+    }
+
+    int pendentes() {
+        return pendentes.size() + anel.tamanho();
+    }
+
+    private int gravarUmAUm() {
+        var gravados = 0;
+        for (var evento : pendentes) {
+            try {
+                gravar(List.of(evento));
+                gravados++;
+            } catch (DataAccessException e) {
+                rejeitados.increment();
+                log.error("Evento de circulação descartado após {} tentativas: {} ({})", tentativas, evento, e.getMessage());
+            }
+        }
+        return gravados;
+    }
+
+    private void gravar(List<Evento> eventos) {
+        jdbcTemplate.batchUpdate(INSERIR, eventos, eventos.size(), (ps, evento) -> {
+            ps.setString(1, evento.tipo().name());
+            ps.setObject(2, evento.emprestimoId(), Types.BIGINT);
+            ps.setObject(3, evento.reservaId(), Types.BIGINT);
+            ps.setObject(4, evento.usuarioId(), Types.BIGINT);
+            ps.setObject(5, evento.livroId(), Types.BIGINT);
+            ps.setTimestamp(6, Timestamp.valueOf(evento.ocorridoEm()));
+        });
+    }
+
+    @Override
+    public void start() {
+        executando = true;
+        escritor = Thread.ofPlatform().name("historico-circulacao").daemon().start(this::escrever);
+    }
+
+    @Override
+    public void stop() {
+        executando = false;
+        var thread = escritor;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                log.error("A thread do histórico de circulação não terminou, {} eventos não foram gravados no encerramento", pendentes());
+                return;
+            }
+        }
+        var falhas = 0;
+        while (falhas < TENTATIVAS_ENCERRAMENTO && pendentes() > 0) {
+            if (descarregar() == 0) {
+                falhas++;
+                LockSupport.parkNanos(intervalo);
+            }
+        }
+        if (pendentes() > 0) {
+            log.error("{} eventos de circulação não foram gravados no encerramento", pendentes());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executando;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void escrever() {
+        while (executando) {
+            if (descarregar() < lote) {
+                LockSupport.parkNanos(intervalo);
+            }
+        }
+    }
+
+    private void publicarAposCommit(Tipo tipo, Emprestimo emprestimo) {
+        var evento = new Evento(tipo, emprestimo.getId(), null, id(emprestimo.getUsuario()), id(emprestimo.getLivro()), LocalDateTime.now());
+        AposCommit.executar(() -> publicar(evento));
+    }
+
+    private void publicarAposCommit(Tipo tipo, Reserva reserva) {
+        var evento = new Evento(tipo, null, reserva.getId(), id(reserva.getUsuario()), id(reserva.getLivro()), LocalDateTime.now());
+        AposCommit.executar(() -> publicar(evento));
+    }
+
+    private static Long id(Usuario usuario) {
+        return usuario == null ? null : usuario.getId();
+    }
+
+    private static Long id(Livro livro) {
+        return livro == null ? null : livro.getId();
+    }
+
+    private static Tipo tipo(StatusEmprestimo status) {
+        return switch (status) {
+            case ATIVO -> Tipo.EMPRESTIMO_REATIVADO;
+            case PENDENTE -> Tipo.EMPRESTIMO_ATRASADO;
+            case FINALIZADO -> Tipo.EMPRESTIMO_DEVOLVIDO;
+        };
+    }
+
+    private static Tipo tipo(StatusReserva status) {
+        return switch (status) {
+            case PENDENTE -> Tipo.RESERVA_REABERTA;
+            case ATIVA -> Tipo.RESERVA_ATIVADA;
+            case FINALIZADA -> Tipo.RESERVA_FINALIZADA;
+            case EXPIRADA -> Tipo.RESERVA_EXPIRADA;
+        };
+    }
+
+    public enum Tipo {
+        EMPRESTIMO_CRIADO,
+        EMPRESTIMO_RENOVADO,
+        EMPRESTIMO_ATRASADO,
+        EMPRESTIMO_DEVOLVIDO,
+        EMPRESTIMO_REATIVADO,
+        EMPRESTIMO_REMOVIDO,
+        RESERVA_CRIADA,
+        RESERVA_ATIVADA,
+        RESERVA_REABERTA,
+        RESERVA_FINALIZADA,
+        RESERVA_EXPIRADA,
+        RESERVA_REMOVIDA
+    }
+
+    public record Evento(
+            Tipo tipo,
+            Long emprestimoId,
+            Long reservaId,
+            Long usuarioId,
+            Long livroId,
+            LocalDateTime ocorridoEm
+    ) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.antoniovictor.biblioteca.infra;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Leitura que não pode ver dados atrasados da réplica (autenticação e carga de caches):
+ * a transação não é somente leitura, então a conexão vem sempre do banco principal.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Transactional
+public @interface LeituraPrimaria {
+}
@@ -0,0 +1,173 @@
+package com.antoniovictor.biblioteca.infra;
+
+public class MapaLongInt {
+
+    private static final float CARGA = 0.6f;
+
+    private long[] chaves;
+    private int[] valores;
+    private int tamanho;
+    private int limite;
+
+    public MapaLongInt(int capacidade) {
+        var tamanhoTabela = Integer.highestOneBit(Math.max((int) (capacidade / CARGA), 8) - 1) << 1;
+        chaves = new long[tamanhoTabela];
+        valores = new int[tamanhoTabela];
+        limite = (int) (tamanhoTabela * CARGA);
+    }
+
+    public int get(long chave, int padrao) {
+        var posicao = posicao(chave);
+        return chaves[posicao] == chave ? valores[posicao] : padrao;
+    }
+
+    public void colocar(long chave, int valor) {
+        var posicao = posicao(chave);
+        if (chaves[posicao] == 0) {
+            chaves[posicao] = chave;
+            tamanho++;
+        }
+        valores[posicao] = valor;
+        if (tamanho > limite) {
+            redimensionar(chaves.length << 1);
+        }
+    }
+
+    public void somar(long chave, int valor) {
+        var posicao = posicao(chave);
+        if (chaves[posicao] == 0) {
+            chaves[posicao] = chave;
+            valores[posicao] = valor;
+            if (++tamanho > limite) {
+                redimensionar(chaves.length << 1);
+            }
+        } else {
+            valores[posicao] += valor;
+        }
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public void paraCada(Consumidor consumidor) {
+        for (int i = 0; i < chaves.length; i++) {
+            if (chaves[i] != 0) {
+                consumidor.aceitar(chaves[i], valores[i]);
+            }
+        }
+    }
+
+    public void somarTodos(MapaLongInt outro) {
+        outro.paraCada(this::somar);
+    }
+
+    public int podar(int maximo) {
+        if (tamanho <= maximo) {
+            return 0;
+        }
+        var histograma = new int[64];
+        paraCada((chave, valor) -> histograma[Math.min(valor, histograma.length - 1)]++);
+        var corte = 0;
+        var restantes = tamanho;
+        while (restantes > maximo && corte < histograma.length - 2) {
+            restantes -= histograma[++corte];
+        }
+        if (restantes > maximo) {
+            // O histograma satura em 63: acima disso o corte sai de uma seleção sobre as contagens reais.
+            corte = selecionar(valoresPresentes(), tamanho - maximo - 1);
+        }
+        var minimo = corte + 1;
+        var antigasChaves = chaves;
+        var antigosValores = valores;
+        chaves = new long[antigasChaves.length];
+        valores = new int[antigosValores.length];
+        tamanho = 0;
+        for (int i = 0; i < antigasChaves.length; i++) {
+            if (antigasChaves[i] != 0 && antigosValores[i] >= minimo) {
+                colocar(antigasChaves[i], antigosValores[i]);
+            }
+        }
+        return corte;
+    }
+
+    private int[] valoresPresentes() {
+        var presentes = new int[tamanho];
+        var total = 0;
+        for (int i = 0; i < chaves.length; i++) {
+            if (chaves[i] != 0) {
+                presentes[total++] = valores[i];
+            }
+        }
+        return presentes;
+    }
+
+    private static int selecionar(int[] valores, int k) {
+        var esquerda = 0;
+        var direita = valores.length - 1;
+        while (esquerda < direita) {
+            var pivo = valores[(esquerda + direita) >>> 1];
+            var i = esquerda;
+            var j = direita;
+            while (i <= j) {
+                while (valores[i] < pivo) {
+                    i++;
+                }
+                while (valores[j] > pivo) {
+                    j--;
+                }
+                if (i <= j) {
+                    var troca = valores[i];
+                    valores[i++] = valores[j];
+                    valores[j--] = troca;
+                }
+            }
+            if (k <= j) {
+                direita = j;
+            } else if (k >= i) {
+                esquerda = i;
+            } else {
+                return valores[k];
+            }
+        }
+        return valores[k];
+    }
+
+    private int posicao(long chave) {
+        if (chave == 0) {
+            throw new IllegalArgumentException("A chave 0 é reservada");
+        }
+        var mascara = chaves.length - 1;
+        var posicao = (int) espalhar(chave) & mascara;
+        while (chaves[posicao] != 0 && chaves[posicao] != chave) {
+            posicao = (posicao + 1) & mascara;
+        }
+        return posicao;
+    }
+
+    private void redimensionar(int tamanhoTabela) {
+        var antigasChaves = chaves;
+        var antigosValores = valores;
+        chaves = new long[tamanhoTabela];
+        valores = new int[tamanhoTabela];
+        limite = (int) (tamanhoTabela * CARGA);
+        tamanho = 0;
+        for (int i = 0; i < antigasChaves.length; i++) {
+            if (antigasChaves[i] != 0) {
+                colocar(antigasChaves[i], antigosValores[i]);
+            }
+        }
+    }
+
+    private static long espalhar(long chave) {
+        chave ^= chave >>> 33;
+        chave *= 0xff51afd7ed558ccdL;
+        chave ^= chave >>> 33;
+        return chave;
+    }
+
+    @FunctionalInterface
+    public interface Consumidor {
+        void aceitar(long chave, int valor);
+    }
+}
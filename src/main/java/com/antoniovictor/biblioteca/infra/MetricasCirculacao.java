@@ -0,0 +1,58 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.antoniovictor.biblioteca.entities.StatusReserva;
+import com.antoniovictor.biblioteca.repository.ReservaRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class MetricasCirculacao {
+
+    private final ReservaRepository reservaRepository;
+    private final MultiGauge livrosMaisReservados;
+    private final int maioresReservas;
+
+    public MetricasCirculacao(ReservaRepository reservaRepository, ContadoresCirculacao contadores, MeterRegistry meterRegistry,
+                              @Qualifier("emailExecutor") ThreadPoolTaskExecutor emailExecutor,
+                              @Qualifier("eventosExecutor") ThreadPoolTaskExecutor eventosExecutor,
+                              @Value("${biblioteca.metricas.maiores-reservas:10}") int maioresReservas) {
+        this.reservaRepository = reservaRepository;
+        this.maioresReservas = maioresReservas;
+        Gauge.builder("biblioteca.emprestimos.ativos", contadores, c -> c.emprestimos(StatusEmprestimo.ATIVO))
+                .description("Empréstimos com status ATIVO")
+                .register(meterRegistry);
+        Gauge.builder("biblioteca.emprestimos.atrasados", contadores, ContadoresCirculacao::emprestimosAtrasados)
+                .description("Empréstimos ativos ou pendentes com prazo vencido")
+                .register(meterRegistry);
+        Gauge.builder("biblioteca.email.fila", emailExecutor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("E-mails aguardando envio")
+                .register(meterRegistry);
+        Gauge.builder("biblioteca.eventos.fila", eventosExecutor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Eventos de domínio aguardando processamento após o commit")
+                .register(meterRegistry);
+        Gauge.builder("biblioteca.reservas.pendentes", contadores, c -> c.reservas(StatusReserva.PENDENTE))
+                .description("Reservas com status PENDENTE")
+                .register(meterRegistry);
+        this.livrosMaisReservados = MultiGauge.builder("biblioteca.reservas.pendentes.maiores")
+                .description("Reservas pendentes dos livros com mais reservas na fila")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.metricas.intervalo:30000}")
+    @Transactional(readOnly = true)
+    public void atualizar() {
+        livrosMaisReservados.register(reservaRepository.contarPorLivro(StatusReserva.PENDENTE, PageRequest.of(0, maioresReservas)).stream()
+                .map(linha -> MultiGauge.Row.of(Tags.of("livro", linha[0].toString()), ((Number) linha[1]).longValue()))
+                .toList(), true);
+    }
+}
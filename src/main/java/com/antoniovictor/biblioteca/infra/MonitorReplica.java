@@ -0,0 +1,67 @@
+package com.antoniovictor.biblioteca.infra;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+@Slf4j
+public class MonitorReplica {
+
+    private final DataSource replica;
+    private final String consultaAtraso;
+    private final Duration atrasoMaximo;
+    private volatile boolean disponivel = true;
+
+    public MonitorReplica(DataSource replica, String consultaAtraso, Duration atrasoMaximo) {
+        this.replica = replica;
+        this.consultaAtraso = consultaAtraso;
+        this.atrasoMaximo = atrasoMaximo;
+    }
+
+    public boolean replicaDisponivel() {
+        return disponivel;
+    }
+
+    public void marcarIndisponivel() {
+        disponivel = false;
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.datasource.replica.intervalo-verificacao:5000}")
+    public void verificar() {
+        try (var conexao = replica.getConnection()) {
+            var atraso = atrasoEmSegundos(conexao);
+            var estavaDisponivel = disponivel;
+            disponivel = atraso <= atrasoMaximo.toSeconds();
+            if (estavaDisponivel && !disponivel) {
+                log.warn("Réplica com atraso de {}s, leituras redirecionadas para a primária", atraso);
+            }
+        } catch (SQLException e) {
+            disponivel = false;
+            log.warn("Réplica indisponível, leituras redirecionadas para a primária: {}", e.getMessage());
+        }
+    }
+
+    private long atrasoEmSegundos(Connection conexao) throws SQLException {
+        if (consultaAtraso == null || consultaAtraso.isBlank()) {
+            return 0;
+        }
+        try (var statement = conexao.createStatement(); var resultado = statement.executeQuery(consultaAtraso)) {
+            if (!resultado.next()) {
+                return 0;
+            }
+            var colunas = resultado.getMetaData();
+            for (int i = 1; i <= colunas.getColumnCount(); i++) {
+                var nome = colunas.getColumnLabel(i);
+                if (nome.equalsIgnoreCase("Seconds_Behind_Source") || nome.equalsIgnoreCase("Seconds_Behind_Master")) {
+                    var atraso = resultado.getLong(i);
+                    return resultado.wasNull() ? Long.MAX_VALUE : atraso;
+                }
+            }
+            return resultado.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.entities.Exemplar;
+import com.antoniovictor.biblioteca.entities.Livro;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class OuvinteCatalogo {
+
+    private final CatalogoVersoes catalogoVersoes;
+    private final ObjectProvider<RankingLivros> rankingLivros;
+    private final ObjectProvider<MonitorReplica> monitorReplica;
+
+    public OuvinteCatalogo(CatalogoVersoes catalogoVersoes, ObjectProvider<RankingLivros> rankingLivros, ObjectProvider<MonitorReplica> monitorReplica) {
+        this.catalogoVersoes = catalogoVersoes;
+        this.rankingLivros = rankingLivros;
+        this.monitorReplica = monitorReplica;
+    }
+
+    @PostLoad
+    public void carregar(Object entidade) {
+        if (entidade instanceof Livro livro && !lidoDaReplica()) {
+            catalogoVersoes.lembrar(livro);
+        }
+    }
+
+    @PostPersist
+    public void inserir(Object entidade) {
+        switch (entidade) {
+            case Livro livro -> AposCommit.executar(() -> catalogoVersoes.registrar(livro));
+            case Exemplar exemplar -> AposCommit.executar(() -> catalogoVersoes.remover(exemplar.getLivro()));
+            default -> {
+            }
+        }
+    }
+
+    @PostUpdate
+    public void atualizar(Object entidade) {
+        switch (entidade) {
+            case Livro livro -> AposCommit.executar(() -> {
+                catalogoVersoes.registrar(livro);
+                rankingLivros.ifAvailable(ranking -> ranking.atualizarLivro(livro));
+            });
+            case Exemplar exemplar -> AposCommit.executar(() -> catalogoVersoes.circular(exemplar.getLivro()));
+            default -> {
+            }
+        }
+    }
+
+    @PostRemove
+    public void remover(Object entidade) {
+        switch (entidade) {
+            case Livro livro -> AposCommit.executar(() -> {
+                catalogoVersoes.remover(livro);
+                rankingLivros.ifAvailable(ranking -> ranking.removerLivro(livro));
+            });
+            case Exemplar exemplar -> AposCommit.executar(() -> catalogoVersoes.remover(exemplar.getLivro()));
+            default -> {
+            }
+        }
+    }
+
+    // Um livro lido da réplica pode estar atrasado e guardaria uma versão que o banco principal já superou.
+    private boolean lidoDaReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        var monitor = monitorReplica.getIfAvailable();
+        return monitor != null && monitor.replicaDisponivel();
+    }
+}
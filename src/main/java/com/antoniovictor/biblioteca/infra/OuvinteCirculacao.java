@@ -0,0 +1,40 @@
+package com.antoniovictor.biblioteca.infra;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+public class OuvinteCirculacao {
+
+    private final ContadoresCirculacao contadores;
+    private final HistoricoCirculacao historico;
+
+    public OuvinteCirculacao(ContadoresCirculacao contadores, HistoricoCirculacao historico) {
+        this.contadores = contadores;
+        this.historico = historico;
+    }
+
+    @PostLoad
+    public void carregar(Object entidade) {
+        contadores.carregar(entidade);
+    }
+
+    @PostPersist
+    public void inserir(Object entidade) {
+        historico.inserir(entidade);
+        contadores.inserir(entidade);
+    }
+
+    @PostUpdate
+    public void atualizar(Object entidade) {
+        historico.atualizar(entidade);
+        contadores.atualizar(entidade);
+    }
+
+    @PostRemove
+    public void remover(Object entidade) {
+        historico.remover(entidade);
+        contadores.remover(entidade);
+    }
+}
@@ -0,0 +1,197 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.dto.LivroPopular;
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.repository.EmprestimoRepository;
+import com.antoniovictor.biblioteca.repository.ReservaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class RankingLivros {
+
+    public static final int DIAS = 30;
+    private static final Comparator<LivroPopular> ORDEM = Comparator.comparingLong(LivroPopular::quantidade)
+            .thenComparing(LivroPopular::id, Comparator.reverseOrder());
+
+    private final EmprestimoRepository emprestimoRepository;
+    private final ReservaRepository reservaRepository;
+    private final long validade;
+    private final int maximoResultados;
+    private final Map<Tipo, AtomicReferenceArray<Balde>> baldes = new ConcurrentHashMap<>();
+    private final Map<Long, DadosLivro> livros = new ConcurrentHashMap<>();
+    private final Map<Consulta, Resultado> resultados = new ConcurrentHashMap<>();
+
+    public RankingLivros(EmprestimoRepository emprestimoRepository, ReservaRepository reservaRepository,
+                         @Value("${biblioteca.ranking.validade:10000}") long validade,
+                         @Value("${biblioteca.ranking.maximo-resultados:1000}") int maximoResultados) {
+        this.emprestimoRepository = emprestimoRepository;
+        this.reservaRepository = reservaRepository;
+        this.validade = validade;
+        this.maximoResultados = maximoResultados;
+        for (var tipo : Tipo.values()) {
+            baldes.put(tipo, new AtomicReferenceArray<>(DIAS));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @LeituraPrimaria
+    public void carregar() {
+        var de = LocalDate.now().minusDays(DIAS - 1);
+        carregar(Tipo.EMPRESTIMOS, emprestimoRepository.contarPorLivroEDia(de));
+        carregar(Tipo.RESERVAS, reservaRepository.contarPorLivroEDia(de.atStartOfDay()));
+        resultados.clear();
+    }
+
+    public void registrarEmprestimo(Livro livro) {
+        registrar(Tipo.EMPRESTIMOS, livro);
+    }
+
+    public void registrarReserva(Livro livro) {
+        registrar(Tipo.RESERVAS, livro);
+    }
+
+    public void atualizarLivro(Livro livro) {
+        if (livro.getId() == null) {
+            return;
+        }
+        var dados = new DadosLivro(livro.getTitulo(), livro.getAutor(), livro.getCategoria());
+        var anteriores = livros.get(livro.getId());
+        if (anteriores != null && !anteriores.equals(dados)) {
+            livros.replace(livro.getId(), dados);
+            resultados.clear();
+        }
+    }
+
+    public void removerLivro(Livro livro) {
+        if (livro.getId() != null && livros.remove(livro.getId()) != null) {
+            resultados.clear();
+        }
+    }
+
+    public List<LivroPopular> populares(Tipo tipo, Categoria categoria, int dias, int limite) {
+        var consulta = new Consulta(tipo, categoria, dias, limite);
+        var agora = System.currentTimeMillis();
+        var resultado = resultados.get(consulta);
+        if (resultado == null || agora - resultado.calculadoEm() > validade) {
+            resultado = new Resultado(agora, calcular(consulta));
+            if (!resultados.containsKey(consulta) && resultados.size() >= maximoResultados) {
+                var iterador = resultados.keySet().iterator();
+                if (iterador.hasNext()) {
+                    iterador.next();
+                    iterador.remove();
+                }
+            }
+            resultados.put(consulta, resultado);
+        }
+        return resultado.livros();
+    }
+
+    int resultadosGuardados() {
+        return resultados.size();
+    }
+
+    private List<LivroPopular> calcular(Consulta consulta) {
+        var hoje = LocalDate.now().toEpochDay();
+        var totais = new HashMap<Long, Long>();
+        var baldesTipo = baldes.get(consulta.tipo());
+        for (long dia = hoje - consulta.dias() + 1; dia <= hoje; dia++) {
+            var balde = baldesTipo.get(indice(dia));
+            if (balde != null && balde.dia() == dia) {
+                balde.contagens().forEach((livro, contagem) -> totais.merge(livro, contagem.sum(), Long::sum));
+            }
+        }
+        var melhores = new PriorityQueue<>(consulta.limite() + 1, ORDEM);
+        totais.forEach((id, quantidade) -> {
+            var dados = livros.get(id);
+            if (dados == null || quantidade == 0 || (consulta.categoria() != null && consulta.categoria() != dados.categoria())) {
+                return;
+            }
+            melhores.add(new LivroPopular(id, dados.titulo(), dados.autor(), dados.categoria(), quantidade));
+            if (melhores.size() > consulta.limite()) {
+                melhores.poll();
+            }
+        });
+        var ranking = new ArrayList<>(melhores);
+        ranking.sort(ORDEM.reversed());
+        return List.copyOf(ranking);
+    }
+
+    private void registrar(Tipo tipo, Livro livro) {
+        if (livro.getId() == null) {
+            return;
+        }
+        var id = livro.getId();
+        var dados = new DadosLivro(livro.getTitulo(), livro.getAutor(), livro.getCategoria());
+        AposCommit.executar(() -> {
+            livros.putIfAbsent(id, dados);
+            balde(tipo, LocalDate.now().toEpochDay()).contagens().computeIfAbsent(id, k -> new LongAdder()).increment();
+        });
+    }
+
+    private void carregar(Tipo tipo, List<Object[]> linhas) {
+        var baldesTipo = baldes.get(tipo);
+        for (int i = 0; i < DIAS; i++) {
+            baldesTipo.set(i, null);
+        }
+        for (var linha : linhas) {
+            var id = ((Number) linha[0]).longValue();
+            livros.put(id, new DadosLivro((String) linha[1], (String) linha[2], (Categoria) linha[3]));
+            balde(tipo, ((LocalDate) linha[4]).toEpochDay()).contagens()
+                    .computeIfAbsent(id, k -> new LongAdder()).add(((Number) linha[5]).longValue());
+        }
+    }
+
+    private Balde balde(Tipo tipo, long dia) {
+        var baldesTipo = baldes.get(tipo);
+        var indice = indice(dia);
+        while (true) {
+            var atual = baldesTipo.get(indice);
+            if (atual != null && atual.dia() == dia) {
+                return atual;
+            }
+            if (atual != null && atual.dia() > dia) {
+                return new Balde(dia, new ConcurrentHashMap<>());
+            }
+            var novo = new Balde(dia, new ConcurrentHashMap<>());
+            if (baldesTipo.compareAndSet(indice, atual, novo)) {
+                return novo;
+            }
+        }
+    }
+
+    private static int indice(long dia) {
+        return (int) Math.floorMod(dia, DIAS);
+    }
+
+    public enum Tipo {
+        EMPRESTIMOS,
+        RESERVAS
+    }
+
+    private record Balde(long dia, Map<Long, LongAdder> contagens) {
+    }
+
+    private record DadosLivro(String titulo, String autor, Categoria categoria) {
+    }
+
+    private record Consulta(Tipo tipo, Categoria categoria, int dias, int limite) {
+    }
+
+    private record Resultado(long calculadoEm, List<LivroPopular> livros) {
+    }
+}
@@ -0,0 +1,244 @@
+package com.antoniovictor.biblioteca.infra;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+@Slf4j
+@Component
+public class RecomendacoesLivros {
+
+    private static final String HISTORICOS = """
+            select usuario_id, livro_id from (
+                select id, usuario_id, livro_id from emprestimos
+                union all
+                select id, usuario_id, livro_id from emprestimos_arquivo
+            ) h order by usuario_id desc, id desc""";
+    private static final int USUARIOS_POR_TAREFA = 2048;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int vizinhos;
+    private final int historicoMaximo;
+    private final int maximoPares;
+    private final int tamanhoBusca;
+    private final int paralelismo;
+    private volatile Matriz matriz = new Matriz(new MapaLongInt(8), new long[0], 0, new int[0], new int[0], null);
+
+    public RecomendacoesLivros(JdbcTemplate jdbcTemplate,
+                               @Value("${biblioteca.recomendacoes.vizinhos:20}") int vizinhos,
+                               @Value("${biblioteca.recomendacoes.historico-maximo:100}") int historicoMaximo,
+                               @Value("${biblioteca.recomendacoes.maximo-pares:1000000}") int maximoPares,
+                               @Value("${biblioteca.recomendacoes.tamanho-busca:-2147483648}") int tamanhoBusca,
+                               @Value("${biblioteca.recomendacoes.paralelismo:0}") int paralelismo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.vizinhos = vizinhos;
+        this.historicoMaximo = historicoMaximo;
+        this.maximoPares = maximoPares;
+        this.tamanhoBusca = tamanhoBusca;
+        this.paralelismo = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Scheduled(initialDelayString = "${biblioteca.recomendacoes.atraso-inicial:0}", fixedDelayString = "${biblioteca.recomendacoes.intervalo:21600000}")
+    @Async("recomendacoesExecutor")
+    @Transactional(readOnly = true)
+    public void atualizar() {
+        var inicio = System.nanoTime();
+        var leitura = new Leitura();
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(HISTORICOS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(tamanhoBusca);
+            return ps;
+        }, leitura);
+        leitura.fecharUsuario();
+        MapaLongInt pares;
+        try (var pool = new ForkJoinPool(paralelismo)) {
+            pares = pool.invoke(new ContagemPares(leitura.historicos, leitura.inicios, 0, leitura.usuarios));
+        }
+        matriz = montar(leitura.indices, Arrays.copyOf(leitura.ids, leitura.livros), pares);
+        log.info("Recomendações atualizadas: {} empréstimos, {} leitores, {} livros, {} pares em {} ms", leitura.linhas, leitura.usuarios,
+                leitura.livros, pares.tamanho(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    public List<Recomendacao> recomendar(long livroId, int limite) {
+        var atual = matriz;
+        var indice = atual.indices().get(livroId, -1);
+        if (indice < 0) {
+            return List.of();
+        }
+        var recomendacoes = new ArrayList<Recomendacao>(Math.min(limite, atual.k()));
+        var base = indice * atual.k();
+        for (int i = 0; i < Math.min(limite, atual.k()) && atual.vizinhos()[base + i] >= 0; i++) {
+            recomendacoes.add(new Recomendacao(atual.ids()[atual.vizinhos()[base + i]], atual.pesos()[base + i]));
+        }
+        return recomendacoes;
+    }
+
+    public LocalDateTime geradaEm() {
+        return matriz.geradaEm();
+    }
+
+    private Matriz montar(MapaLongInt indices, long[] ids, MapaLongInt pares) {
+        var k = vizinhos;
+        var vizinhosPorLivro = new int[ids.length * k];
+        var pesos = new int[ids.length * k];
+        Arrays.fill(vizinhosPorLivro, -1);
+        pares.paraCada((par, contagem) -> {
+            var a = (int) (par >>> 32);
+            var b = (int) par;
+            inserir(ids, vizinhosPorLivro, pesos, a * k, k, b, contagem);
+            inserir(ids, vizinhosPorLivro, pesos, b * k, k, a, contagem);
+        });
+        return new Matriz(indices, ids, k, vizinhosPorLivro, pesos, LocalDateTime.now());
+    }
+
+    private static void inserir(long[] ids, int[] vizinhos, int[] pesos, int base, int k, int vizinho, int peso) {
+        var ultimo = base + k - 1;
+        if (vizinhos[ultimo] >= 0 && !antes(ids, vizinho, peso, vizinhos[ultimo], pesos[ultimo])) {
+            return;
+        }
+        var posicao = ultimo;
+        while (posicao > base && (vizinhos[posicao - 1] < 0 || antes(ids, vizinho, peso, vizinhos[posicao - 1], pesos[posicao - 1]))) {
+            vizinhos[posicao] = vizinhos[posicao - 1];
+            pesos[posicao] = pesos[posicao - 1];
+            posicao--;
+        }
+        vizinhos[posicao] = vizinho;
+        pesos[posicao] = peso;
+    }
+
+    private static boolean antes(long[] ids, int vizinho, int peso, int outroVizinho, int outroPeso) {
+        return peso > outroPeso || (peso == outroPeso && ids[vizinho] < ids[outroVizinho]);
+    }
+
+    private class Leitura implements RowCallbackHandler {
+        private final MapaLongInt indices = new MapaLongInt(1024);
+        private long[] ids = new long[1024];
+        private int livros;
+        private int[] historicos = new int[1 << 16];
+        private int total;
+        private int[] inicios = new int[1 << 12];
+        private int usuarios;
+        private long usuarioAtual = -1;
+        private int inicioAtual;
+        private long linhas;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            linhas++;
+            var usuario = rs.getLong(1);
+            if (usuario != usuarioAtual) {
+                fecharUsuario();
+                usuarioAtual = usuario;
+                inicioAtual = total;
+            }
+            if (total - inicioAtual >= historicoMaximo) {
+                return;
+            }
+            var livro = indice(rs.getLong(2));
+            for (int i = inicioAtual; i < total; i++) {
+                if (historicos[i] == livro) {
+                    return;
+                }
+            }
+            if (total == historicos.length) {
+                historicos = Arrays.copyOf(historicos, total * 2);
+            }
+            historicos[total++] = livro;
+        }
+
+        void fecharUsuario() {
+            if (total - inicioAtual < 2) {
+                total = inicioAtual;
+                return;
+            }
+            if (usuarios + 1 >= inicios.length) {
+                inicios = Arrays.copyOf(inicios, inicios.length * 2);
+            }
+            inicios[usuarios++] = inicioAtual;
+            inicios[usuarios] = total;
+            inicioAtual = total;
+        }
+
+        private int indice(long livroId) {
+            var indice = indices.get(livroId, -1);
+            if (indice < 0) {
+                if (livros == ids.length) {
+                    ids = Arrays.copyOf(ids, livros * 2);
+                }
+                indice = livros;
+                ids[livros++] = livroId;
+                indices.colocar(livroId, indice);
+            }
+            return indice;
+        }
+    }
+
+    private class ContagemPares extends RecursiveTask<MapaLongInt> {
+        private final int[] historicos;
+        private final int[] inicios;
+        private final int de;
+        private final int ate;
+
+        ContagemPares(int[] historicos, int[] inicios, int de, int ate) {
+            this.historicos = historicos;
+            this.inicios = inicios;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected MapaLongInt compute() {
+            if (ate - de <= USUARIOS_POR_TAREFA) {
+                return contar();
+            }
+            var meio = (de + ate) >>> 1;
+            var esquerda = new ContagemPares(historicos, inicios, de, meio);
+            esquerda.fork();
+            var direita = new ContagemPares(historicos, inicios, meio, ate).compute();
+            var resultadoEsquerda = esquerda.join();
+            var maior = direita.tamanho() >= resultadoEsquerda.tamanho() ? direita : resultadoEsquerda;
+            var menor = maior == direita ? resultadoEsquerda : direita;
+            maior.somarTodos(menor);
+            maior.podar(maximoPares);
+            return maior;
+        }
+
+        private MapaLongInt contar() {
+            var pares = new MapaLongInt(1024);
+            for (int u = de; u < ate; u++) {
+                var fim = inicios[u + 1];
+                for (int i = inicios[u]; i < fim; i++) {
+                    for (int j = i + 1; j < fim; j++) {
+                        var a = Math.min(historicos[i], historicos[j]);
+                        var b = Math.max(historicos[i], historicos[j]);
+                        pares.somar(((long) a << 32) | b, 1);
+                    }
+                }
+                if (pares.tamanho() > maximoPares) {
+                    pares.podar(maximoPares);
+                }
+            }
+            return pares;
+        }
+    }
+
+    public record Recomendacao(long livroId, int emprestimosEmComum) {
+    }
+
+    private record Matriz(MapaLongInt indices, long[] ids, int k, int[] vizinhos, int[] pesos, LocalDateTime geradaEm) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.antoniovictor.biblioteca.infra;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.StaleStateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RepeticaoConflitos {
+
+    static final String OTIMISTA = "otimista";
+    static final String DEADLOCK = "deadlock";
+    private static final String SQL_STATE_DEADLOCK = "40001";
+
+    private final MeterRegistry meterRegistry;
+    private final int tentativas;
+    private final long esperaInicial;
+    private final long esperaMaxima;
+
+    public RepeticaoConflitos(MeterRegistry meterRegistry,
+                              @Value("${biblioteca.conflitos.tentativas:4}") int tentativas,
+                              @Value("${biblioteca.conflitos.espera-inicial:10}") long esperaInicial,
+                              @Value("${biblioteca.conflitos.espera-maxima:200}") long esperaMaxima) {
+        if (tentativas < 1) {
+            throw new IllegalArgumentException("biblioteca.conflitos.tentativas deve ser maior que zero");
+        }
+        this.meterRegistry = meterRegistry;
+        this.tentativas = tentativas;
+        this.esperaInicial = esperaInicial;
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    @Around("@annotation(com.antoniovictor.biblioteca.infra.RepetirEmConflito)")
+    public Object repetir(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        var metodo = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException e) {
+                var tipo = tipoConflito(e);
+                if (tipo == null) {
+                    throw e;
+                }
+                var esgotado = tentativa >= tentativas;
+                meterRegistry.counter("biblioteca.conflitos", "metodo", metodo, "tipo", tipo, "resultado", esgotado ? "esgotado" : "repetido")
+                        .increment();
+                if (esgotado) {
+                    log.warn("Conflito {} em {} persistiu após {} tentativas", tipo, metodo, tentativa);
+                    throw e;
+                }
+                Thread.sleep(espera(tentativa));
+            }
+        }
+    }
+
+    long espera(int tentativa) {
+        var limite = Math.min(esperaMaxima, esperaInicial << Math.min(tentativa - 1, 20));
+        return limite <= 0 ? 0 : ThreadLocalRandom.current().nextLong(limite + 1);
+    }
+
+    static String tipoConflito(Throwable erro) {
+        for (var causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof OptimisticLockingFailureException || causa instanceof OptimisticLockException
+                    || causa instanceof StaleStateException) {
+                return OTIMISTA;
+            }
+            if (causa instanceof SQLException sqlException && SQL_STATE_DEADLOCK.equals(sqlException.getSQLState())) {
+                return DEADLOCK;
+            }
+        }
+        return null;
+    }
+}
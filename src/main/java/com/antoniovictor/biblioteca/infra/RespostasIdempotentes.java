@@ -0,0 +1,123 @@
+package com.antoniovictor.biblioteca.infra;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+@Component
+public class RespostasIdempotentes {
+
+    private final Map<String, Registro> registros = new ConcurrentHashMap<>();
+    private final Queue<Entrada> ordem = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tamanhoOrdem = new AtomicInteger();
+    private final long validade;
+    private final int maximo;
+    private final LongSupplier relogio;
+
+    @Autowired
+    public RespostasIdempotentes(@Value("${biblioteca.idempotencia.validade:86400000}") long validade,
+                                 @Value("${biblioteca.idempotencia.maximo:100000}") int maximo) {
+        this(validade, maximo, System::currentTimeMillis);
+    }
+
+    RespostasIdempotentes(long validade, int maximo, LongSupplier relogio) {
+        this.validade = validade;
+        this.maximo = maximo;
+        this.relogio = relogio;
+    }
+
+    public Registro reservar(String chave, long impressao) {
+        var agora = relogio.getAsLong();
+        var novo = new Registro(impressao, agora + validade, null);
+        while (true) {
+            var atual = registros.putIfAbsent(chave, novo);
+            if (atual == null) {
+                enfileirar(chave, novo);
+                return null;
+            }
+            if (atual.expira() > agora) {
+                return atual;
+            }
+            if (registros.replace(chave, atual, novo)) {
+                enfileirar(chave, novo);
+                return null;
+            }
+        }
+    }
+
+    public void concluir(String chave, Resposta resposta) {
+        var atual = registros.get(chave);
+        if (atual == null || atual.resposta() != null) {
+            return;
+        }
+        registros.replace(chave, atual, new Registro(atual.impressao(), atual.expira(), resposta));
+    }
+
+    public void liberar(String chave) {
+        registros.computeIfPresent(chave, (k, atual) -> atual.resposta() == null ? null : atual);
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.idempotencia.limpeza:60000}")
+    public void limpar() {
+        var agora = relogio.getAsLong();
+        Entrada entrada;
+        for (var restantes = tamanhoOrdem.get(); restantes > 0 && (entrada = ordem.peek()) != null && entrada.expira() <= agora; restantes--) {
+            descartar(agora);
+        }
+    }
+
+    int tamanho() {
+        return registros.size();
+    }
+
+    private void enfileirar(String chave, Registro registro) {
+        ordem.add(new Entrada(chave, registro.expira()));
+        if (tamanhoOrdem.incrementAndGet() > maximo) {
+            limpar();
+            for (var restantes = tamanhoOrdem.get(); restantes > 0 && tamanhoOrdem.get() > maximo; restantes--) {
+                if (!descartar(relogio.getAsLong())) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // Reservas ainda em andamento voltam para o fim da fila: descartá-las deixaria a requisição repetida rodar em paralelo.
+    private boolean descartar(long agora) {
+        var entrada = ordem.poll();
+        if (entrada == null) {
+            return false;
+        }
+        var emAndamento = new boolean[1];
+        registros.computeIfPresent(entrada.chave(), (k, atual) -> {
+            if (atual.expira() != entrada.expira()) {
+                return atual;
+            }
+            emAndamento[0] = atual.resposta() == null && atual.expira() > agora;
+            return emAndamento[0] ? atual : null;
+        });
+        if (emAndamento[0]) {
+            ordem.add(entrada);
+        } else {
+            tamanhoOrdem.decrementAndGet();
+        }
+        return true;
+    }
+
+    public record Registro(long impressao, long expira, Resposta resposta) {
+    }
+
+    public record Resposta(int status, String tipoConteudo, String location, byte[] corpo) {
+    }
+
+    private record Entrada(String chave, long expira) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.antoniovictor.biblioteca.repository;
+
+import com.antoniovictor.biblioteca.dto.EmprestimoSaida;
+import com.antoniovictor.biblioteca.entities.EmprestimoArquivado;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface EmprestimoArquivadoRepository extends JpaRepository<EmprestimoArquivado, Long> {
+
+    @Modifying
+    @Query(value = """
+            insert into emprestimos_arquivo (id, inicio, fim, multa, livro_id, status, usuario_id, exemplar_id, arquivado_em)
+            select id, inicio, fim, multa, livro_id, status, usuario_id, exemplar_id, :agora from emprestimos
+            where id in :ids
+            """, nativeQuery = true)
+    int arquivar(Collection<Long> ids, LocalDateTime agora);
+
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.EmprestimoSaida(e.id, e.inicio, e.fim, e.multa, l.titulo, e.status, u.nome)
+            from EmprestimoArquivado e join e.livro l join e.usuario u
+            where e.id = :id
+            """)
+    Optional<EmprestimoSaida> buscarSaida(long id);
+
+    @Query("select e.status, count(e) from EmprestimoArquivado e group by e.status")
+    List<Object[]> contarPorStatus();
+
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.EmprestimoSaida(e.id, e.inicio, e.fim, e.multa, l.titulo, e.status, u.nome)
+            from EmprestimoArquivado e join e.livro l join e.usuario u
+            where e.usuario.id = :usuarioId and (:status is null or e.status = :status) and e.id < :antes
+            order by e.id desc
+            limit :limite
+            """)
+    List<EmprestimoSaida> historicoPorUsuario(long usuarioId, StatusEmprestimo status, long antes, int limite);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.EmprestimoSaida(e.id, e.inicio, e.fim, e.multa, l.titulo, e.status, u.nome)
+            from EmprestimoArquivado e join e.livro l join e.usuario u
+            where (:de is null or e.inicio >= :de) and (:ate is null or e.inicio <= :ate)
+            order by e.id
+            """)
+    Stream<EmprestimoSaida> exportarPorPeriodo(LocalDate de, LocalDate ate);
+}
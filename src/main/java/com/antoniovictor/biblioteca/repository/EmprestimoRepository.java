@@ -1,12 +1,81 @@
 package com.antoniovictor.biblioteca.repository;
 
 
+import com.antoniovictor.biblioteca.dto.EmprestimoSaida;
 import com.antoniovictor.biblioteca.entities.Emprestimo;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 
 @Repository
 public interface EmprestimoRepository extends JpaRepository<Emprestimo, Long> {
 
+    @Query("select e.status, count(e) from Emprestimo e group by e.status")
+    List<Object[]> contarPorStatus();
+
+    @Query("select e.fim, count(e) from Emprestimo e where e.status in :status group by e.fim")
+    List<Object[]> contarPorVencimento(Collection<StatusEmprestimo> status);
+
+    @Query("""
+            select l.id, l.titulo, l.autor, l.categoria, e.inicio, count(e)
+            from Emprestimo e join e.livro l
+            where e.inicio >= :de
+            group by l.id, l.titulo, l.autor, l.categoria, e.inicio
+            """)
+    List<Object[]> contarPorLivroEDia(LocalDate de);
+
+    @Modifying
+    @Query(value = """
+            insert into eventos_circulacao (tipo, emprestimo_id, usuario_id, livro_id, ocorrido_em)
+            select 'EMPRESTIMO_ATRASADO', e.id, e.usuario_id, e.livro_id, :agora from emprestimos e
+            where e.usuario_id between :de and :ate and e.status = 'ATIVO' and e.fim < :hoje
+            """, nativeQuery = true)
+    int registrarAtrasos(long de, long ate, LocalDate hoje, LocalDateTime agora);
+
+    @Modifying
+    @Query("""
+            update versioned Emprestimo e set e.status = :pendente, e.multa = ((:hoje - e.fim) by day) * :multaDiaria
+            where e.usuario.id between :de and :ate and e.status in :abertos and e.fim < :hoje
+            """)
+    int acumularMultas(long de, long ate, LocalDate hoje, double multaDiaria, Collection<StatusEmprestimo> abertos, StatusEmprestimo pendente);
+
+    @Query(value = "select id from emprestimos where status = 'FINALIZADO' and fim < :limite limit :lote", nativeQuery = true)
+    List<Long> buscarEncerrados(LocalDate limite, int lote);
+
+    @Modifying
+    @Query("delete from Emprestimo e where e.id in :ids")
+    int excluirPorIds(Collection<Long> ids);
+
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.EmprestimoSaida(e.id, e.inicio, e.fim, e.multa, l.titulo, e.status, u.nome)
+            from Emprestimo e join e.livro l join e.usuario u
+            where e.usuario.id = :usuarioId and (:status is null or e.status = :status) and e.id < :antes
+            order by e.id desc
+            limit :limite
+            """)
+    List<EmprestimoSaida> historicoPorUsuario(long usuarioId, StatusEmprestimo status, long antes, int limite);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.EmprestimoSaida(e.id, e.inicio, e.fim, e.multa, l.titulo, e.status, u.nome)
+            from Emprestimo e join e.livro l join e.usuario u
+            where (:de is null or e.inicio >= :de) and (:ate is null or e.inicio <= :ate)
+            order by e.id
+            """)
+    Stream<EmprestimoSaida> exportarPorPeriodo(LocalDate de, LocalDate ate);
 }
@@ -0,0 +1,22 @@
+package com.antoniovictor.biblioteca.repository;
+
+import com.antoniovictor.biblioteca.entities.Exemplar;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExemplarRepository extends JpaRepository<Exemplar, Long> {
+
+    @Query(value = "select * from exemplares where livro_id = :livroId and emprestado = false limit 1 for update skip locked", nativeQuery = true)
+    Optional<Exemplar> reservarLivre(long livroId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select x from Exemplar x where x.livro.id = :livroId and x.emprestado = false order by x.id")
+    List<Exemplar> bloquearLivres(long livroId);
+}
@@ -0,0 +1,48 @@
+package com.antoniovictor.biblioteca.repository;
+
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.Exemplar;
+import com.antoniovictor.biblioteca.entities.Livro;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class LivroEspecificacoes {
+
+    private LivroEspecificacoes() {
+    }
+
+    public static Specification<Livro> tituloContem(String titulo) {
+        return (root, query, cb) -> cb.like(root.get("titulo"), "%" + escapar(titulo) + "%", '\\');
+    }
+
+    public static Specification<Livro> autorComecaCom(String autor) {
+        return (root, query, cb) -> cb.like(root.get("autor"), escapar(autor) + "%", '\\');
+    }
+
+    public static Specification<Livro> categoria(Categoria categoria) {
+        return (root, query, cb) -> cb.equal(root.get("categoria"), categoria);
+    }
+
+    public static Specification<Livro> disponivel(boolean disponivel) {
+        return (root, query, cb) -> {
+            var livres = query.subquery(Integer.class);
+            var exemplar = livres.from(Exemplar.class);
+            livres.select(cb.literal(1))
+                    .where(cb.equal(exemplar.get("livro"), root), cb.isFalse(exemplar.get("emprestado")));
+            return disponivel ? cb.exists(livres) : cb.not(cb.exists(livres));
+        };
+    }
+
+    public static Specification<Livro> estoqueMinimo(int estoque) {
+        return (root, query, cb) -> {
+            var contagem = query.subquery(Long.class);
+            var exemplar = contagem.from(Exemplar.class);
+            contagem.select(cb.count(exemplar))
+                    .where(cb.equal(exemplar.get("livro"), root), cb.isFalse(exemplar.get("emprestado")));
+            return cb.ge(contagem, (long) estoque);
+        };
+    }
+
+    private static String escapar(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,14 @@
+package com.antoniovictor.biblioteca.repository;
+
+import com.antoniovictor.biblioteca.entities.Livro;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface LivroFacetasRepository {
+
+    List<Object[]> contarFacetas(Specification<Livro> especificacao);
+
+    List<Livro> listar(Specification<Livro> especificacao, Pageable pageable);
+}
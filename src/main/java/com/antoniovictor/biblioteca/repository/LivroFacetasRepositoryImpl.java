@@ -0,0 +1,54 @@
+package com.antoniovictor.biblioteca.repository;
+
+import com.antoniovictor.biblioteca.entities.Livro;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+public class LivroFacetasRepositoryImpl implements LivroFacetasRepository {
+
+    private final EntityManager entityManager;
+
+    public LivroFacetasRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Object[]> contarFacetas(Specification<Livro> especificacao) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(Object[].class);
+        var livro = query.from(Livro.class);
+        var disponiveis = cb.sum(cb.<Long>selectCase().when(cb.isTrue(livro.get("disponivel")), 1L).otherwise(0L));
+        query.multiselect(livro.get("categoria"), livro.get("autor"), cb.count(livro), disponiveis)
+                .groupBy(livro.get("categoria"), livro.get("autor"));
+        filtrar(especificacao, cb, query, livro);
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Livro> listar(Specification<Livro> especificacao, Pageable pageable) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(Livro.class);
+        var livro = query.from(Livro.class);
+        query.select(livro).orderBy(QueryUtils.toOrders(pageable.getSort(), livro, cb));
+        filtrar(especificacao, cb, query, livro);
+        var consulta = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            consulta.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        return consulta.getResultList();
+    }
+
+    private static void filtrar(Specification<Livro> especificacao, CriteriaBuilder cb, CriteriaQuery<?> query, Root<Livro> livro) {
+        var predicado = especificacao.toPredicate(livro, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+    }
+}
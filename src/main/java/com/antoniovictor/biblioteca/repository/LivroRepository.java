@@ -5,13 +5,19 @@ import com.antoniovictor.biblioteca.entities.Livro;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface LivroRepository extends JpaRepository<Livro, Long> {
+public interface LivroRepository extends JpaRepository<Livro, Long>, JpaSpecificationExecutor<Livro>, LivroFacetasRepository {
     Page<Livro> findAllByTituloContaining(String nome, Pageable pageable);
 
     Page<Livro> findAllByCategoria(Categoria categoria, Pageable pageable);
+
+    @Query("select l.categoria, count(x) from Exemplar x join x.livro l where x.emprestado = false group by l.categoria")
+    List<Object[]> somarEstoquePorCategoria();
 }
@@ -0,0 +1,72 @@
+package com.antoniovictor.biblioteca.repository;
+
+import com.antoniovictor.biblioteca.dto.ReservaSaida;
+import com.antoniovictor.biblioteca.entities.ReservaArquivada;
+import com.antoniovictor.biblioteca.entities.StatusReserva;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface ReservaArquivadaRepository extends JpaRepository<ReservaArquivada, Long> {
+
+    @Modifying
+    @Query(value = """
+            insert into reservas_arquivo (id, data, inicio, expiracao, usuario_id, livro_id, status, arquivado_em)
+            select id, data, inicio, expiracao, usuario_id, livro_id, status, :agora from reservas
+            where id in :ids
+            """, nativeQuery = true)
+    int arquivar(Collection<Long> ids, LocalDateTime agora);
+
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.ReservaSaida(r.id, r.data, r.inicio, r.expiracao, u.nome, l.titulo, r.status)
+            from ReservaArquivada r join r.usuario u join r.livro l
+            where r.id = :id
+            """)
+    Optional<ReservaSaida> buscarSaida(long id);
+
+    long countByStatus(StatusReserva status);
+
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.ReservaSaida(r.id, r.data, r.inicio, r.expiracao, u.nome, l.titulo, r.status)
+            from ReservaArquivada r join r.usuario u join r.livro l
+            where r.status = :status
+            order by r.data, r.id
+            limit :limite offset :deslocamento
+            """)
+    List<ReservaSaida> listarPorStatus(StatusReserva status, long deslocamento, int limite);
+
+    @Query("select r.status, count(r) from ReservaArquivada r group by r.status")
+    List<Object[]> contarPorStatus();
+
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.ReservaSaida(r.id, r.data, r.inicio, r.expiracao, u.nome, l.titulo, r.status)
+            from ReservaArquivada r join r.usuario u join r.livro l
+            where r.usuario.id = :usuarioId and (:status is null or r.status = :status) and r.id < :antes
+            order by r.id desc
+            limit :limite
+            """)
+    List<ReservaSaida> historicoPorUsuario(long usuarioId, StatusReserva status, long antes, int limite);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.ReservaSaida(r.id, r.data, r.inicio, r.expiracao, u.nome, l.titulo, r.status)
+            from ReservaArquivada r join r.usuario u join r.livro l
+            where (:de is null or r.data >= :de) and (:ate is null or r.data < :ate)
+            order by r.id
+            """)
+    Stream<ReservaSaida> exportarPorPeriodo(LocalDateTime de, LocalDateTime ate);
+}
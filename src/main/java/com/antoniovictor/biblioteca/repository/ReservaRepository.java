@@ -1,14 +1,22 @@
 package com.antoniovictor.biblioteca.repository;
 
+import com.antoniovictor.biblioteca.dto.ReservaSaida;
 import com.antoniovictor.biblioteca.entities.Reserva;
 import com.antoniovictor.biblioteca.entities.StatusReserva;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservaRepository extends JpaRepository<Reserva, Long> {
@@ -16,4 +24,57 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
     List<Reserva> findByStatusAndExpiracaoGreaterThanEqual(StatusReserva status, LocalDateTime data);
 
     Page<Reserva> findAllByStatusOrderByData(StatusReserva status, Pageable pageable);
+
+    @Query("select r.livro.id, count(r) from Reserva r where r.status = :status group by r.livro.id order by count(r) desc, r.livro.id")
+    List<Object[]> contarPorLivro(StatusReserva status, Pageable pageable);
+
+    @Query("select r.status, count(r) from Reserva r group by r.status")
+    List<Object[]> contarPorStatus();
+
+    @Query("""
+            select l.id, l.titulo, l.autor, l.categoria, cast(r.data as LocalDate), count(r)
+            from Reserva r join r.livro l
+            where r.data >= :de
+            group by l.id, l.titulo, l.autor, l.categoria, cast(r.data as LocalDate)
+            """)
+    List<Object[]> contarPorLivroEDia(LocalDateTime de);
+
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.ReservaSaida(r.id, r.data, r.inicio, r.expiracao, u.nome, l.titulo, r.status)
+            from Reserva r join r.usuario u join r.livro l
+            where r.status = :status
+            order by r.data, r.id
+            limit :limite offset :deslocamento
+            """)
+    List<ReservaSaida> listarPorStatus(StatusReserva status, long deslocamento, int limite);
+
+    long countByStatus(StatusReserva status);
+
+    @Query(value = "select id from reservas where status in ('FINALIZADA', 'EXPIRADA') and data < :limite limit :lote", nativeQuery = true)
+    List<Long> buscarEncerradas(LocalDateTime limite, int lote);
+
+    @Modifying
+    @Query("delete from Reserva r where r.id in :ids")
+    int excluirPorIds(Collection<Long> ids);
+
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.ReservaSaida(r.id, r.data, r.inicio, r.expiracao, u.nome, l.titulo, r.status)
+            from Reserva r join r.usuario u join r.livro l
+            where r.usuario.id = :usuarioId and (:status is null or r.status = :status) and r.id < :antes
+            order by r.id desc
+            limit :limite
+            """)
+    List<ReservaSaida> historicoPorUsuario(long usuarioId, StatusReserva status, long antes, int limite);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.antoniovictor.biblioteca.dto.ReservaSaida(r.id, r.data, r.inicio, r.expiracao, u.nome, l.titulo, r.status)
+            from Reserva r join r.usuario u join r.livro l
+            where (:de is null or r.data >= :de) and (:ate is null or r.data < :ate)
+            order by r.id
+            """)
+    Stream<ReservaSaida> exportarPorPeriodo(LocalDateTime de, LocalDateTime ate);
 }
@@ -1,7 +1,10 @@
 package com.antoniovictor.biblioteca.repository;
 
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
 import com.antoniovictor.biblioteca.entities.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +12,22 @@ import java.util.Optional;
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
+
+    @Query("select min(u.id) from Usuario u")
+    Long menorId();
+
+    @Query("select max(u.id) from Usuario u")
+    Long maiorId();
+
+    @Modifying
+    @Query("""
+            update Usuario u set u.saldoDevedor = (select coalesce(sum(e.multa), 0) from Emprestimo e where e.usuario = u and e.status = :pendente)
+            where u.id between :de and :ate
+            and (u.saldoDevedor <> 0 or exists (select 1 from Emprestimo e where e.usuario = u and e.status = :pendente))
+            """)
+    int atualizarSaldos(long de, long ate, StatusEmprestimo pendente);
+
+    @Modifying
+    @Query("update Usuario u set u.saldoDevedor = case when u.saldoDevedor > :valor then u.saldoDevedor - :valor else 0 end where u.id = :id")
+    int descontarSaldo(long id, double valor);
 }
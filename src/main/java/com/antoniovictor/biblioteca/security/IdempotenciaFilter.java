@@ -0,0 +1,159 @@
+package com.antoniovictor.biblioteca.security;
+
+import com.antoniovictor.biblioteca.infra.RespostasIdempotentes;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String CABECALHO_REPETICAO = "Idempotent-Replayed";
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+    private static final Pattern ROTAS = Pattern.compile(
+            "POST /emprestimos/?|POST /reservas/adicionar/?|PATCH /emprestimos/emprestimo/\\d+/devolucao/?");
+
+    private final RespostasIdempotentes respostasIdempotentes;
+
+    public IdempotenciaFilter(RespostasIdempotentes respostasIdempotentes) {
+        this.respostasIdempotentes = respostasIdempotentes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(CABECALHO) == null || !ROTAS.matcher(request.getMethod() + " " + request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        var chaveCliente = request.getHeader(CABECALHO).trim();
+        if (chaveCliente.isEmpty() || chaveCliente.length() > TAMANHO_MAXIMO_CHAVE) {
+            recusar(response, HttpStatus.BAD_REQUEST, "O header " + CABECALHO + " deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+            return;
+        }
+        var autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        var sujeito = autenticacao == null ? request.getRemoteAddr() : autenticacao.getName();
+        var chave = sujeito + " " + request.getMethod() + " " + request.getRequestURI() + " " + chaveCliente;
+        var corpo = request.getInputStream().readAllBytes();
+        var crc = new CRC32C();
+        crc.update(corpo);
+        var impressao = crc.getValue();
+
+        var existente = respostasIdempotentes.reservar(chave, impressao);
+        if (existente != null) {
+            if (existente.impressao() != impressao) {
+                recusar(response, HttpStatus.UNPROCESSABLE_ENTITY, "A " + CABECALHO + " já foi usada com outro corpo de requisição");
+            } else if (existente.resposta() == null) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                recusar(response, HttpStatus.CONFLICT, "Uma requisição com esta " + CABECALHO + " ainda está em processamento");
+            } else {
+                repetir(response, existente.resposta());
+            }
+            return;
+        }
+
+        var resposta = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(new CorpoLido(request, corpo), resposta);
+            if (resposta.getStatus() < 500 && resposta.getStatus() != HttpStatus.CONFLICT.value()) {
+                respostasIdempotentes.concluir(chave, new RespostasIdempotentes.Resposta(resposta.getStatus(), resposta.getContentType(),
+                        resposta.getHeader(HttpHeaders.LOCATION), resposta.getContentAsByteArray()));
+            }
+        } finally {
+            respostasIdempotentes.liberar(chave);
+            resposta.copyBodyToResponse();
+        }
+    }
+
+    private void repetir(HttpServletResponse response, RespostasIdempotentes.Resposta resposta) throws IOException {
+        response.setStatus(resposta.status());
+        response.setHeader(CABECALHO_REPETICAO, "true");
+        if (resposta.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, resposta.location());
+        }
+        if (resposta.tipoConteudo() != null) {
+            response.setContentType(resposta.tipoConteudo());
+        }
+        response.setContentLength(resposta.corpo().length);
+        response.getOutputStream().write(resposta.corpo());
+    }
+
+    private void recusar(HttpServletResponse response, HttpStatus status, String mensagem) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(mensagem);
+    }
+
+    private static class CorpoLido extends HttpServletRequestWrapper {
+        private final byte[] corpo;
+
+        CorpoLido(HttpServletRequest request, byte[] corpo) {
+            super(request);
+            this.corpo = corpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            var entrada = new ByteArrayInputStream(corpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            var charset = getCharacterEncoding() == null ? StandardCharsets.UTF_8.name() : getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(charset)));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.antoniovictor.biblioteca.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+@Component
+public class LimitadorRequisicoes {
+
+    private final Map<String, Balde> baldes = new ConcurrentHashMap<>();
+    private final Map<Perfil, Limite> limites;
+    private final int maximoBaldes;
+    private final LongSupplier relogio;
+
+    @Autowired
+    public LimitadorRequisicoes(@Value("${biblioteca.limites.admin.capacidade:600}") int capacidadeAdmin,
+                                @Value("${biblioteca.limites.admin.por-minuto:600}") int porMinutoAdmin,
+                                @Value("${biblioteca.limites.leitor.capacidade:60}") int capacidadeLeitor,
+                                @Value("${biblioteca.limites.leitor.por-minuto:60}") int porMinutoLeitor,
+                                @Value("${biblioteca.limites.anonimo.capacidade:10}") int capacidadeAnonimo,
+                                @Value("${biblioteca.limites.anonimo.por-minuto:10}") int porMinutoAnonimo,
+                                @Value("${biblioteca.limites.maximo-baldes:100000}") int maximoBaldes) {
+        this(Map.of(Perfil.ADMIN, new Limite(capacidadeAdmin, porMinutoAdmin),
+                Perfil.LEITOR, new Limite(capacidadeLeitor, porMinutoLeitor),
+                Perfil.ANONIMO, new Limite(capacidadeAnonimo, porMinutoAnonimo)), maximoBaldes, System::nanoTime);
+    }
+
+    LimitadorRequisicoes(Map<Perfil, Limite> limites, int maximoBaldes, LongSupplier relogio) {
+        this.limites = limites;
+        this.maximoBaldes = maximoBaldes;
+        this.relogio = relogio;
+    }
+
+    public long consumir(String chave, Perfil perfil) {
+        var limite = limites.get(perfil);
+        var balde = baldes.get(chave);
+        if (balde == null) {
+            if (baldes.size() >= maximoBaldes) {
+                var iterador = baldes.keySet().iterator();
+                if (iterador.hasNext()) {
+                    iterador.next();
+                    iterador.remove();
+                }
+            }
+            balde = baldes.computeIfAbsent(chave, k -> new Balde());
+        }
+        return balde.consumir(limite, relogio.getAsLong());
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.limites.limpeza:60000}")
+    public void limpar() {
+        var agora = relogio.getAsLong();
+        baldes.values().removeIf(balde -> balde.cheio(agora));
+    }
+
+    int baldes() {
+        return baldes.size();
+    }
+
+    public enum Perfil {
+        ADMIN,
+        LEITOR,
+        ANONIMO
+    }
+
+    record Limite(int capacidade, int porMinuto) {
+        long intervalo() {
+            return TimeUnit.MINUTES.toNanos(1) / porMinuto;
+        }
+
+        long tolerancia() {
+            return intervalo() * (capacidade - 1);
+        }
+    }
+
+    private static class Balde {
+        private final AtomicLong chegadaTeorica = new AtomicLong(Long.MIN_VALUE);
+
+        long consumir(Limite limite, long agora) {
+            while (true) {
+                var atual = chegadaTeorica.get();
+                var base = atual == Long.MIN_VALUE || atual < agora ? agora : atual;
+                var espera = base - limite.tolerancia() - agora;
+                if (espera > 0) {
+                    return espera;
+                }
+                if (chegadaTeorica.compareAndSet(atual, base + limite.intervalo())) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean cheio(long agora) {
+            return chegadaTeorica.get() <= agora;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.antoniovictor.biblioteca.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+public class LimiteRequisicoesFilter extends OncePerRequestFilter {
+
+    private final LimitadorRequisicoes limitador;
+    private final RotasRequisicao rotas;
+
+    public LimiteRequisicoesFilter(LimitadorRequisicoes limitador, RotasRequisicao rotas) {
+        this.limitador = limitador;
+        this.rotas = rotas;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        var rota = rotas.rota(request);
+        var autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        long espera;
+        if (autenticacao == null || !autenticacao.isAuthenticated() || autenticacao instanceof AnonymousAuthenticationToken) {
+            espera = limitador.consumir("ip:" + request.getRemoteAddr() + " " + rota, LimitadorRequisicoes.Perfil.ANONIMO);
+        } else {
+            var perfil = autenticacao.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))
+                    ? LimitadorRequisicoes.Perfil.ADMIN : LimitadorRequisicoes.Perfil.LEITOR;
+            espera = limitador.consumir(autenticacao.getName() + " " + rota, perfil);
+        }
+        if (espera > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999))));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("Limite de requisições excedido, tente novamente mais tarde.");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
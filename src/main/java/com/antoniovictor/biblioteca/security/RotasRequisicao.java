@@ -0,0 +1,63 @@
+package com.antoniovictor.biblioteca.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+@Component
+public class RotasRequisicao {
+
+    static final String OUTRAS = "outras";
+    private static final Set<HttpMethod> METODOS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.POST, HttpMethod.PUT,
+            HttpMethod.PATCH, HttpMethod.DELETE, HttpMethod.OPTIONS);
+
+    private final Supplier<Collection<PathPattern>> fonte;
+    private volatile List<PathPattern> padroes;
+
+    @Autowired
+    public RotasRequisicao(@Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> mapeamento) {
+        this(() -> mapeamento.getObject().getHandlerMethods().keySet().stream()
+                .map(RequestMappingInfo::getPathPatternsCondition)
+                .filter(Objects::nonNull)
+                .flatMap(condicao -> condicao.getPatterns().stream())
+                .toList());
+    }
+
+    RotasRequisicao(Supplier<Collection<PathPattern>> fonte) {
+        this.fonte = fonte;
+    }
+
+    public String rota(HttpServletRequest request) {
+        var metodo = HttpMethod.valueOf(request.getMethod());
+        var prefixo = (METODOS.contains(metodo) ? metodo.name() : "OUTRO") + " ";
+        var caminho = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (var padrao : padroes()) {
+            if (padrao.matches(caminho)) {
+                return prefixo + padrao.getPatternString();
+            }
+        }
+        return prefixo + OUTRAS;
+    }
+
+    private List<PathPattern> padroes() {
+        var atuais = padroes;
+        if (atuais == null) {
+            atuais = fonte.get().stream().distinct().sorted(PathPattern.SPECIFICITY_COMPARATOR).toList();
+            padroes = atuais;
+        }
+        return atuais;
+    }
+}
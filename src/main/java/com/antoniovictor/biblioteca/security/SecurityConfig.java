@@ -1,5 +1,6 @@
 package com.antoniovictor.biblioteca.security;
 
+import com.antoniovictor.biblioteca.infra.RespostasIdempotentes;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
@@ -20,6 +21,8 @@ import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
 
 import java.security.interfaces.RSAPrivateKey;
@@ -35,7 +38,9 @@ public class SecurityConfig {
     private  RSAPrivateKey privateKey;
 
     @Bean
-    public SecurityFilterChain configure(HttpSecurity httpSecurity) throws Exception {
+    public SecurityFilterChain configure(HttpSecurity httpSecurity, LimitadorRequisicoes limitadorRequisicoes, RotasRequisicao rotasRequisicao,
+                                         RespostasIdempotentes respostasIdempotentes,
+                                         @Value("${biblioteca.limites.habilitado:true}") boolean limitesHabilitados) throws Exception {
         var http = httpSecurity
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
@@ -43,20 +48,29 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "usuarios/cadastrar").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "usuarios").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "usuarios/usuario/{id}").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "usuarios/usuario/{id}/emprestimos", "usuarios/usuario/{id}/reservas").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "usuarios/usuario/{id}").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "usuarios/usuario/{id}/bloquear").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "usuarios/usuario/{id}").hasRole("ADMIN")
                         .requestMatchers("/swagger-ui.html", "/v3/api-docs/**", "/swagger-ui/**","/v3/api-docs").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/prometheus").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "livros/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "livros/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "livros/**").hasRole("ADMIN")
                         .requestMatchers("/emprestimos/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/estatisticas").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "reservas/export").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "reservas/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "reservas/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .oauth2ResourceServer(auth -> auth.jwt(jwtConfigurer -> jwtConfigurer.jwtAuthenticationConverter(jwtAuthenticationConverter())))
-                .httpBasic(Customizer.withDefaults());
+                .httpBasic(Customizer.withDefaults())
+                .addFilterAfter(new IdempotenciaFilter(respostasIdempotentes), AuthorizationFilter.class);
+        if (limitesHabilitados) {
+            http.addFilterBefore(new LimiteRequisicoesFilter(limitadorRequisicoes, rotasRequisicao), BasicAuthenticationFilter.class);
+        }
 
         return http.build();
     }
@@ -0,0 +1,87 @@
+package com.antoniovictor.biblioteca.services;
+
+import com.antoniovictor.biblioteca.infra.RankingLivros;
+import com.antoniovictor.biblioteca.repository.EmprestimoArquivadoRepository;
+import com.antoniovictor.biblioteca.repository.EmprestimoRepository;
+import com.antoniovictor.biblioteca.repository.ReservaArquivadaRepository;
+import com.antoniovictor.biblioteca.repository.ReservaRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Slf4j
+@Timed("biblioteca.servicos")
+@Service
+public class ArquivamentoService {
+
+    private final EmprestimoRepository emprestimoRepository;
+    private final EmprestimoArquivadoRepository emprestimoArquivadoRepository;
+    private final ReservaRepository reservaRepository;
+    private final ReservaArquivadaRepository reservaArquivadaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int dias;
+    private final int lote;
+
+    public ArquivamentoService(EmprestimoRepository emprestimoRepository, EmprestimoArquivadoRepository emprestimoArquivadoRepository,
+                               ReservaRepository reservaRepository, ReservaArquivadaRepository reservaArquivadaRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${biblioteca.arquivamento.dias:180}") int dias,
+                               @Value("${biblioteca.arquivamento.lote:1000}") int lote) {
+        if (dias < RankingLivros.DIAS) {
+            throw new IllegalArgumentException("biblioteca.arquivamento.dias deve ser de pelo menos " + RankingLivros.DIAS + " dias");
+        }
+        if (lote <= 0) {
+            throw new IllegalArgumentException("biblioteca.arquivamento.lote deve ser maior que zero");
+        }
+        this.emprestimoRepository = emprestimoRepository;
+        this.emprestimoArquivadoRepository = emprestimoArquivadoRepository;
+        this.reservaRepository = reservaRepository;
+        this.reservaArquivadaRepository = reservaArquivadaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.dias = dias;
+        this.lote = lote;
+    }
+
+    @Scheduled(cron = "${biblioteca.arquivamento.processamento:0 30 2 * * *}")
+    public long arquivar() {
+        var inicio = System.nanoTime();
+        var limite = LocalDate.now().minusDays(dias);
+        var agora = LocalDateTime.now();
+        long emprestimos = 0;
+        int movidos;
+        do {
+            movidos = transactionTemplate.execute(status -> {
+                var ids = emprestimoRepository.buscarEncerrados(limite, lote);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                emprestimoArquivadoRepository.arquivar(ids, agora);
+                emprestimoRepository.excluirPorIds(ids);
+                return ids.size();
+            });
+            emprestimos += movidos;
+        } while (movidos == lote);
+        long reservas = 0;
+        do {
+            movidos = transactionTemplate.execute(status -> {
+                var ids = reservaRepository.buscarEncerradas(limite.atStartOfDay(), lote);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                reservaArquivadaRepository.arquivar(ids, agora);
+                reservaRepository.excluirPorIds(ids);
+                return ids.size();
+            });
+            reservas += movidos;
+        } while (movidos == lote);
+        log.info("Arquivamento concluído: {} empréstimos e {} reservas anteriores a {} em {} ms", emprestimos, reservas, limite,
+                (System.nanoTime() - inicio) / 1_000_000);
+        return emprestimos + reservas;
+    }
+}
@@ -2,131 +2,249 @@ package com.antoniovictor.biblioteca.services;
 
 import com.antoniovictor.biblioteca.dto.EmprestimoEntrada;
 import com.antoniovictor.biblioteca.dto.EmprestimoSaida;
+import com.antoniovictor.biblioteca.dto.HistoricoSaida;
 import com.antoniovictor.biblioteca.entities.*;
 import com.antoniovictor.biblioteca.error.CadastroEmprestimoException;
 import com.antoniovictor.biblioteca.error.RenovacaoEmprestimoException;
+import com.antoniovictor.biblioteca.eventos.EmprestimoDevolvido;
+import com.antoniovictor.biblioteca.eventos.ReservaAtivada;
+import com.antoniovictor.biblioteca.infra.EventoEmprestimo;
+import com.antoniovictor.biblioteca.infra.Exportador;
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
+import com.antoniovictor.biblioteca.infra.RankingLivros;
+import com.antoniovictor.biblioteca.infra.RepetirEmConflito;
+import com.antoniovictor.biblioteca.repository.EmprestimoArquivadoRepository;
 import com.antoniovictor.biblioteca.repository.EmprestimoRepository;
+import com.antoniovictor.biblioteca.repository.ExemplarRepository;
 import com.antoniovictor.biblioteca.repository.LivroRepository;
 import com.antoniovictor.biblioteca.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+@Timed("biblioteca.servicos")
 @Service
 public class EmprestimoService {
+    public static final double MULTA_DIARIA = 2.0;
+    public static final int HISTORICO_LIMITE_MAXIMO = 100;
+
     private final EmprestimoRepository emprestimoRepository;
     private final UsuarioRepository usuarioRepository;
     private final LivroRepository livroRepository;
-    private final NotificacaoService notificacaoService;
+    private final ExemplarRepository exemplarRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Exportador exportador;
+    private final MeterRegistry meterRegistry;
+    private final RankingLivros rankingLivros;
+    private final EmprestimoArquivadoRepository emprestimoArquivadoRepository;
 
-    public EmprestimoService(EmprestimoRepository emprestimoRepository, UsuarioRepository usuarioRepository, LivroRepository livroRepository, NotificacaoService notificacaoService) {
+    public EmprestimoService(EmprestimoRepository emprestimoRepository, UsuarioRepository usuarioRepository, LivroRepository livroRepository, ExemplarRepository exemplarRepository, ApplicationEventPublisher eventPublisher, Exportador exportador, MeterRegistry meterRegistry, RankingLivros rankingLivros, EmprestimoArquivadoRepository emprestimoArquivadoRepository) {
         this.emprestimoRepository = emprestimoRepository;
         this.usuarioRepository = usuarioRepository;
         this.livroRepository = livroRepository;
-        this.notificacaoService = notificacaoService;
+        this.exemplarRepository = exemplarRepository;
+        this.eventPublisher = eventPublisher;
+        this.exportador = exportador;
+        this.meterRegistry = meterRegistry;
+        this.rankingLivros = rankingLivros;
+        this.emprestimoArquivadoRepository = emprestimoArquivadoRepository;
     }
 
     @Transactional
     public EmprestimoSaida novoEmprestimo(EmprestimoEntrada emprestimoEntrada) throws CadastroEmprestimoException {
-
-        var usuario = usuarioRepository.findById(emprestimoEntrada.idUsuario())
-                .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado"));
-        var livro = livroRepository.findById(emprestimoEntrada.idLivro())
-                .orElseThrow(() -> new EntityNotFoundException("Livro não encontrado"));
-        var emprestimosPendentes = usuario.getEmprestimos().stream()
-                .filter(e -> e.getStatus() == StatusEmprestimo.PENDENTE)
-                .toList();
-        var emprestimosAtivos = usuario.getEmprestimos().stream()
-                .filter(e -> e.getStatus() == StatusEmprestimo.ATIVO)
-                .toList();
-        var reservaAtiva = livro.getReservas().stream().filter(r -> r.getStatus() == StatusReserva.ATIVA).findFirst();
-
-        if(reservaAtiva.isPresent()) {
-            var reserva = reservaAtiva.get();
-            if (Boolean.TRUE.equals(reserva.getUsuario().equals(usuario) && emprestimosPendentes.isEmpty() && livro.getDisponivel()) && emprestimosAtivos.size() < 2 && Boolean.TRUE.equals(usuario.getAtivo() && usuario.getEmailVerificado())) {
-                var emprestimo = new Emprestimo(usuario, livro);
-                emprestimoRepository.save(emprestimo);
-                livro.addEmprestimo(emprestimo);
-                usuario.addEmprestimo(emprestimo);
-                return new EmprestimoSaida(emprestimo);
-            } else {
+        var evento = EventoEmprestimo.iniciar("novo");
+        try {
+            evento.usuario(emprestimoEntrada.idUsuario()).livro(emprestimoEntrada.idLivro());
+            var usuario = usuarioRepository.findById(emprestimoEntrada.idUsuario())
+                    .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado"));
+            var livro = livroRepository.findById(emprestimoEntrada.idLivro())
+                    .orElseThrow(() -> new EntityNotFoundException("Livro não encontrado"));
+            var motivoRecusa = motivoRecusa(usuario, livro);
+            var exemplar = motivoRecusa == null ? exemplarRepository.reservarLivre(livro.getId()).orElse(null) : null;
+            if (motivoRecusa == null && exemplar == null) {
+                motivoRecusa = "indisponivel";
+            }
+            if (motivoRecusa != null) {
+                meterRegistry.counter("biblioteca.emprestimos.recusados", "motivo", motivoRecusa).increment();
+                evento.resultado("recusado:" + motivoRecusa);
                 throw new CadastroEmprestimoException("Erro ao efetuar empréstimo, usuário não apto à solicitar empréstimo, ou livro não disponível!");
             }
-        }else if (Boolean.TRUE.equals(emprestimosPendentes.isEmpty() && livro.getDisponivel()) && emprestimosAtivos.size() < 2 && Boolean.TRUE.equals(usuario.getAtivo() && usuario.getEmailVerificado())) {
+            exemplar.setEmprestado(true);
             var emprestimo = new Emprestimo(usuario, livro);
+            emprestimo.setExemplar(exemplar);
             emprestimoRepository.save(emprestimo);
-            livro.addEmprestimo(emprestimo);
             usuario.addEmprestimo(emprestimo);
+            rankingLivros.registrarEmprestimo(livro);
+            evento.emprestimo(emprestimo).resultado("sucesso");
             return new EmprestimoSaida(emprestimo);
-        } else {
-            throw new CadastroEmprestimoException("Erro ao efetuar empréstimo, usuário não apto à solicitar empréstimo, ou livro não disponível!");
+        } finally {
+            evento.commit();
+        }
+    }
+
+    static String motivoRecusa(Usuario usuario, Livro livro) {
+        var emprestimosAtivos = usuario.getEmprestimos().stream()
+                .filter(e -> e.getStatus() == StatusEmprestimo.ATIVO)
+                .toList();
+        var reservaAtiva = livro.getReservas().stream().filter(r -> r.getStatus() == StatusReserva.ATIVA).findFirst();
+
+        if (reservaAtiva.isPresent() && !reservaAtiva.get().getUsuario().equals(usuario)) {
+            return "reservado";
+        }
+        if (usuario.getSaldoDevedor() != null && usuario.getSaldoDevedor() > 0) {
+            return "emprestimo_pendente";
+        }
+        if (!Boolean.TRUE.equals(livro.getDisponivel())) {
+            return "indisponivel";
+        }
+        if (emprestimosAtivos.size() >= 2) {
+            return "limite_emprestimos";
         }
+        if (!Boolean.TRUE.equals(usuario.getAtivo())) {
+            return "usuario_inativo";
+        }
+        if (!Boolean.TRUE.equals(usuario.getEmailVerificado())) {
+            return "email_nao_verificado";
+        }
+        return null;
     }
 
+    @Transactional(readOnly = true)
     public Page<EmprestimoSaida> listaEmprestimos(Pageable pageable) {
         var pageableSorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("inicio"));
         return emprestimoRepository.findAll(pageableSorted)
                 .map(EmprestimoSaida::new);
     }
 
+    @Transactional(readOnly = true)
+    public long exportarEmprestimos(LocalDate de, LocalDate ate, FormatoArquivo formato, OutputStream saida) throws IOException {
+        List<Supplier<Stream<EmprestimoSaida>>> partes = List.of(
+                () -> emprestimoArquivadoRepository.exportarPorPeriodo(de, ate),
+                () -> emprestimoRepository.exportarPorPeriodo(de, ate));
+        return exportador.escrever(partes, EmprestimoSaida.class, formato, saida);
+    }
 
+    @Transactional(readOnly = true)
     public EmprestimoSaida buscarEmprestimoPorId(long id) {
-        var emprestimo = emprestimoRepository.findById(id).orElseThrow(
-                EntityNotFoundException::new);
-        return new EmprestimoSaida(emprestimo);
+        return emprestimoRepository.findById(id)
+                .map(EmprestimoSaida::new)
+                .or(() -> emprestimoArquivadoRepository.buscarSaida(id))
+                .orElseThrow(EntityNotFoundException::new);
     }
 
+    @Transactional(readOnly = true)
+    public HistoricoSaida<EmprestimoSaida> historicoUsuario(long idUsuario, String status, Long antes, int limite) {
+        if (limite < 1 || limite > HISTORICO_LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + HISTORICO_LIMITE_MAXIMO);
+        }
+        StatusEmprestimo statusEmprestimo = null;
+        if (status != null) {
+            statusEmprestimo = Arrays.stream(StatusEmprestimo.values())
+                    .filter(s -> s.name().equalsIgnoreCase(status))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Digite um valor de status valido: ativo, pendente ou finalizado"));
+        }
+        if (!usuarioRepository.existsById(idUsuario)) {
+            throw new EntityNotFoundException("Usuário não encontrado");
+        }
+        var cursor = antes == null ? Long.MAX_VALUE : antes;
+        var emprestimos = Stream.concat(
+                        emprestimoRepository.historicoPorUsuario(idUsuario, statusEmprestimo, cursor, limite + 1).stream(),
+                        emprestimoArquivadoRepository.historicoPorUsuario(idUsuario, statusEmprestimo, cursor, limite + 1).stream())
+                .sorted(Comparator.comparing(EmprestimoSaida::id).reversed())
+                .toList();
+        return HistoricoSaida.de(emprestimos, limite, EmprestimoSaida::id);
+    }
+
+    @RepetirEmConflito
     @Transactional
     public void renovarEmprestimo(long id) throws RenovacaoEmprestimoException {
-        var emprestimo = emprestimoRepository.findById(id).orElseThrow(
-                EntityNotFoundException::new);
-        var livro = emprestimo.getLivro();
-        var reservas = livro.getReservas().stream()
-                .filter(r -> r.getStatus() == StatusReserva.PENDENTE)
-                .sorted(Comparator.comparing(Reserva::getData))
-                .toList();
-        if (reservas.isEmpty()) {
-            emprestimo.renovar();
-        } else {
-            throw new RenovacaoEmprestimoException("Erro ao renovar empréstimo, livro reservado por outro usuário!");
+        var evento = EventoEmprestimo.iniciar("renovacao").emprestimo(id);
+        try {
+            var emprestimo = emprestimoRepository.findById(id).orElseThrow(
+                    EntityNotFoundException::new);
+            evento.emprestimo(emprestimo);
+            var livro = emprestimo.getLivro();
+            var reservas = livro.getReservas().stream()
+                    .filter(r -> r.getStatus() == StatusReserva.PENDENTE)
+                    .sorted(Comparator.comparing(Reserva::getData))
+                    .toList();
+            if (reservas.isEmpty()) {
+                emprestimo.renovar();
+                evento.resultado("sucesso");
+            } else {
+                evento.resultado("recusado:reservado");
+                throw new RenovacaoEmprestimoException("Erro ao renovar empréstimo, livro reservado por outro usuário!");
+            }
+        } finally {
+            evento.commit();
         }
-
     }
 
+    @RepetirEmConflito
     @Transactional
     public void devolverEmprestimo(long id) {
-        var emprestimo = emprestimoRepository.findById(id).orElseThrow(
-                EntityNotFoundException::new);
-        var dataAtual = LocalDate.now();
-        if (dataAtual.isAfter(emprestimo.getFim())) {
-            var diasEmAtraso = ChronoUnit.DAYS.between(emprestimo.getFim(), dataAtual);
-            double valorMulta = diasEmAtraso * 2.0;
-            emprestimo.setMulta(valorMulta);
-        }
-        emprestimo.setStatus(StatusEmprestimo.FINALIZADO);
-        Livro livro = emprestimo.getLivro();
-        if (Boolean.FALSE.equals(livro.getDisponivel())) {
-                livro.getReservas().stream()
-                    .filter(r -> r.getStatus() == StatusReserva.PENDENTE)
-                    .min(Comparator.comparing(Reserva::getData))
-                        .ifPresent(r -> {
-                            r.setStatus(StatusReserva.ATIVA);
-                            r.setInicio(LocalDateTime.now());
-                            r.setExpiracao(LocalDateTime.now().plusHours(48));
-                            notificacaoService.notificarLivroDisponivel(r.getUsuario(), r.getLivro());
-                        });
+        var evento = EventoEmprestimo.iniciar("devolucao").emprestimo(id);
+        try {
+            var emprestimo = emprestimoRepository.findById(id).orElseThrow(
+                    EntityNotFoundException::new);
+            evento.emprestimo(emprestimo);
+            var dataAtual = LocalDate.now();
+            if (emprestimo.getStatus() == StatusEmprestimo.PENDENTE) {
+                usuarioRepository.descontarSaldo(emprestimo.getUsuario().getId(), emprestimo.getMulta());
+            }
+            if (dataAtual.isAfter(emprestimo.getFim())) {
+                var diasEmAtraso = ChronoUnit.DAYS.between(emprestimo.getFim(), dataAtual);
+                double valorMulta = diasEmAtraso * MULTA_DIARIA;
+                emprestimo.setMulta(valorMulta);
+            }
+            liberarExemplar(emprestimo);
+            emprestimo.setStatus(StatusEmprestimo.FINALIZADO);
+            Livro livro = emprestimo.getLivro();
+            if (Boolean.FALSE.equals(livro.getDisponivel())) {
+                    livro.getReservas().stream()
+                        .filter(r -> r.getStatus() == StatusReserva.PENDENTE)
+                        .min(Comparator.comparing(Reserva::getData))
+                            .ifPresent(r -> {
+                                r.setStatus(StatusReserva.ATIVA);
+                                r.setInicio(LocalDateTime.now());
+                                r.setExpiracao(LocalDateTime.now().plusHours(48));
+                                eventPublisher.publishEvent(new ReservaAtivada(r.getId(), livro.getId(), livro.getTitulo(), r.getUsuario().getEmail()));
+                            });
+            }
+            eventPublisher.publishEvent(new EmprestimoDevolvido(emprestimo.getId(), emprestimo.getUsuario().getId(), livro.getId(), emprestimo.getMulta()));
+            evento.resultado("sucesso");
+        } finally {
+            evento.commit();
         }
-        livro.setEstoque(livro.getEstoque() + 1);
     }
 
     @Transactional
     public void removerEmprestimo(long id) {
+        emprestimoRepository.findById(id).ifPresent(EmprestimoService::liberarExemplar);
         emprestimoRepository.deleteById(id);
     }
 
+    private static void liberarExemplar(Emprestimo emprestimo) {
+        var aberto = emprestimo.getStatus() == StatusEmprestimo.ATIVO || emprestimo.getStatus() == StatusEmprestimo.PENDENTE;
+        if (aberto && emprestimo.getExemplar() != null) {
+            emprestimo.getExemplar().setEmprestado(false);
+        }
+    }
+
 }
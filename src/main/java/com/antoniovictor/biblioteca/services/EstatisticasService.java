@@ -0,0 +1,71 @@
+package com.antoniovictor.biblioteca.services;
+
+import com.antoniovictor.biblioteca.dto.EstatisticasSaida;
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.antoniovictor.biblioteca.entities.StatusReserva;
+import com.antoniovictor.biblioteca.infra.ContadoresCirculacao;
+import com.antoniovictor.biblioteca.infra.LeituraPrimaria;
+import com.antoniovictor.biblioteca.repository.EmprestimoArquivadoRepository;
+import com.antoniovictor.biblioteca.repository.EmprestimoRepository;
+import com.antoniovictor.biblioteca.repository.LivroRepository;
+import com.antoniovictor.biblioteca.repository.ReservaArquivadaRepository;
+import com.antoniovictor.biblioteca.repository.ReservaRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Timed("biblioteca.servicos")
+public class EstatisticasService {
+
+    private final EmprestimoRepository emprestimoRepository;
+    private final ReservaRepository reservaRepository;
+    private final LivroRepository livroRepository;
+    private final ContadoresCirculacao contadores;
+    private final EmprestimoArquivadoRepository emprestimoArquivadoRepository;
+    private final ReservaArquivadaRepository reservaArquivadaRepository;
+
+    public EstatisticasService(EmprestimoRepository emprestimoRepository, ReservaRepository reservaRepository, LivroRepository livroRepository,
+                               ContadoresCirculacao contadores, EmprestimoArquivadoRepository emprestimoArquivadoRepository,
+                               ReservaArquivadaRepository reservaArquivadaRepository) {
+        this.emprestimoRepository = emprestimoRepository;
+        this.reservaRepository = reservaRepository;
+        this.livroRepository = livroRepository;
+        this.contadores = contadores;
+        this.emprestimoArquivadoRepository = emprestimoArquivadoRepository;
+        this.reservaArquivadaRepository = reservaArquivadaRepository;
+    }
+
+    public EstatisticasSaida consultar() {
+        return contadores.resumo();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${biblioteca.estatisticas.reconstrucao:0 30 3 * * *}")
+    @LeituraPrimaria
+    public void reconstruir() {
+        contadores.reconstruir(
+                agrupar(Stream.concat(emprestimoRepository.contarPorStatus().stream(), emprestimoArquivadoRepository.contarPorStatus().stream()).toList(),
+                        StatusEmprestimo.class::cast),
+                agrupar(Stream.concat(reservaRepository.contarPorStatus().stream(), reservaArquivadaRepository.contarPorStatus().stream()).toList(),
+                        StatusReserva.class::cast),
+                agrupar(livroRepository.somarEstoquePorCategoria(), Categoria.class::cast),
+                agrupar(emprestimoRepository.contarPorVencimento(List.of(StatusEmprestimo.ATIVO, StatusEmprestimo.PENDENTE)), LocalDate.class::cast));
+    }
+
+    private static <K> Map<K, Long> agrupar(List<Object[]> linhas, Function<Object, K> chave) {
+        return linhas.stream()
+                .filter(linha -> linha[0] != null)
+                .collect(Collectors.toMap(linha -> chave.apply(linha[0]), linha -> ((Number) linha[1]).longValue(), Long::sum));
+    }
+}
@@ -0,0 +1,225 @@
+package com.antoniovictor.biblioteca.services;
+
+import com.antoniovictor.biblioteca.dto.ImportacaoErro;
+import com.antoniovictor.biblioteca.dto.ImportacaoProgresso;
+import com.antoniovictor.biblioteca.dto.LivroEntrada;
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class ImportacaoLivroService {
+    private static final Set<String> CATEGORIAS = Arrays.stream(Categoria.values()).map(Categoria::name).collect(Collectors.toUnmodifiableSet());
+    private static final String MENSAGEM_ERRO_CATEGORIA = "Digite um valor válido de categoria: " +
+            Arrays.stream(Categoria.values()).map(Categoria::name).map(String::toLowerCase).collect(Collectors.joining(", "));
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int tamanhoLotePadrao;
+
+    public ImportacaoLivroService(EntityManager entityManager, TransactionTemplate transactionTemplate, ObjectMapper objectMapper, Validator validator,
+                                  @Value("${biblioteca.importacao.tamanho-lote:1000}") int tamanhoLotePadrao) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.tamanhoLotePadrao = tamanhoLotePadrao;
+    }
+
+    public int tamanhoLote(Integer tamanhoLote) {
+        var lote = tamanhoLote == null ? tamanhoLotePadrao : tamanhoLote;
+        if (lote <= 0) {
+            throw new IllegalArgumentException("O tamanho do lote deve ser maior que zero");
+        }
+        return lote;
+    }
+
+    public ImportacaoProgresso importar(InputStream entrada, FormatoArquivo formato, int lote, OutputStream saida) throws IOException {
+        var leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        var escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        var pendentes = new ArrayList<LivroPendente>(lote);
+        String[] cabecalho = null;
+        long numeroLinha = 0;
+        long processadas = 0;
+        long importadas = 0;
+        long erros = 0;
+        String linha;
+        while ((linha = leitor.readLine()) != null) {
+            numeroLinha++;
+            if (linha.isBlank()) {
+                continue;
+            }
+            if (formato == FormatoArquivo.CSV && cabecalho == null) {
+                cabecalho = lerCsv(linha);
+                continue;
+            }
+            processadas++;
+            try {
+                var livroEntrada = formato == FormatoArquivo.CSV ? deCsv(cabecalho, linha) : objectMapper.readValue(linha, LivroEntrada.class);
+                validar(livroEntrada);
+                pendentes.add(new LivroPendente(numeroLinha, livroEntrada));
+            } catch (JsonProcessingException e) {
+                erros++;
+                escrever(escritor, new ImportacaoErro(numeroLinha, e.getOriginalMessage()));
+            } catch (IllegalArgumentException e) {
+                erros++;
+                escrever(escritor, new ImportacaoErro(numeroLinha, e.getMessage()));
+            }
+            if (pendentes.size() == lote) {
+                var gravadas = gravar(pendentes, escritor);
+                importadas += gravadas;
+                erros += lote - gravadas;
+                escrever(escritor, new ImportacaoProgresso(processadas, importadas, erros, false));
+                escritor.flush();
+            }
+        }
+        var restantes = pendentes.size();
+        var gravadas = gravar(pendentes, escritor);
+        importadas += gravadas;
+        erros += restantes - gravadas;
+        var resultado = new ImportacaoProgresso(processadas, importadas, erros, true);
+        escrever(escritor, resultado);
+        escritor.flush();
+        return resultado;
+    }
+
+    private void validar(LivroEntrada livroEntrada) {
+        var violacoes = validator.validate(livroEntrada);
+        if (!violacoes.isEmpty()) {
+            throw new IllegalArgumentException(violacoes.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (!CATEGORIAS.contains(livroEntrada.categoria().toUpperCase())) {
+            throw new IllegalArgumentException(MENSAGEM_ERRO_CATEGORIA);
+        }
+    }
+
+    private int gravar(List<LivroPendente> pendentes, Writer escritor) throws IOException {
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+        try {
+            persistir(pendentes);
+            return pendentes.size();
+        } catch (PersistenceException | DataAccessException e) {
+            return gravarUmAUm(pendentes, escritor);
+        } finally {
+            pendentes.clear();
+        }
+    }
+
+    // Lote recusado: cada linha é refeita na sua própria transação, gravando as válidas e reportando a linha e a causa das demais.
+    private int gravarUmAUm(List<LivroPendente> pendentes, Writer escritor) throws IOException {
+        var gravadas = 0;
+        for (var pendente : pendentes) {
+            try {
+                persistir(List.of(pendente));
+                gravadas++;
+            } catch (PersistenceException | DataAccessException e) {
+                escrever(escritor, new ImportacaoErro(pendente.linha(), "Erro ao gravar livro: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+            }
+        }
+        return gravadas;
+    }
+
+    private void persistir(List<LivroPendente> pendentes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            pendentes.forEach(pendente -> entityManager.persist(new Livro(pendente.entrada())));
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private LivroEntrada deCsv(String[] cabecalho, String linha) {
+        var valores = lerCsv(linha);
+        if (valores.length != cabecalho.length) {
+            throw new IllegalArgumentException("Esperadas " + cabecalho.length + " colunas, encontradas " + valores.length);
+        }
+        String titulo = null;
+        String autor = null;
+        String categoria = null;
+        Integer quantidade = null;
+        for (int i = 0; i < cabecalho.length; i++) {
+            switch (cabecalho[i].trim().toLowerCase()) {
+                case "titulo" -> titulo = valores[i];
+                case "autor" -> autor = valores[i];
+                case "categoria" -> categoria = valores[i];
+                case "quantidade" -> {
+                    try {
+                        quantidade = valores[i].isBlank() ? null : Integer.valueOf(valores[i].trim());
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("quantidade: deve ser um número inteiro");
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return new LivroEntrada(titulo, autor, categoria, quantidade);
+    }
+
+    private String[] lerCsv(String linha) {
+        var valores = new ArrayList<String>();
+        var atual = new StringBuilder();
+        var entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            var c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                valores.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        valores.add(atual.toString());
+        return valores.toArray(String[]::new);
+    }
+
+    private void escrever(Writer escritor, Object evento) throws IOException {
+        escritor.write(objectMapper.writeValueAsString(evento));
+        escritor.write('\n');
+    }
+
+    private record LivroPendente(long linha, LivroEntrada entrada) {
+    }
+}
@@ -1,35 +1,67 @@
 package com.antoniovictor.biblioteca.services;
 
+import com.antoniovictor.biblioteca.dto.BuscaLivrosSaida;
 import com.antoniovictor.biblioteca.dto.LivroAtualizacao;
 import com.antoniovictor.biblioteca.dto.LivroEntrada;
+import com.antoniovictor.biblioteca.dto.LivroFacetas;
+import com.antoniovictor.biblioteca.dto.LivroFiltro;
+import com.antoniovictor.biblioteca.dto.LivroPopular;
+import com.antoniovictor.biblioteca.dto.LivroRecomendado;
 import com.antoniovictor.biblioteca.dto.LivroSaida;
 import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.Exemplar;
 import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.infra.CatalogoVersoes;
+import com.antoniovictor.biblioteca.infra.RankingLivros;
+import com.antoniovictor.biblioteca.infra.RepetirEmConflito;
+import com.antoniovictor.biblioteca.infra.RecomendacoesLivros;
+import com.antoniovictor.biblioteca.repository.ExemplarRepository;
+import com.antoniovictor.biblioteca.repository.LivroEspecificacoes;
 import com.antoniovictor.biblioteca.repository.LivroRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Timed("biblioteca.servicos")
 @Service
 public class LivroService {
     private final LivroRepository livroRepository;
+    private final ExemplarRepository exemplarRepository;
+    private final CatalogoVersoes catalogoVersoes;
+    private final RankingLivros rankingLivros;
+    private final RecomendacoesLivros recomendacoesLivros;
     private final String mensagemErroCategoria = "Digite um valor válido de categoria: " +
             Arrays.stream(Categoria.values()).map(Categoria::name).map(String::toLowerCase).collect(Collectors.joining(", "));
 
-    public LivroService(LivroRepository livroRepository) {
+    public LivroService(LivroRepository livroRepository, ExemplarRepository exemplarRepository, CatalogoVersoes catalogoVersoes,
+                        RankingLivros rankingLivros, RecomendacoesLivros recomendacoesLivros) {
         this.livroRepository = livroRepository;
+        this.exemplarRepository = exemplarRepository;
+        this.catalogoVersoes = catalogoVersoes;
+        this.rankingLivros = rankingLivros;
+        this.recomendacoesLivros = recomendacoesLivros;
     }
 
     @Transactional
     public LivroSaida cadastrarLivro(LivroEntrada livroEntrada) {
-        var categoriaExistente = Arrays.stream(Categoria.values()).anyMatch(c -> Objects.equals(c.name(), livroEntrada.categoria().toUpperCase()));
+        var categoriaExistente = categoriaExistente(livroEntrada.categoria());
         if (!categoriaExistente) {
             throw new IllegalArgumentException(mensagemErroCategoria);
         }
@@ -38,19 +70,34 @@ public class LivroService {
         return new LivroSaida(livro);
     }
 
+    @Transactional(readOnly = true)
     public Page<LivroSaida> listarLivros(Pageable pageable) {
         return livroRepository.findAll(pageable)
                 .map(LivroSaida::new);
     }
 
+    @Transactional(readOnly = true)
     public LivroSaida buscarLivroPorId(long id) {
         Livro livro = livroRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Livro não encontrado!"));
         return new LivroSaida(livro);
     }
 
+    public Optional<CatalogoVersoes.VersaoLivro> buscarVersao(long id) {
+        return catalogoVersoes.buscar(id);
+    }
+
+    public String etagCatalogo() {
+        return catalogoVersoes.etagCatalogo();
+    }
+
+    public String etagDisponibilidade() {
+        return catalogoVersoes.etagDisponibilidade();
+    }
+
+    @Transactional(readOnly = true)
     public Page<LivroSaida> listarLivrosPorCategoria(String categoria, Pageable pageable) {
-        var categoriaExistente = Arrays.stream(Categoria.values()).anyMatch(c -> Objects.equals(c.name(), categoria.toUpperCase()));
+        var categoriaExistente = categoriaExistente(categoria);
         if (categoriaExistente) {
             Page<Livro> livros = livroRepository.findAllByCategoria(Categoria.valueOf(categoria.toUpperCase()),pageable);
             if (livros.isEmpty()) {
@@ -63,6 +110,111 @@ public class LivroService {
         }
     }
 
+    @Transactional(readOnly = true)
+    public Page<LivroSaida> buscarLivros(LivroFiltro filtro, Pageable pageable) {
+        return livroRepository.findAll(especificacao(filtro), pageable)
+                .map(LivroSaida::new);
+    }
+
+    @Transactional(readOnly = true)
+    public BuscaLivrosSaida buscarLivrosComFacetas(LivroFiltro filtro, Pageable pageable, int autores) {
+        if (autores < 1 || autores > 50) {
+            throw new IllegalArgumentException("O limite de autores deve estar entre 1 e 50");
+        }
+        var especificacao = especificacao(filtro);
+        var categorias = new EnumMap<Categoria, Long>(Categoria.class);
+        Arrays.stream(Categoria.values()).forEach(c -> categorias.put(c, 0L));
+        var porAutor = new HashMap<String, Long>();
+        long total = 0;
+        long disponiveis = 0;
+        for (var linha : livroRepository.contarFacetas(especificacao)) {
+            var quantidade = ((Number) linha[2]).longValue();
+            if (linha[0] != null) {
+                categorias.merge((Categoria) linha[0], quantidade, Long::sum);
+            }
+            porAutor.merge((String) linha[1], quantidade, Long::sum);
+            total += quantidade;
+            disponiveis += linha[3] == null ? 0 : ((Number) linha[3]).longValue();
+        }
+        var autoresMaisFrequentes = porAutor.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.nullsLast(Comparator.naturalOrder()))))
+                .limit(autores)
+                .map(autor -> new LivroFacetas.Autor(autor.getKey(), autor.getValue()))
+                .toList();
+        var conteudo = pageable.isPaged() && pageable.getOffset() >= total ? List.<Livro>of() : livroRepository.listar(especificacao, pageable);
+        var livros = new PageImpl<>(conteudo, pageable, total).map(LivroSaida::new);
+        return new BuscaLivrosSaida(livros, new LivroFacetas(categorias, disponiveis, total - disponiveis, autoresMaisFrequentes));
+    }
+
+    private Specification<Livro> especificacao(LivroFiltro filtro) {
+        var especificacoes = new ArrayList<Specification<Livro>>();
+        if (filtro.titulo() != null && !filtro.titulo().isBlank()) {
+            especificacoes.add(LivroEspecificacoes.tituloContem(filtro.titulo().trim()));
+        }
+        if (filtro.autor() != null && !filtro.autor().isBlank()) {
+            especificacoes.add(LivroEspecificacoes.autorComecaCom(filtro.autor().trim()));
+        }
+        if (filtro.categoria() != null) {
+            if (!categoriaExistente(filtro.categoria())) {
+                throw new IllegalArgumentException(mensagemErroCategoria);
+            }
+            especificacoes.add(LivroEspecificacoes.categoria(Categoria.valueOf(filtro.categoria().toUpperCase())));
+        }
+        if (filtro.estoqueMinimo() != null) {
+            if (filtro.estoqueMinimo() < 0) {
+                throw new IllegalArgumentException("O estoque mínimo não pode ser negativo");
+            }
+            if (filtro.estoqueMinimo() == 1) {
+                especificacoes.add(LivroEspecificacoes.disponivel(true));
+            } else if (filtro.estoqueMinimo() > 1) {
+                especificacoes.add(LivroEspecificacoes.estoqueMinimo(filtro.estoqueMinimo()));
+            }
+        }
+        if (filtro.disponivel() != null) {
+            especificacoes.add(LivroEspecificacoes.disponivel(filtro.disponivel()));
+        }
+        return Specification.allOf(especificacoes);
+    }
+
+    public List<LivroPopular> listarPopulares(String categoria, int periodo, String tipo, int limite) {
+        if (categoria != null && !categoriaExistente(categoria)) {
+            throw new IllegalArgumentException(mensagemErroCategoria);
+        }
+        if (periodo < 1 || periodo > RankingLivros.DIAS) {
+            throw new IllegalArgumentException("O período deve estar entre 1 e " + RankingLivros.DIAS + " dias");
+        }
+        if (limite < 1 || limite > 50) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e 50");
+        }
+        var tipoRanking = Arrays.stream(RankingLivros.Tipo.values())
+                .filter(t -> t.name().equalsIgnoreCase(tipo))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Digite um valor válido de tipo: emprestimos, reservas"));
+        return rankingLivros.populares(tipoRanking, categoria == null ? null : Categoria.valueOf(categoria.toUpperCase()), periodo, limite);
+    }
+
+    @Transactional(readOnly = true)
+    public List<LivroRecomendado> listarRecomendacoes(long id, int limite) {
+        if (limite < 1 || limite > 50) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e 50");
+        }
+        var recomendacoes = recomendacoesLivros.recomendar(id, limite);
+        if (recomendacoes.isEmpty()) {
+            if (!livroRepository.existsById(id)) {
+                throw new EntityNotFoundException("Livro não encontrado!");
+            }
+            return List.of();
+        }
+        var livros = livroRepository.findAllById(recomendacoes.stream().map(RecomendacoesLivros.Recomendacao::livroId).toList()).stream()
+                .collect(Collectors.toMap(Livro::getId, Function.identity()));
+        return recomendacoes.stream()
+                .filter(r -> livros.containsKey(r.livroId()))
+                .map(r -> new LivroRecomendado(livros.get(r.livroId()), r.emprestimosEmComum()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
     public Page<LivroSaida> listarLivrosPorNome(String nome, Pageable pageable) {
         Page<Livro> livros = livroRepository.findAllByTituloContaining(nome, pageable);
         if (livros.isEmpty()) {
@@ -72,6 +224,7 @@ public class LivroService {
         }
     }
 
+    @RepetirEmConflito
     @Transactional
     public LivroSaida atualizarLivro(long id, LivroAtualizacao livroAtualizacao) {
         Livro livro = livroRepository.findById(id)
@@ -81,19 +234,41 @@ public class LivroService {
         } else if (livroAtualizacao.titulo() != null) {
             livro.setTitulo(livroAtualizacao.titulo());
         } else if(livroAtualizacao.categoria() != null) {
-            var categoriaExistente = Arrays.stream(Categoria.values()).anyMatch(c -> Objects.equals(c.name(), livroAtualizacao.categoria().toUpperCase()));
+            var categoriaExistente = categoriaExistente(livroAtualizacao.categoria());
             if (!categoriaExistente) {
                 throw new IllegalArgumentException(mensagemErroCategoria);
             }
             livro.setCategoria(Categoria.valueOf(livroAtualizacao.categoria().toUpperCase()));
         } else if(livroAtualizacao.estoque() != null) {
-            livro.setEstoque(livroAtualizacao.estoque());
+            ajustarExemplares(livro, livroAtualizacao.estoque());
         }
         return new LivroSaida(livro);
     }
 
+    private void ajustarExemplares(Livro livro, int estoque) {
+        if (estoque < 0) {
+            throw new IllegalArgumentException("O estoque não pode ser negativo");
+        }
+        var livres = exemplarRepository.bloquearLivres(livro.getId());
+        if (estoque > livres.size()) {
+            var novos = new ArrayList<Exemplar>();
+            for (int i = livres.size(); i < estoque; i++) {
+                novos.add(new Exemplar(livro));
+            }
+            exemplarRepository.saveAll(novos);
+        } else {
+            exemplarRepository.deleteAll(livres.subList(estoque, livres.size()));
+        }
+        livro.setEstoque(estoque);
+        livro.setDisponivel(estoque > 0);
+    }
+
     @Transactional
     public void deletarLivro(long id) {
         livroRepository.deleteById(id);
     }
+
+    static boolean categoriaExistente(String categoria) {
+        return Arrays.stream(Categoria.values()).anyMatch(c -> Objects.equals(c.name(), categoria.toUpperCase()));
+    }
 }
@@ -0,0 +1,64 @@
+package com.antoniovictor.biblioteca.services;
+
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.antoniovictor.biblioteca.repository.EmprestimoRepository;
+import com.antoniovictor.biblioteca.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Timed("biblioteca.servicos")
+@Service
+public class MultaService {
+
+    private static final List<StatusEmprestimo> ABERTOS = List.of(StatusEmprestimo.ATIVO, StatusEmprestimo.PENDENTE);
+
+    private final EmprestimoRepository emprestimoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EstatisticasService estatisticasService;
+    private final int lote;
+
+    public MultaService(EmprestimoRepository emprestimoRepository, UsuarioRepository usuarioRepository, TransactionTemplate transactionTemplate,
+                        EstatisticasService estatisticasService, @Value("${biblioteca.multas.lote:1000}") int lote) {
+        this.emprestimoRepository = emprestimoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.estatisticasService = estatisticasService;
+        this.lote = lote;
+    }
+
+    @Scheduled(cron = "${biblioteca.multas.processamento:0 0 1 * * *}")
+    public long processarAtrasos() {
+        var inicio = System.nanoTime();
+        var hoje = LocalDate.now();
+        var agora = LocalDateTime.now();
+        var menorId = usuarioRepository.menorId();
+        var maiorId = usuarioRepository.maiorId();
+        if (menorId == null || maiorId == null) {
+            return 0;
+        }
+        long atualizados = 0;
+        for (long de = menorId; de <= maiorId; de += lote) {
+            var ate = Math.min(de + lote - 1, maiorId);
+            var faixaInicio = de;
+            atualizados += transactionTemplate.execute(status -> {
+                emprestimoRepository.registrarAtrasos(faixaInicio, ate, hoje, agora);
+                var emprestimos = emprestimoRepository.acumularMultas(faixaInicio, ate, hoje, EmprestimoService.MULTA_DIARIA, ABERTOS, StatusEmprestimo.PENDENTE);
+                usuarioRepository.atualizarSaldos(faixaInicio, ate, StatusEmprestimo.PENDENTE);
+                return emprestimos;
+            });
+        }
+        estatisticasService.reconstruir();
+        log.info("Multas atualizadas: {} empréstimos em atraso em {} ms", atualizados, (System.nanoTime() - inicio) / 1_000_000);
+        return atualizados;
+    }
+}
@@ -1,38 +1,59 @@
 package com.antoniovictor.biblioteca.services;
 
 import com.antoniovictor.biblioteca.entities.Emprestimo;
-import com.antoniovictor.biblioteca.entities.Livro;
-import com.antoniovictor.biblioteca.entities.Usuario;
+import com.antoniovictor.biblioteca.infra.EventoEnvioEmail;
 import com.antoniovictor.biblioteca.repository.EmprestimoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.mail.MailException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 
+@Slf4j
 @Service
 public class NotificacaoService {
 
     private final JavaMailSender javaMailSender;
     private final EmprestimoRepository emprestimoRepository;
+    private final TaskExecutor emailExecutor;
 
-    public NotificacaoService(JavaMailSender javaMailSender, EmprestimoRepository emprestimoRepository) {
+    public NotificacaoService(JavaMailSender javaMailSender, EmprestimoRepository emprestimoRepository, @Qualifier("emailExecutor") TaskExecutor emailExecutor) {
         this.javaMailSender = javaMailSender;
         this.emprestimoRepository = emprestimoRepository;
+        this.emailExecutor = emailExecutor;
     }
 
     private void enviarEmail(String para, String assunto, String mensagem) {
+        emailExecutor.execute(() -> enviar(para, assunto, mensagem));
+    }
 
+    // Envia na thread atual: os ouvintes de eventos de domínio já rodam fora da requisição, no eventosExecutor.
+    private void enviar(String para, String assunto, String mensagem) {
         SimpleMailMessage email = new SimpleMailMessage();
         email.setTo(para);
         email.setSubject(assunto);
         email.setText(mensagem);
 
-        javaMailSender.send(email);
+        var evento = EventoEnvioEmail.iniciar(assunto);
+        try {
+            javaMailSender.send(email);
+            evento.resultado("sucesso");
+        } catch (MailException e) {
+            evento.resultado(e.getClass().getSimpleName());
+            log.warn("Falha ao enviar email para {}: {}", para, e.getMessage());
+        } finally {
+            evento.commit();
+        }
     }
 
     @Scheduled(cron = "0 0 8 * * ?")
+    @Transactional(readOnly = true)
     public void lembreteDevolucao() {
         var dataAtual = LocalDate.now();
         var emprestimosProximosAoFim = emprestimoRepository.findAll().stream()
@@ -47,6 +68,7 @@ public class NotificacaoService {
     }
 
     @Scheduled(cron = "0 0 8 * * ?")
+    @Transactional(readOnly = true)
     public void avisoAtraso() {
         var dataAtual = LocalDate.now();
         var emprestimosAtrasados = emprestimoRepository.findAll().stream()
@@ -60,8 +82,8 @@ public class NotificacaoService {
         }
     }
 
-    public void notificarLivroDisponivel(Usuario usuario, Livro livro) {
-        enviarEmail(usuario.getEmail(), "Livro Disponível", "O livro " + livro.getTitulo() + " está disponível para empréstimo.");
+    public void notificarLivroDisponivel(String email, String titulo) {
+        enviar(email, "Livro Disponível", "O livro " + titulo + " está disponível para empréstimo.");
     }
 
 }
@@ -1,37 +1,66 @@
 package com.antoniovictor.biblioteca.services;
 
+import com.antoniovictor.biblioteca.dto.HistoricoSaida;
 import com.antoniovictor.biblioteca.dto.ReservaAtualizacao;
 import com.antoniovictor.biblioteca.dto.ReservaSaida;
 import com.antoniovictor.biblioteca.entities.Reserva;
 import com.antoniovictor.biblioteca.entities.StatusReserva;
 import com.antoniovictor.biblioteca.error.AtualizacaoReservaException;
 import com.antoniovictor.biblioteca.error.CadastroReservaException;
+import com.antoniovictor.biblioteca.eventos.ReservaAtivada;
+import com.antoniovictor.biblioteca.infra.EventoExpiracaoReservas;
+import com.antoniovictor.biblioteca.infra.Exportador;
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
+import com.antoniovictor.biblioteca.infra.RankingLivros;
+import com.antoniovictor.biblioteca.infra.RepetirEmConflito;
 import com.antoniovictor.biblioteca.repository.LivroRepository;
+import com.antoniovictor.biblioteca.repository.ReservaArquivadaRepository;
 import com.antoniovictor.biblioteca.repository.ReservaRepository;
 import com.antoniovictor.biblioteca.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+@Timed("biblioteca.servicos")
 @Service
 public class ReservaService {
     private  final ReservaRepository reservaRepository;
     private final LivroRepository livroRepository;
     private final UsuarioRepository usuarioRepository;
+    private final Exportador exportador;
+    private final RankingLivros rankingLivros;
+    private final ReservaArquivadaRepository reservaArquivadaRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ReservaService(ReservaRepository reservaRepository, LivroRepository livroRepository, UsuarioRepository usuarioRepository) {
+    public ReservaService(ReservaRepository reservaRepository, LivroRepository livroRepository, UsuarioRepository usuarioRepository, Exportador exportador, RankingLivros rankingLivros, ReservaArquivadaRepository reservaArquivadaRepository,
+                          ApplicationEventPublisher eventPublisher) {
         this.reservaRepository = reservaRepository;
         this.livroRepository = livroRepository;
         this.usuarioRepository = usuarioRepository;
+        this.exportador = exportador;
+        this.rankingLivros = rankingLivros;
+        this.reservaArquivadaRepository = reservaArquivadaRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -46,12 +75,14 @@ public class ReservaService {
             reservaRepository.save(reserva);
             livro.addReserva(reserva);
             usuario.addReserva(reserva);
+            rankingLivros.registrarReserva(livro);
             return new ReservaSaida(reserva);
         } else {
             throw new CadastroReservaException("Reserva não efetuada, livro disponível ou máximo de reservas ativas atingido.");
         }
     }
 
+    @Transactional(readOnly = true)
     public Page<ReservaSaida> listaReservas(Pageable pageable) {
         var pageableSort = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("data"));
 
@@ -59,16 +90,56 @@ public class ReservaService {
                 .map(ReservaSaida::new);
     }
 
+    @Transactional(readOnly = true)
+    public long exportarReservas(LocalDate de, LocalDate ate, FormatoArquivo formato, OutputStream saida) throws IOException {
+        var inicio = de == null ? null : de.atStartOfDay();
+        var fim = ate == null ? null : ate.plusDays(1).atStartOfDay();
+        List<Supplier<Stream<ReservaSaida>>> partes = List.of(
+                () -> reservaArquivadaRepository.exportarPorPeriodo(inicio, fim),
+                () -> reservaRepository.exportarPorPeriodo(inicio, fim));
+        return exportador.escrever(partes, ReservaSaida.class, formato, saida);
+    }
+
+    @Transactional(readOnly = true)
     public ReservaSaida buscaReserva(long idReserva) {
-        var reserva = reservaRepository.findById(idReserva)
+        return reservaRepository.findById(idReserva)
+                .map(ReservaSaida::new)
+                .or(() -> reservaArquivadaRepository.buscarSaida(idReserva))
                 .orElseThrow(() -> new EntityNotFoundException("Reserva não encontrada"));
-        return new ReservaSaida(reserva);
     }
 
+    @Transactional(readOnly = true)
+    public HistoricoSaida<ReservaSaida> historicoUsuario(long idUsuario, String status, Long antes, int limite) {
+        if (limite < 1 || limite > EmprestimoService.HISTORICO_LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + EmprestimoService.HISTORICO_LIMITE_MAXIMO);
+        }
+        StatusReserva statusReserva = null;
+        if (status != null) {
+            statusReserva = Arrays.stream(StatusReserva.values())
+                    .filter(s -> s.name().equalsIgnoreCase(status))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Digite um valor de status valido: ativa, pendente, finalizada ou expirada"));
+        }
+        if (!usuarioRepository.existsById(idUsuario)) {
+            throw new EntityNotFoundException("Usuario não encontrado");
+        }
+        var cursor = antes == null ? Long.MAX_VALUE : antes;
+        var reservas = Stream.concat(
+                        reservaRepository.historicoPorUsuario(idUsuario, statusReserva, cursor, limite + 1).stream(),
+                        reservaArquivadaRepository.historicoPorUsuario(idUsuario, statusReserva, cursor, limite + 1).stream())
+                .sorted(Comparator.comparing(ReservaSaida::id).reversed())
+                .toList();
+        return HistoricoSaida.de(reservas, limite, ReservaSaida::id);
+    }
+
+    @Transactional(readOnly = true)
     public Page<ReservaSaida> listaReservasPorStatus(String statusReserva, Pageable pageable) {
         var listaDeStatus = Arrays.stream(StatusReserva.values()).toList().stream().map(Enum::name);
         if (listaDeStatus.anyMatch(s -> Objects.equals(s, statusReserva.toUpperCase()))) {
             var status = StatusReserva.valueOf(statusReserva.toUpperCase());
+            if (status == StatusReserva.FINALIZADA || status == StatusReserva.EXPIRADA) {
+                return listaReservasEncerradas(status, pageable);
+            }
             return reservaRepository.findAllByStatusOrderByData(status, pageable)
                     .map(ReservaSaida::new);
         } else {
@@ -77,7 +148,23 @@ public class ReservaService {
 
     }
 
+    private Page<ReservaSaida> listaReservasEncerradas(StatusReserva status, Pageable pageable) {
+        var arquivadas = reservaArquivadaRepository.countByStatus(status);
+        var atuais = reservaRepository.countByStatus(status);
+        var deslocamento = pageable.getOffset();
+        var conteudo = new ArrayList<ReservaSaida>(pageable.getPageSize());
+        if (deslocamento < arquivadas) {
+            conteudo.addAll(reservaArquivadaRepository.listarPorStatus(status, deslocamento, pageable.getPageSize()));
+        }
+        var restante = pageable.getPageSize() - conteudo.size();
+        if (restante > 0 && deslocamento + conteudo.size() < arquivadas + atuais) {
+            conteudo.addAll(reservaRepository.listarPorStatus(status, Math.max(deslocamento - arquivadas, 0), restante));
+        }
+        return new PageImpl<>(conteudo, pageable, arquivadas + atuais);
+    }
+
 
+    @RepetirEmConflito
     @Transactional
     public ReservaSaida atualizarReserva(long idReserva, ReservaAtualizacao reservaAtualizacao) throws AtualizacaoReservaException {
         var reserva = reservaRepository.findById(idReserva)
@@ -94,6 +181,8 @@ public class ReservaService {
         if (statusAtualizado == StatusReserva.ATIVA) {
             reserva.setInicio(LocalDateTime.now());
             reserva.setExpiracao(LocalDateTime.now().plusHours(48));
+            var livro = reserva.getLivro();
+            eventPublisher.publishEvent(new ReservaAtivada(reserva.getId(), livro.getId(), livro.getTitulo(), reserva.getUsuario().getEmail()));
             return new ReservaSaida(reserva);
         } else if (statusAtualizado == StatusReserva.FINALIZADA) {
             var livro = reserva.getLivro();
@@ -114,18 +203,23 @@ public class ReservaService {
     }
 
     @Scheduled(fixedRate = 60000)
+    @RepetirEmConflito
     @Transactional
     public void verificaReservaExpirada() {
-        var dataAtual = LocalDateTime.now();
-        var reservasExpiradas = reservaRepository.findByStatusAndExpiracaoGreaterThanEqual(StatusReserva.ATIVA, dataAtual);
-        if(!reservasExpiradas.isEmpty()) {
-            for(Reserva reserva : reservasExpiradas) {
-                reserva.setStatus(StatusReserva.EXPIRADA);
-                var livro = reserva.getLivro();
-                livro.removeReserva(reserva);
+        var evento = EventoExpiracaoReservas.iniciar();
+        try {
+            var dataAtual = LocalDateTime.now();
+            var reservasExpiradas = reservaRepository.findByStatusAndExpiracaoGreaterThanEqual(StatusReserva.ATIVA, dataAtual);
+            if(!reservasExpiradas.isEmpty()) {
+                for(Reserva reserva : reservasExpiradas) {
+                    reserva.setStatus(StatusReserva.EXPIRADA);
+                    var livro = reserva.getLivro();
+                    livro.removeReserva(reserva);
+                }
             }
+            evento.concluir(reservasExpiradas.size());
+        } finally {
+            evento.commit();
         }
     }
-
-
 }
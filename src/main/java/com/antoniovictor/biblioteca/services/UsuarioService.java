@@ -5,11 +5,17 @@ import com.antoniovictor.biblioteca.dto.UsuarioEntrada;
 import com.antoniovictor.biblioteca.dto.UsuarioSaida;
 import com.antoniovictor.biblioteca.entities.RoleUsuario;
 import com.antoniovictor.biblioteca.entities.Usuario;
+import com.antoniovictor.biblioteca.eventos.UsuarioCadastrado;
+import com.antoniovictor.biblioteca.infra.LeituraPrimaria;
 import com.antoniovictor.biblioteca.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,17 +28,22 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
+@Slf4j
+@Timed("biblioteca.servicos")
 @Service
 public class UsuarioService implements UserDetailsService {
     private final UsuarioRepository usuarioRepository;
     private final JavaMailSender javaMailSender;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UsuarioService(UsuarioRepository usuarioRepository, JavaMailSender javaMailSender) {
+    public UsuarioService(UsuarioRepository usuarioRepository, JavaMailSender javaMailSender, ApplicationEventPublisher eventPublisher) {
         this.usuarioRepository = usuarioRepository;
         this.javaMailSender = javaMailSender;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @LeituraPrimaria
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return usuarioRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado"));
@@ -44,8 +55,9 @@ public class UsuarioService implements UserDetailsService {
         if(roleExistente) {
             var senha = BCrypt.hashpw(usuarioEntrada.senha(), BCrypt.gensalt());
             Usuario usuario = new Usuario(usuarioEntrada, senha);
+            usuario.setCodigoVerificacao(UUID.randomUUID().toString());
             usuarioRepository.save(usuario);
-            enviarEmail(usuario);
+            eventPublisher.publishEvent(new UsuarioCadastrado(usuario.getId(), usuario.getEmail(), usuario.getCodigoVerificacao()));
             return new UsuarioSaida(usuario);
         } else {
             throw new IllegalArgumentException("Role não existente, escolha entre admin ou leitor");
@@ -53,11 +65,13 @@ public class UsuarioService implements UserDetailsService {
 
     }
 
+    @Transactional(readOnly = true)
     public Page<UsuarioSaida> listar(Pageable pageable) {
         return usuarioRepository.findAll(pageable)
                 .map(UsuarioSaida::new);
     }
 
+    @Transactional(readOnly = true)
     public UsuarioSaida buscarPorId(long id) {
         var usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado"));
@@ -104,15 +118,16 @@ public class UsuarioService implements UserDetailsService {
 
     }
 
-    @Transactional
-    protected void enviarEmail(Usuario usuario) {
+    public void enviarEmailVerificacao(String para, String codigo) {
         SimpleMailMessage email = new SimpleMailMessage();
-        var codigo = UUID.randomUUID().toString();
-        usuario.setCodigoVerificacao(codigo);
-        email.setTo(usuario.getEmail());
+        email.setTo(para);
         email.setSubject("Confirmação de email");
         email.setText("Código de verificação: " + codigo);
-        javaMailSender.send(email);
+        try {
+            javaMailSender.send(email);
+        } catch (MailException e) {
+            log.warn("Falha ao enviar email de verificação para {}: {}", para, e.getMessage());
+        }
     }
 
     @Transactional
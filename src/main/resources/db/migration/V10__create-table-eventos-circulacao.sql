@@ -0,0 +1,10 @@
+create table eventos_circulacao (
+    id bigint auto_increment primary key not null,
+    tipo varchar(30) not null,
+    emprestimo_id bigint,
+    reserva_id bigint,
+    usuario_id bigint,
+    livro_id bigint,
+    ocorrido_em datetime not null
+);
+create index idx_eventos_circulacao_ocorrido_em on eventos_circulacao (ocorrido_em);
\ No newline at end of file
@@ -0,0 +1,33 @@
+create table exemplares (
+    id bigint auto_increment primary key not null,
+    livro_id bigint not null,
+    emprestado boolean not null default false
+);
+create index idx_exemplares_livro_emprestado on exemplares (livro_id, emprestado);
+alter table emprestimos add column exemplar_id bigint;
+
+insert into exemplares (id, livro_id, emprestado)
+select id, livro_id, true from emprestimos where status in ('ATIVO', 'PENDENTE');
+update emprestimos set exemplar_id = id where status in ('ATIVO', 'PENDENTE');
+
+create table numeros_migracao (n int primary key not null);
+insert into numeros_migracao (n) values (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+insert into exemplares (id, livro_id, emprestado)
+select (select coalesce(max(id), 0) from emprestimos) + row_number() over (order by l.id, c.n), l.id, false
+from livros l join (
+    select 1 + u.n + 10 * d.n + 100 * c.n + 1000 * m.n + 10000 * dm.n + 100000 * cm.n as n
+    from numeros_migracao u
+    cross join numeros_migracao d
+    cross join numeros_migracao c
+    cross join numeros_migracao m
+    cross join numeros_migracao dm
+    cross join numeros_migracao cm
+) c on c.n <= l.estoque;
+
+drop table numeros_migracao;
+
+insert into id_geradores (entidade, proximo_id) select 'exemplares', coalesce(max(id), 0) + 50 from exemplares;
+
+alter table livros drop column estoque;
+alter table livros drop column disponivel;
\ No newline at end of file
@@ -0,0 +1,2 @@
+alter table emprestimos add column versao bigint not null default 0;
+alter table reservas add column versao bigint not null default 0;
\ No newline at end of file
@@ -0,0 +1,27 @@
+create table emprestimos_arquivo (
+    id bigint not null primary key,
+    inicio date,
+    fim date,
+    multa double,
+    livro_id bigint,
+    status varchar(100),
+    usuario_id bigint,
+    exemplar_id bigint,
+    arquivado_em datetime not null
+);
+create index idx_emprestimos_arquivo_inicio on emprestimos_arquivo (inicio);
+
+create table reservas_arquivo (
+    id bigint not null primary key,
+    data datetime,
+    inicio datetime,
+    expiracao datetime,
+    usuario_id bigint,
+    livro_id bigint,
+    status varchar(100),
+    arquivado_em datetime not null
+);
+create index idx_reservas_arquivo_status_data on reservas_arquivo (status, data);
+
+create index idx_emprestimos_status_fim on emprestimos (status, fim);
+create index idx_reservas_status_data on reservas (status, data);
\ No newline at end of file
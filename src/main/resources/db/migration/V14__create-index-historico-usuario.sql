@@ -0,0 +1,8 @@
+create index idx_emprestimos_usuario_id on emprestimos (usuario_id, id);
+create index idx_emprestimos_usuario_status_id on emprestimos (usuario_id, status, id);
+create index idx_reservas_usuario_id on reservas (usuario_id, id);
+create index idx_reservas_usuario_status_id on reservas (usuario_id, status, id);
+create index idx_emprestimos_arquivo_usuario_id on emprestimos_arquivo (usuario_id, id);
+create index idx_emprestimos_arquivo_usuario_status_id on emprestimos_arquivo (usuario_id, status, id);
+create index idx_reservas_arquivo_usuario_id on reservas_arquivo (usuario_id, id);
+create index idx_reservas_arquivo_usuario_status_id on reservas_arquivo (usuario_id, status, id);
\ No newline at end of file
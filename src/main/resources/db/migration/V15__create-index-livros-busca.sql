@@ -0,0 +1,2 @@
+create index idx_livros_categoria_autor on livros (categoria, autor);
+create index idx_livros_autor_categoria on livros (autor, categoria);
\ No newline at end of file
@@ -0,0 +1,3 @@
+alter table livros add column versao bigint not null default 0;
+alter table livros add column atualizado_em datetime;
+update livros set atualizado_em = now();
\ No newline at end of file
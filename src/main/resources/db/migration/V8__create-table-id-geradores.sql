@@ -0,0 +1,9 @@
+create table id_geradores (
+    entidade varchar(100) not null primary key,
+    proximo_id bigint not null
+);
+
+insert into id_geradores (entidade, proximo_id) select 'livros', coalesce(max(id), 0) + 50 from livros;
+insert into id_geradores (entidade, proximo_id) select 'usuarios', coalesce(max(id), 0) + 50 from usuarios;
+insert into id_geradores (entidade, proximo_id) select 'emprestimos', coalesce(max(id), 0) + 50 from emprestimos;
+insert into id_geradores (entidade, proximo_id) select 'reservas', coalesce(max(id), 0) + 50 from reservas;
\ No newline at end of file
@@ -0,0 +1,2 @@
+alter table usuarios add column saldo_devedor double not null default 0;
+create index idx_emprestimos_usuario_status on emprestimos (usuario_id, status, fim);
\ No newline at end of file
@@ -0,0 +1,18 @@
+insert into usuarios (id, nome, email, senha, cpf, ativo, role, email_verificado, codigo_verificacao)
+select 1000 + x, concat('Leitor ', x), concat('leitor', x, '@perf.local'),
+       '$2a$12$6e.GMeC0s/IGYX0ROlFktO4MwBg96e08zzYz9eHiSd/KUokK9H01y', lpad(x, 11, '0'), true, 'LEITOR', true, '000000'
+from system_range(1, 500) as s(x);
+
+insert into livros (id, titulo, autor, categoria, versao, atualizado_em)
+select 1000 + x, concat('Livro ', x), concat('Autor ', mod(x, 300)),
+       case mod(x, 5) when 0 then 'FICCAO' when 1 then 'ROMANCE' when 2 then 'DRAMA' when 3 then 'TERROR' else 'AVENTURA' end,
+       0, now()
+from system_range(1, 2000) as s(x);
+
+insert into exemplares (id, livro_id, emprestado)
+select 1000 + x, 1000 + (x + 4) / 5, false
+from system_range(1, 10000) as s(x);
+
+update id_geradores set proximo_id = (select max(id) from usuarios) + 50 where entidade = 'usuarios';
+update id_geradores set proximo_id = (select max(id) from livros) + 50 where entidade = 'livros';
+update id_geradores set proximo_id = (select max(id) from exemplares) + 50 where entidade = 'exemplares';
\ No newline at end of file
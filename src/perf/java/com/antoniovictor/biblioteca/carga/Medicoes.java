@@ -0,0 +1,63 @@
+package com.antoniovictor.biblioteca.carga;
+
+import java.util.Arrays;
+
+class Medicoes {
+
+    private long[] latencias = new long[1024];
+    private int quantidade;
+    private long sucessos;
+    private long falhas;
+
+    void registrar(long nanos, boolean sucesso) {
+        if (quantidade == latencias.length) {
+            latencias = Arrays.copyOf(latencias, quantidade * 2);
+        }
+        latencias[quantidade++] = nanos;
+        if (sucesso) {
+            sucessos++;
+        } else {
+            falhas++;
+        }
+    }
+
+    void juntar(Medicoes outras) {
+        if (quantidade + outras.quantidade > latencias.length) {
+            latencias = Arrays.copyOf(latencias, quantidade + outras.quantidade);
+        }
+        System.arraycopy(outras.latencias, 0, latencias, quantidade, outras.quantidade);
+        quantidade += outras.quantidade;
+        sucessos += outras.sucessos;
+        falhas += outras.falhas;
+    }
+
+    Resumo resumir(String endpoint, double segundos) {
+        var ordenadas = Arrays.copyOf(latencias, quantidade);
+        Arrays.sort(ordenadas);
+        return new Resumo(endpoint, quantidade, sucessos, falhas, quantidade / segundos,
+                percentil(ordenadas, 50), percentil(ordenadas, 90), percentil(ordenadas, 99), percentil(ordenadas, 99.9),
+                ordenadas.length == 0 ? 0 : ordenadas[ordenadas.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        var indice = (int) Math.ceil(percentil / 100 * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1_000_000.0;
+    }
+
+    record Resumo(
+            String endpoint,
+            long requisicoes,
+            long sucessos,
+            long falhas,
+            double porSegundo,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double p999Ms,
+            double maximoMs
+    ) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.antoniovictor.biblioteca.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class SimuladorCarga {
+
+    private static final String[] CATEGORIAS = {"ficcao", "romance", "drama", "terror", "aventura"};
+    private static final Map<String, String> ENDPOINTS = Map.of(
+            "login", "POST /login",
+            "catalogo", "GET /livros",
+            "livro", "GET /livros/livro/{id}",
+            "categoria", "GET /livros/categorias",
+            "titulo", "GET /livros/livro?titulo",
+            "emprestimo", "POST /emprestimos",
+            "devolucao", "PATCH /emprestimos/emprestimo/{id}/devolucao",
+            "reserva", "POST /reservas/adicionar");
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String url;
+    private final String credenciais;
+    private final String senhaLeitores;
+    private final int leitores;
+    private final int livros;
+    private final Operacao[] operacoes;
+    private final int pesoTotal;
+    private volatile String tokenAdmin;
+
+    public SimuladorCarga(String url, String usuario, String senha, String senhaLeitores, int leitores, int livros, Map<String, Integer> pesos) {
+        this.url = url;
+        this.credenciais = basic(usuario, senha);
+        this.senhaLeitores = senhaLeitores;
+        this.leitores = leitores;
+        this.livros = livros;
+        this.operacoes = pesos.entrySet().stream()
+                .filter(p -> p.getValue() > 0)
+                .map(p -> new Operacao(p.getKey(), ENDPOINTS.get(p.getKey()), p.getValue()))
+                .toArray(Operacao[]::new);
+        this.pesoTotal = Arrays.stream(operacoes).mapToInt(Operacao::peso).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        var pesos = new TreeMap<String, Integer>();
+        pesos.put("login", Integer.getInteger("carga.peso.login", 2));
+        pesos.put("catalogo", Integer.getInteger("carga.peso.catalogo", 30));
+        pesos.put("livro", Integer.getInteger("carga.peso.livro", 20));
+        pesos.put("categoria", Integer.getInteger("carga.peso.categoria", 10));
+        pesos.put("titulo", Integer.getInteger("carga.peso.titulo", 8));
+        pesos.put("emprestimo", Integer.getInteger("carga.peso.emprestimo", 12));
+        pesos.put("devolucao", Integer.getInteger("carga.peso.devolucao", 10));
+        pesos.put("reserva", Integer.getInteger("carga.peso.reserva", 8));
+
+        var simulador = new SimuladorCarga(
+                System.getProperty("carga.url", "http://localhost:8080"),
+                System.getProperty("carga.usuario", "user@admin.com.br"),
+                System.getProperty("carga.senha", "usuario"),
+                System.getProperty("carga.senha-leitores", "usuario"),
+                Integer.getInteger("carga.leitores", 500),
+                Integer.getInteger("carga.livros", 2000),
+                pesos);
+        var resumos = simulador.executar(
+                Integer.getInteger("carga.clientes", 50),
+                Duration.ofSeconds(Integer.getInteger("carga.aquecimento", 10)),
+                Duration.ofSeconds(Integer.getInteger("carga.duracao", 60)));
+
+        imprimir(resumos);
+        var arquivo = Path.of(System.getProperty("carga.resultado", "target/carga-resultado.json"));
+        Files.createDirectories(arquivo.toAbsolutePath().getParent());
+        simulador.objectMapper.writerWithDefaultPrettyPrinter().writeValue(arquivo.toFile(), resumos);
+        System.out.println("Resultado salvo em " + arquivo.toAbsolutePath());
+    }
+
+    public List<Medicoes.Resumo> executar(int clientes, Duration aquecimento, Duration duracao) throws Exception {
+        tokenAdmin = login(credenciais);
+        var inicioMedicao = System.nanoTime() + aquecimento.toNanos();
+        var fim = inicioMedicao + duracao.toNanos();
+        var tarefas = new ArrayList<Callable<Map<String, Medicoes>>>();
+        for (int i = 0; i < clientes; i++) {
+            var numero = 1 + i % leitores;
+            tarefas.add(() -> simularCliente(new Leitor(1000 + numero, basic("leitor" + numero + "@perf.local", senhaLeitores)), inicioMedicao, fim));
+        }
+        var total = new TreeMap<String, Medicoes>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var resultado : executor.invokeAll(tarefas)) {
+                resultado.get().forEach((endpoint, medicoes) -> total.computeIfAbsent(endpoint, e -> new Medicoes()).juntar(medicoes));
+            }
+        }
+        var segundos = duracao.toNanos() / 1e9;
+        var geral = new Medicoes();
+        var resumos = new ArrayList<Medicoes.Resumo>();
+        total.forEach((endpoint, medicoes) -> {
+            resumos.add(medicoes.resumir(endpoint, segundos));
+            geral.juntar(medicoes);
+        });
+        resumos.add(geral.resumir("TOTAL", segundos));
+        return resumos;
+    }
+
+    private Map<String, Medicoes> simularCliente(Leitor leitor, long inicioMedicao, long fim) throws IOException, InterruptedException {
+        var token = login(leitor.credenciais());
+        var medicoes = new TreeMap<String, Medicoes>();
+        Deque<Long> emprestimosAbertos = new ArrayDeque<>();
+        var random = ThreadLocalRandom.current();
+        while (System.nanoTime() < fim) {
+            var operacao = sortear(random.nextInt(pesoTotal));
+            var inicio = System.nanoTime();
+            int status;
+            try {
+                status = executar(operacao.nome(), leitor, token, emprestimosAbertos, random);
+            } catch (IOException e) {
+                status = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            var termino = System.nanoTime();
+            if (inicio >= inicioMedicao && status >= 0) {
+                medicoes.computeIfAbsent(operacao.endpoint(), e -> new Medicoes())
+                        .registrar(termino - inicio, status >= 200 && status < 400);
+            }
+        }
+        return medicoes;
+    }
+
+    private Operacao sortear(int valor) {
+        for (var operacao : operacoes) {
+            valor -= operacao.peso();
+            if (valor < 0) {
+                return operacao;
+            }
+        }
+        return operacoes[operacoes.length - 1];
+    }
+
+    private int executar(String operacao, Leitor leitor, String token, Deque<Long> emprestimosAbertos, ThreadLocalRandom random) throws IOException, InterruptedException {
+        return switch (operacao) {
+            case "login" -> enviar(HttpRequest.newBuilder(URI.create(url + "/login")).header("Authorization", leitor.credenciais()).POST(HttpRequest.BodyPublishers.noBody())).statusCode();
+            case "catalogo" -> get(token, "/livros?page=" + random.nextInt(20) + "&size=20");
+            case "livro" -> get(token, "/livros/livro/" + livroPopular(random));
+            case "categoria" -> get(token, "/livros/categorias?categoria=" + CATEGORIAS[random.nextInt(CATEGORIAS.length)] + "&page=" + random.nextInt(5));
+            case "titulo" -> get(token, "/livros/livro?titulo=" + (1 + random.nextInt(livros)));
+            // empréstimo e devolução são registrados no balcão, por isso usam o token do administrador
+            case "emprestimo" -> {
+                var resposta = post(tokenAdmin, "/emprestimos", "{\"idUsuario\":" + leitor.id() + ",\"idLivro\":" + livroPopular(random) + "}");
+                if (resposta.statusCode() == 201) {
+                    emprestimosAbertos.add(objectMapper.readTree(resposta.body()).get("id").asLong());
+                }
+                yield resposta.statusCode();
+            }
+            case "devolucao" -> {
+                var id = emprestimosAbertos.poll();
+                yield id == null ? -1 : enviar(autenticado(tokenAdmin, "/emprestimos/emprestimo/" + id + "/devolucao").method("PATCH", HttpRequest.BodyPublishers.noBody())).statusCode();
+            }
+            case "reserva" -> post(token, "/reservas/adicionar", "{\"usuarioId\":" + leitor.id() + ",\"livroId\":" + livroPopular(random) + "}").statusCode();
+            default -> throw new IllegalArgumentException("Operação desconhecida: " + operacao);
+        };
+    }
+
+    private int get(String token, String caminho) throws IOException, InterruptedException {
+        return enviar(autenticado(token, caminho).GET()).statusCode();
+    }
+
+    private HttpResponse<String> post(String token, String caminho, String json) throws IOException, InterruptedException {
+        return enviar(autenticado(token, caminho).header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    private HttpRequest.Builder autenticado(String token, String caminho) {
+        return HttpRequest.newBuilder(URI.create(url + caminho)).header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<String> enviar(HttpRequest.Builder requisicao) throws IOException, InterruptedException {
+        return httpClient.send(requisicao.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String login(String credenciais) throws IOException, InterruptedException {
+        var resposta = enviar(HttpRequest.newBuilder(URI.create(url + "/login")).header("Authorization", credenciais).POST(HttpRequest.BodyPublishers.noBody()));
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("Falha no login (" + resposta.statusCode() + "), verifique carga.usuario, carga.senha e carga.senha-leitores");
+        }
+        return resposta.body();
+    }
+
+    private long livroPopular(ThreadLocalRandom random) {
+        var u = random.nextDouble();
+        return 1001 + (long) (livros * u * u * u);
+    }
+
+    private static String basic(String usuario, String senha) {
+        return "Basic " + Base64.getEncoder().encodeToString((usuario + ":" + senha).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void imprimir(List<Medicoes.Resumo> resumos) {
+        System.out.printf("%-48s %10s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requisicoes", "sucessos", "falhas", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (var r : resumos) {
+            System.out.printf("%-48s %10d %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    r.endpoint(), r.requisicoes(), r.sucessos(), r.falhas(), r.porSegundo(), r.p50Ms(), r.p90Ms(), r.p99Ms(), r.p999Ms(), r.maximoMs());
+        }
+    }
+
+    private record Operacao(String nome, String endpoint, int peso) {
+    }
+
+    private record Leitor(long id, String credenciais) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.antoniovictor.biblioteca.integracao;
+
+import com.antoniovictor.biblioteca.dto.LivroFacetas;
+import com.antoniovictor.biblioteca.dto.LivroFiltro;
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.services.LivroService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("perf")
+class BuscaFacetasIntegracaoTest {
+
+    @Autowired
+    private LivroService livroService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void devolver() {
+        jdbcTemplate.update("update exemplares set emprestado = false where livro_id in (1002, 1302)");
+    }
+
+    @Test
+    @DisplayName("Deve contar categorias, disponibilidade e autores do catálogo de carga em uma única consulta agrupada")
+    void facetasSemFiltro() {
+        //ARRANGE
+        jdbcTemplate.update("update exemplares set emprestado = true where livro_id = 1002");
+        //ACT
+        var busca = livroService.buscarLivrosComFacetas(new LivroFiltro(null, null, null, null, null),
+                PageRequest.of(0, 20, Sort.by("id")), 3);
+        //ASSERT
+        assertEquals(2000L, busca.livros().getTotalElements());
+        assertEquals(100, busca.livros().getTotalPages());
+        assertEquals(1001L, busca.livros().getContent().getFirst().id());
+        for (var categoria : Categoria.values()) {
+            assertEquals(400L, busca.facetas().categorias().get(categoria));
+        }
+        assertEquals(1999L, busca.facetas().disponiveis());
+        assertEquals(1L, busca.facetas().indisponiveis());
+        assertEquals(List.of(new LivroFacetas.Autor("Autor 1", 7), new LivroFacetas.Autor("Autor 10", 7), new LivroFacetas.Autor("Autor 100", 7)),
+                busca.facetas().autores());
+    }
+
+    @Test
+    @DisplayName("Deve aplicar o filtro na página e nas facetas")
+    void facetasComFiltro() {
+        //ARRANGE
+        jdbcTemplate.update("update exemplares set emprestado = true where livro_id in (1002, 1302)");
+        //ACT
+        var busca = livroService.buscarLivrosComFacetas(new LivroFiltro(null, "Autor 2", "drama", null, null),
+                PageRequest.of(1, 5, Sort.by("id")), 5);
+        //ASSERT
+        assertEquals(141L, busca.livros().getTotalElements());
+        assertEquals(List.of(1212L, 1217L, 1222L, 1227L, 1232L), busca.livros().getContent().stream().map(l -> l.id()).toList());
+        assertEquals(141L, busca.facetas().categorias().get(Categoria.DRAMA));
+        assertEquals(0L, busca.facetas().categorias().get(Categoria.FICCAO));
+        assertEquals(139L, busca.facetas().disponiveis());
+        assertEquals(2L, busca.facetas().indisponiveis());
+    }
+}
@@ -0,0 +1,95 @@
+package com.antoniovictor.biblioteca.integracao;
+
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
+import com.antoniovictor.biblioteca.services.EmprestimoService;
+import com.antoniovictor.biblioteca.services.ReservaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("perf")
+@Import(StreamingMySql.class)
+class ExportacaoIntegracaoTest {
+
+    private static final LocalDate DE = LocalDate.of(2001, 1, 1);
+    private static final LocalDate ATE = LocalDate.of(2001, 12, 31);
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+    @Autowired
+    private ReservaService reservaService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void inserir() {
+        jdbcTemplate.update("""
+                insert into emprestimos_arquivo (id, inicio, fim, multa, livro_id, status, usuario_id, arquivado_em)
+                values (900001, '2001-02-01', '2001-02-15', 0, 1001, 'FINALIZADO', 1001, now())
+                """);
+        jdbcTemplate.update("""
+                insert into emprestimos (id, inicio, fim, multa, livro_id, status, usuario_id)
+                values (900002, '2001-03-01', '2001-03-15', 0, 1002, 'FINALIZADO', 1002)
+                """);
+        jdbcTemplate.update("""
+                insert into reservas_arquivo (id, data, usuario_id, livro_id, status, arquivado_em)
+                values (900001, '2001-02-01 10:00:00', 1001, 1001, 'EXPIRADA', now())
+                """);
+        jdbcTemplate.update("""
+                insert into reservas (id, data, usuario_id, livro_id, status)
+                values (900002, '2001-03-01 10:00:00', 1002, 1002, 'FINALIZADA')
+                """);
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("delete from emprestimos_arquivo where id = 900001");
+        jdbcTemplate.update("delete from emprestimos where id = 900002");
+        jdbcTemplate.update("delete from reservas_arquivo where id = 900001");
+        jdbcTemplate.update("delete from reservas where id = 900002");
+    }
+
+    @Test
+    @DisplayName("Deve exportar os empréstimos do arquivo e da tabela principal sem abrir dois streams na mesma conexão")
+    void exportarEmprestimos() throws Exception {
+        //ARRANGE
+        var saida = new ByteArrayOutputStream();
+        //ACT
+        var total = emprestimoService.exportarEmprestimos(DE, ATE, FormatoArquivo.CSV, saida);
+        //ASSERT
+        var linhas = saida.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2L, total);
+        assertEquals(3, linhas.size());
+        assertTrue(linhas.get(1).startsWith("900001,"));
+        assertTrue(linhas.get(2).startsWith("900002,"));
+    }
+
+    @Test
+    @DisplayName("Deve exportar as reservas do arquivo e da tabela principal sem abrir dois streams na mesma conexão")
+    void exportarReservas() throws Exception {
+        //ARRANGE
+        var saida = new ByteArrayOutputStream();
+        //ACT
+        var total = reservaService.exportarReservas(DE, ATE, FormatoArquivo.CSV, saida);
+        //ASSERT
+        var linhas = saida.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2L, total);
+        assertEquals(3, linhas.size());
+        assertTrue(linhas.get(1).startsWith("900001,"));
+        assertTrue(linhas.get(2).startsWith("900002,"));
+    }
+}
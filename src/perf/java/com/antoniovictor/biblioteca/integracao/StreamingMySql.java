@@ -0,0 +1,98 @@
+package com.antoniovictor.biblioteca.integracao;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Emula no H2 a regra do driver do MySQL para {@code fetchSize = Integer.MIN_VALUE}: enquanto um result set em
+ * streaming estiver aberto, nenhuma outra instrução pode ser executada na mesma conexão.
+ */
+class StreamingMySql implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return conexao(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return conexao(super.getConnection(username, password));
+                }
+            };
+        }
+        return bean;
+    }
+
+    private static Connection conexao(Connection conexao) {
+        var streamingAberto = new AtomicReference<ResultSet>();
+        return proxy(Connection.class, (metodo, args) -> {
+            var resultado = invocar(conexao, metodo, args);
+            if (resultado instanceof PreparedStatement instrucao) {
+                return instrucao(instrucao, streamingAberto);
+            }
+            return resultado;
+        });
+    }
+
+    private static PreparedStatement instrucao(PreparedStatement instrucao, AtomicReference<ResultSet> streamingAberto) {
+        var streaming = new boolean[1];
+        return proxy(PreparedStatement.class, (metodo, args) -> {
+            if (metodo.getName().equals("setFetchSize") && (int) args[0] == Integer.MIN_VALUE) {
+                streaming[0] = true;
+                return null;
+            }
+            if (metodo.getName().startsWith("execute") && streamingAberto.get() != null) {
+                throw new SQLException("Streaming result set " + streamingAberto.get() + " is still active. "
+                        + "No statements may be issued when any streaming result sets are open and in use on a given connection.");
+            }
+            var resultado = invocar(instrucao, metodo, args);
+            if (resultado instanceof ResultSet resultSet && streaming[0]) {
+                var emStreaming = proxy(ResultSet.class, (m, a) -> {
+                    if (m.getName().equals("close")) {
+                        streamingAberto.set(null);
+                    }
+                    return invocar(resultSet, m, a);
+                });
+                streamingAberto.set(emStreaming);
+                return emStreaming;
+            }
+            if (metodo.getName().equals("close") && streamingAberto.get() != null && streaming[0]) {
+                streamingAberto.set(null);
+            }
+            return resultado;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, Chamada chamada) {
+        return (T) Proxy.newProxyInstance(StreamingMySql.class.getClassLoader(), new Class<?>[]{tipo},
+                (p, metodo, args) -> chamada.invocar(metodo, args));
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Chamada {
+        Object invocar(Method metodo, Object[] args) throws Throwable;
+    }
+}
@@ -4,6 +4,7 @@ import com.antoniovictor.biblioteca.dto.EmprestimoEntrada;
 import com.antoniovictor.biblioteca.dto.EmprestimoSaida;
 import com.antoniovictor.biblioteca.entities.*;
 import com.antoniovictor.biblioteca.error.RenovacaoEmprestimoException;
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
 import com.antoniovictor.biblioteca.repository.EmprestimoRepository;
 import com.antoniovictor.biblioteca.repository.LivroRepository;
 import com.antoniovictor.biblioteca.repository.UsuarioRepository;
@@ -25,7 +26,10 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.time.LocalDate;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -146,4 +150,19 @@ class EmprestimoControllerTest {
         mockMvc.perform(delete("/emprestimos/emprestimo/1"))
                 .andExpect(status().isNoContent());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Verifica se a exportação é transmitida em CSV com o período informado")
+    void exportarEmprestimos() throws Exception {
+        //ACT
+        var resultado = mockMvc.perform(get("/emprestimos/export?de=2025-01-01&ate=2025-01-31&formato=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //ASSERT
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"emprestimos.csv\""));
+        verify(emprestimoService).exportarEmprestimos(eq(LocalDate.of(2025, 1, 1)), eq(LocalDate.of(2025, 1, 31)), eq(FormatoArquivo.CSV), any());
+    }
+}
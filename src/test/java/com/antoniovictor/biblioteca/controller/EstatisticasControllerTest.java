@@ -0,0 +1,50 @@
+package com.antoniovictor.biblioteca.controller;
+
+import com.antoniovictor.biblioteca.dto.EstatisticasSaida;
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.antoniovictor.biblioteca.entities.StatusReserva;
+import com.antoniovictor.biblioteca.services.EstatisticasService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@WebMvcTest(EstatisticasController.class)
+class EstatisticasControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private EstatisticasService estatisticasService;
+
+    @Test
+    @DisplayName("Verifica se o método consultar retorna status 200 e as estatísticas da biblioteca")
+    @WithMockUser(roles = {"ADMIN"})
+    void consultar() throws Exception {
+        //ARRANGE
+        when(estatisticasService.consultar()).thenReturn(new EstatisticasSaida(Map.of(StatusEmprestimo.ATIVO, 4L), 1L,
+                Map.of(StatusReserva.PENDENTE, 2L), Map.of(Categoria.FICCAO, 12L), LocalDateTime.now()));
+        //ACT + ASSERT
+        mockMvc.perform(get("/estatisticas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.emprestimosPorStatus.ATIVO").value(4))
+                .andExpect(jsonPath("$.emprestimosAtrasados").value(1))
+                .andExpect(jsonPath("$.reservasPorStatus.PENDENTE").value(2))
+                .andExpect(jsonPath("$.estoquePorCategoria.FICCAO").value(12));
+    }
+}
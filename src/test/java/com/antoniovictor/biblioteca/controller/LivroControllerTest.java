@@ -1,11 +1,19 @@
 package com.antoniovictor.biblioteca.controller;
 
 import com.antoniovictor.biblioteca.dto.LivroAtualizacao;
+import com.antoniovictor.biblioteca.dto.BuscaLivrosSaida;
 import com.antoniovictor.biblioteca.dto.LivroEntrada;
+import com.antoniovictor.biblioteca.dto.LivroFacetas;
+import com.antoniovictor.biblioteca.dto.LivroFiltro;
+import com.antoniovictor.biblioteca.dto.LivroPopular;
+import com.antoniovictor.biblioteca.dto.LivroRecomendado;
 import com.antoniovictor.biblioteca.dto.LivroSaida;
 import com.antoniovictor.biblioteca.entities.Categoria;
 import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.infra.CatalogoVersoes;
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
 import com.antoniovictor.biblioteca.repository.LivroRepository;
+import com.antoniovictor.biblioteca.services.ImportacaoLivroService;
 import com.antoniovictor.biblioteca.services.LivroService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,10 +30,15 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -39,6 +52,8 @@ class LivroControllerTest {
     private MockMvc mockMvc;
     @MockitoBean
     private LivroService livroService;
+    @MockitoBean
+    private ImportacaoLivroService importacaoLivroService;
     private Livro livro;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -68,6 +83,25 @@ class LivroControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(livroSaida)));
     }
 
+    @Test
+    @DisplayName("Deve iniciar a importação em lote de um arquivo CSV e responder em NDJSON")
+    @WithMockUser(roles = {"ADMIN"})
+    void importar() throws Exception {
+        //ARRANGE
+        when(importacaoLivroService.tamanhoLote(500)).thenReturn(500);
+        //ACT
+        var resultado = mockMvc.perform(post("/livros/importar?lote=500").with(csrf())
+                        .contentType("text/csv")
+                        .content("titulo,autor,categoria,quantidade\nDuna,Frank Herbert,ficcao,2\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //ASSERT
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"));
+        verify(importacaoLivroService).importar(any(), eq(FormatoArquivo.CSV), eq(500), any());
+    }
+
     @Test
     @DisplayName("Deve retornar status 200 ao listar livros")
     @WithMockUser(roles = {"ADMIN"})
@@ -90,6 +124,75 @@ class LivroControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("Deve retornar os livros mais populares com os parâmetros padrão")
+    @WithMockUser
+    void listarPopulares() throws Exception {
+        //ARRANGE
+        var popular = new LivroPopular(1L, "Drácula", "Bram Stoker", Categoria.TERROR, 5);
+        when(livroService.listarPopulares(null, 7, "emprestimos", 10)).thenReturn(List.of(popular));
+        //ACT + ASSERT
+        mockMvc.perform(get("/livros/populares"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].quantidade").value(5));
+    }
+
+    @Test
+    @DisplayName("Deve retornar as recomendações do livro")
+    @WithMockUser
+    void listarRecomendacoes() throws Exception {
+        //ARRANGE
+        var recomendado = new LivroRecomendado(2L, "Drácula", "Bram Stoker", Categoria.TERROR, 3);
+        when(livroService.listarRecomendacoes(1L, 5)).thenReturn(List.of(recomendado));
+        //ACT + ASSERT
+        mockMvc.perform(get("/livros/livro/1/recomendacoes").param("limite", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(jsonPath("$[0].emprestimosEmComum").value(3));
+    }
+
+    @Test
+    @DisplayName("Deve retornar status 304 sem consultar o livro quando o ETag enviado corresponde à versão em cache")
+    @WithMockUser(roles = {"ADMIN"})
+    void buscarLivroPorIdNaoModificado() throws Exception {
+        //ARRANGE
+        var versao = new CatalogoVersoes.VersaoLivro(1L, 3L, 5, LocalDateTime.now());
+        when(livroService.buscarVersao(1L)).thenReturn(Optional.of(versao));
+        //ACT + ASSERT
+        mockMvc.perform(get("/livros/livro/1").header("If-None-Match", "\"1-3-5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-3-5\""));
+        verify(livroService, never()).buscarLivroPorId(1L);
+    }
+
+    @Test
+    @DisplayName("Deve retornar o livro com ETag quando a versão enviada está desatualizada")
+    @WithMockUser(roles = {"ADMIN"})
+    void buscarLivroPorIdModificado() throws Exception {
+        //ARRANGE
+        var versao = new CatalogoVersoes.VersaoLivro(1L, 4L, 5, LocalDateTime.now());
+        when(livroService.buscarVersao(1L)).thenReturn(Optional.of(versao));
+        when(livroService.buscarLivroPorId(1L)).thenReturn(new LivroSaida(livro));
+        //ACT + ASSERT
+        mockMvc.perform(get("/livros/livro/1").header("If-None-Match", "\"1-3-5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-4-5\""))
+                .andExpect(header().exists("Last-Modified"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar status 304 na listagem por categoria quando o catálogo não mudou")
+    @WithMockUser(roles = {"ADMIN"})
+    void buscarLivrosPorCategoriaNaoModificado() throws Exception {
+        //ARRANGE
+        when(livroService.etagCatalogo()).thenReturn("W/\"abc-7\"");
+        //ACT + ASSERT
+        mockMvc.perform(get("/livros/categorias?categoria=drama").header("If-None-Match", "W/\"abc-7\""))
+                .andExpect(status().isNotModified());
+        verify(livroService, never()).listarLivrosPorCategoria(eq("drama"), any(Pageable.class));
+    }
+
     @Test
     @DisplayName("Deve retornar status 200 ao buscar livros por categoria")
     @WithMockUser(roles = {"ADMIN"})
@@ -108,6 +211,36 @@ class LivroControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("Deve retornar status 200 ao buscar livros por filtros combinados")
+    @WithMockUser(roles = {"ADMIN"})
+    void buscarLivros() throws Exception {
+        //ARRANGE
+        var filtro = new LivroFiltro("Eu", "Augusto", "drama", true, 2);
+        when(livroService.buscarLivros(eq(filtro), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(new LivroSaida(livro))));
+        //ACT + ASSERT
+        mockMvc.perform(get("/livros/busca?titulo=Eu&autor=Augusto&categoria=drama&disponivel=true&estoqueMinimo=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].titulo").value(livro.getTitulo()));
+    }
+
+    @Test
+    @DisplayName("Deve retornar status 200 com livros e facetas na mesma resposta")
+    @WithMockUser(roles = {"ADMIN"})
+    void buscarLivrosComFacetas() throws Exception {
+        //ARRANGE
+        var filtro = new LivroFiltro(null, null, "drama", null, null);
+        var facetas = new LivroFacetas(Map.of(Categoria.DRAMA, 1L), 1, 0, List.of(new LivroFacetas.Autor("Augusto Cury", 1)));
+        when(livroService.buscarLivrosComFacetas(eq(filtro), any(Pageable.class), eq(5)))
+                .thenReturn(new BuscaLivrosSaida(new PageImpl<>(List.of(new LivroSaida(livro))), facetas));
+        //ACT + ASSERT
+        mockMvc.perform(get("/livros/busca/facetas?categoria=drama&autores=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.livros.content[0].titulo").value(livro.getTitulo()))
+                .andExpect(jsonPath("$.facetas.categorias.DRAMA").value(1))
+                .andExpect(jsonPath("$.facetas.autores[0].autor").value("Augusto Cury"));
+    }
+
     @Test
     @DisplayName("Deve retornar status 200 ao buscar livros por título")
     @WithMockUser(roles = {"ADMIN"})
@@ -6,6 +6,7 @@ import com.antoniovictor.biblioteca.dto.ReservaSaida;
 import com.antoniovictor.biblioteca.entities.*;
 import com.antoniovictor.biblioteca.error.AtualizacaoReservaException;
 import com.antoniovictor.biblioteca.error.CadastroReservaException;
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
 import com.antoniovictor.biblioteca.services.ReservaService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -30,6 +31,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -164,4 +166,28 @@ class ReservaControllerTest {
         mockMvc.perform(delete("/reservas/reserva/1").with(csrf()))
                 .andExpect(status().isNoContent());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve transmitir a exportação de reservas em NDJSON por padrão")
+    @WithMockUser(roles = {"ADMIN"})
+    void exportarReservas() throws Exception {
+        //ACT
+        var resultado = mockMvc.perform(get("/reservas/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //ASSERT
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"));
+        verify(reservaService).exportarReservas(eq(null), eq(null), eq(FormatoArquivo.NDJSON), any());
+    }
+
+    @Test
+    @DisplayName("Deve retornar status 400 ao exportar reservas em formato inválido")
+    @WithMockUser(roles = {"ADMIN"})
+    void exportarReservasFormatoInvalido() throws Exception {
+        //ACT + ASSERT
+        mockMvc.perform(get("/reservas/export?formato=xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,10 +1,15 @@
 package com.antoniovictor.biblioteca.controller;
 
+import com.antoniovictor.biblioteca.dto.EmprestimoSaida;
+import com.antoniovictor.biblioteca.dto.HistoricoSaida;
 import com.antoniovictor.biblioteca.dto.UsuarioAtualizacao;
 import com.antoniovictor.biblioteca.dto.UsuarioEntrada;
 import com.antoniovictor.biblioteca.dto.UsuarioSaida;
 import com.antoniovictor.biblioteca.entities.RoleUsuario;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
 import com.antoniovictor.biblioteca.entities.Usuario;
+import com.antoniovictor.biblioteca.services.EmprestimoService;
+import com.antoniovictor.biblioteca.services.ReservaService;
 import com.antoniovictor.biblioteca.services.UsuarioService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -22,6 +27,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -40,6 +46,10 @@ class UsuarioControllerTest {
     private MockMvc mockMvc;
     @MockitoBean
     private UsuarioService usuarioService;
+    @MockitoBean
+    private EmprestimoService emprestimoService;
+    @MockitoBean
+    private ReservaService reservaService;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private Usuario usuario;
 
@@ -135,4 +145,18 @@ class UsuarioControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Email verificado com sucesso")));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Verifica se o histórico de empréstimos repassa filtro e cursor e retorna status 200 com o próximo cursor")
+    @WithMockUser(roles = {"ADMIN"})
+    void historicoEmprestimos() throws Exception {
+        //ARRANGE
+        var emprestimo = new EmprestimoSaida(7L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15), 0.0, "Livro", StatusEmprestimo.FINALIZADO, "Antonio");
+        when(emprestimoService.historicoUsuario(1L, "finalizado", 10L, 1)).thenReturn(new HistoricoSaida<>(List.of(emprestimo), 7L));
+        //ACT + ASSERT
+        mockMvc.perform(get("/usuarios/usuario/1/emprestimos").param("status", "finalizado").param("antes", "10").param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conteudo[0].id").value(7))
+                .andExpect(jsonPath("$.proximo").value(7));
+    }
+}
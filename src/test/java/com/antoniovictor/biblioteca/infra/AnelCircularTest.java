@@ -0,0 +1,71 @@
+package com.antoniovictor.biblioteca.infra;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnelCircularTest {
+
+    @Test
+    @DisplayName("Deve recusar elementos com o anel cheio e aceitá-los novamente após a drenagem")
+    void capacidade() {
+        //ARRANGE
+        var anel = new AnelCircular<Integer>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(anel.oferecer(i));
+        }
+        //ACT
+        var cheio = anel.oferecer(4);
+        var drenados = new ArrayList<Integer>();
+        anel.drenar(drenados::add, 3);
+        //ASSERT
+        assertFalse(cheio);
+        assertEquals(List.of(0, 1, 2), drenados);
+        assertEquals(1, anel.tamanho());
+        assertTrue(anel.oferecer(4));
+        assertThrows(IllegalArgumentException.class, () -> new AnelCircular<Integer>(6));
+    }
+
+    @Test
+    @DisplayName("Deve entregar ao consumidor todos os elementos de vários produtores concorrentes")
+    void produtoresConcorrentes() throws Exception {
+        //ARRANGE
+        var anel = new AnelCircular<Integer>(1024);
+        var produtores = 4;
+        var porProdutor = 50_000;
+        var recebidos = new HashSet<Integer>();
+        //ACT
+        try (var executor = Executors.newFixedThreadPool(produtores)) {
+            var tarefas = new ArrayList<Future<?>>();
+            for (int p = 0; p < produtores; p++) {
+                var base = p * porProdutor;
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < porProdutor; i++) {
+                        while (!anel.oferecer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }));
+            }
+            while (recebidos.size() < produtores * porProdutor) {
+                anel.drenar(recebidos::add, 256);
+            }
+            for (var tarefa : tarefas) {
+                tarefa.get();
+            }
+        }
+        //ASSERT
+        assertEquals(produtores * porProdutor, recebidos.size());
+        assertEquals(0, anel.tamanho());
+    }
+}
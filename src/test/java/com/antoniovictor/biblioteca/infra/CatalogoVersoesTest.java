@@ -0,0 +1,48 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.Livro;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogoVersoesTest {
+
+    @Test
+    @DisplayName("Não deve substituir uma versão mais nova por uma leitura antiga do livro")
+    void lembrarVersaoAntiga() {
+        //ARRANGE
+        var catalogo = new CatalogoVersoes(10);
+        catalogo.lembrar(livro(1L, 3L));
+        //ACT
+        catalogo.lembrar(livro(1L, 2L));
+        //ASSERT
+        assertEquals(3L, catalogo.buscar(1L).orElseThrow().versao());
+    }
+
+    @Test
+    @DisplayName("Deve manter o cache de versões dentro do limite configurado")
+    void limitarVersoes() {
+        //ARRANGE
+        var catalogo = new CatalogoVersoes(2);
+        //ACT
+        for (long id = 1; id <= 5; id++) {
+            catalogo.lembrar(livro(id, 1L));
+        }
+        //ASSERT
+        assertEquals(2, catalogo.tamanho());
+        assertTrue(catalogo.buscar(5L).isPresent());
+    }
+
+    private Livro livro(long id, long versao) {
+        var livro = new Livro(id, "Livro " + id, "Autor", Categoria.FICCAO, 1, true, new ArrayList<>(), new ArrayList<>());
+        livro.setVersao(versao);
+        livro.setAtualizadoEm(LocalDateTime.now());
+        return livro;
+    }
+}
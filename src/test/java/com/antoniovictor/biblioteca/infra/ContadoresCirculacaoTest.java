@@ -0,0 +1,104 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.Emprestimo;
+import com.antoniovictor.biblioteca.entities.Exemplar;
+import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.entities.Reserva;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.antoniovictor.biblioteca.entities.StatusReserva;
+import com.antoniovictor.biblioteca.entities.Usuario;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class ContadoresCirculacaoTest {
+
+    private final ContadoresCirculacao contadores = new ContadoresCirculacao();
+
+    @Test
+    @DisplayName("Deve reconstruir os contadores e mover para atrasados os vencimentos anteriores a hoje")
+    void reconstruir() {
+        //ARRANGE
+        var hoje = LocalDate.now();
+        //ACT
+        contadores.reconstruir(Map.of(StatusEmprestimo.ATIVO, 5L, StatusEmprestimo.FINALIZADO, 2L), Map.of(StatusReserva.PENDENTE, 3L),
+                Map.of(Categoria.FICCAO, 10L), Map.of(hoje.minusDays(1), 2L, hoje, 3L));
+        var resumo = contadores.resumo();
+        //ASSERT
+        assertEquals(5L, resumo.emprestimosPorStatus().get(StatusEmprestimo.ATIVO));
+        assertEquals(0L, resumo.emprestimosPorStatus().get(StatusEmprestimo.PENDENTE));
+        assertEquals(2L, resumo.emprestimosAtrasados());
+        assertEquals(3L, resumo.reservasPorStatus().get(StatusReserva.PENDENTE));
+        assertEquals(10L, resumo.estoquePorCategoria().get(Categoria.FICCAO));
+        assertNotNull(resumo.reconstruidoEm());
+    }
+
+    @Test
+    @DisplayName("Deve atualizar os contadores de empréstimo e estoque a partir dos eventos das entidades")
+    void eventosEmprestimo() {
+        //ARRANGE
+        var livro = new Livro(1L, "Livro", "Autor", Categoria.FICCAO, 3, true, new ArrayList<>(), new ArrayList<>());
+        var exemplares = List.of(new Exemplar(livro), new Exemplar(livro), new Exemplar(livro));
+        exemplares.forEach(contadores::inserir);
+        var emprestimo = new Emprestimo(new Usuario(), livro);
+        //ACT
+        contadores.inserir(emprestimo);
+        exemplares.getFirst().setEmprestado(true);
+        contadores.atualizar(exemplares.getFirst());
+        emprestimo.setFim(LocalDate.now().minusDays(1));
+        contadores.atualizar(emprestimo);
+        var atrasado = contadores.emprestimosAtrasados();
+        emprestimo.setStatus(StatusEmprestimo.FINALIZADO);
+        contadores.atualizar(emprestimo);
+        //ASSERT
+        assertEquals(1L, atrasado);
+        assertEquals(0L, contadores.emprestimosAtrasados());
+        assertEquals(0L, contadores.emprestimos(StatusEmprestimo.ATIVO));
+        assertEquals(1L, contadores.emprestimos(StatusEmprestimo.FINALIZADO));
+        assertEquals(2L, contadores.resumo().estoquePorCategoria().get(Categoria.FICCAO));
+    }
+
+    @Test
+    @DisplayName("Deve mover a reserva entre status e descontá-la ao ser removida")
+    void eventosReserva() {
+        //ARRANGE
+        var reserva = new Reserva(new Usuario(), new Livro());
+        contadores.inserir(reserva);
+        //ACT
+        reserva.setStatus(StatusReserva.ATIVA);
+        contadores.atualizar(reserva);
+        var ativas = contadores.resumo().reservasPorStatus().get(StatusReserva.ATIVA);
+        contadores.remover(reserva);
+        var resumo = contadores.resumo();
+        //ASSERT
+        assertEquals(1L, ativas);
+        assertEquals(0L, resumo.reservasPorStatus().get(StatusReserva.PENDENTE));
+        assertEquals(0L, resumo.reservasPorStatus().get(StatusReserva.ATIVA));
+    }
+
+    @Test
+    @DisplayName("Deve mover o estoque livre ao trocar a categoria do livro e descontar os exemplares livres removidos")
+    void eventosExemplar() {
+        //ARRANGE
+        var livro = new Livro(1L, "Livro", "Autor", Categoria.FICCAO, 2, true, new ArrayList<>(), new ArrayList<>());
+        var exemplares = List.of(new Exemplar(livro), new Exemplar(livro));
+        exemplares.forEach(contadores::inserir);
+        contadores.carregar(livro);
+        //ACT
+        livro.setCategoria(Categoria.DRAMA);
+        contadores.atualizar(livro);
+        contadores.remover(exemplares.getFirst());
+        var resumo = contadores.resumo();
+        //ASSERT
+        assertEquals(0L, resumo.estoquePorCategoria().get(Categoria.FICCAO));
+        assertEquals(1L, resumo.estoquePorCategoria().get(Categoria.DRAMA));
+    }
+}
@@ -0,0 +1,126 @@
+package com.antoniovictor.biblioteca.infra;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataSourceConfigurationTest {
+
+    @Mock
+    private DataSource primaria;
+    @Mock
+    private DataSource replica;
+    @Mock
+    private Connection conexaoPrimaria;
+    @Mock
+    private Connection conexaoReplica;
+
+    private MonitorReplica monitorReplica;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        monitorReplica = new MonitorReplica(replica, "SHOW REPLICA STATUS", Duration.ofSeconds(5));
+        dataSource = new DataSourceConfiguration().dataSource(primaria, replica, monitorReplica);
+        lenient().when(primaria.getConnection()).thenReturn(conexaoPrimaria);
+        lenient().when(conexaoPrimaria.getAutoCommit()).thenReturn(true);
+        lenient().when(conexaoPrimaria.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_REPEATABLE_READ);
+    }
+
+    @Test
+    @DisplayName("Deve usar a réplica em conexões somente leitura")
+    void leituraNaReplica() throws SQLException {
+        //ARRANGE
+        when(replica.getConnection()).thenReturn(conexaoReplica);
+        //ACT
+        try (var conexao = dataSource.getConnection()) {
+            conexao.setReadOnly(true);
+            conexao.createStatement();
+        }
+        //ASSERT
+        verify(conexaoReplica).createStatement();
+        verify(conexaoPrimaria, never()).createStatement();
+    }
+
+    @Test
+    @DisplayName("Deve usar a primária em conexões de escrita")
+    void escritaNaPrimaria() throws SQLException {
+        //ACT
+        try (var conexao = dataSource.getConnection()) {
+            conexao.createStatement();
+        }
+        //ASSERT
+        verify(conexaoPrimaria).createStatement();
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Deve usar a primária quando a réplica estiver atrasada")
+    void replicaAtrasada() throws SQLException {
+        //ARRANGE
+        var statement = mock(Statement.class);
+        var resultado = mock(ResultSet.class);
+        var colunas = mock(ResultSetMetaData.class);
+        when(replica.getConnection()).thenReturn(conexaoReplica);
+        when(conexaoReplica.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(resultado);
+        when(resultado.next()).thenReturn(true);
+        when(resultado.getMetaData()).thenReturn(colunas);
+        when(colunas.getColumnCount()).thenReturn(1);
+        when(colunas.getColumnLabel(1)).thenReturn("Seconds_Behind_Source");
+        when(resultado.getLong(1)).thenReturn(30L);
+        //ACT
+        monitorReplica.verificar();
+        try (var conexao = dataSource.getConnection()) {
+            conexao.setReadOnly(true);
+            conexao.createStatement();
+        }
+        //ASSERT
+        assertFalse(monitorReplica.replicaDisponivel());
+        verify(conexaoPrimaria).createStatement();
+    }
+
+    @Test
+    @DisplayName("Deve usar a primária quando a réplica estiver fora do ar")
+    void replicaForaDoAr() throws SQLException {
+        //ARRANGE
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        //ACT
+        try (var conexao = dataSource.getConnection()) {
+            conexao.setReadOnly(true);
+            conexao.createStatement();
+        }
+        //ASSERT
+        assertFalse(monitorReplica.replicaDisponivel());
+        verify(conexaoPrimaria).createStatement();
+    }
+
+    @Test
+    @DisplayName("Deve voltar a usar a réplica quando o atraso normalizar")
+    void replicaRecuperada() throws SQLException {
+        //ARRANGE
+        var monitorSemConsulta = new MonitorReplica(replica, "", Duration.ofSeconds(5));
+        when(replica.getConnection()).thenReturn(conexaoReplica);
+        monitorSemConsulta.marcarIndisponivel();
+        //ACT
+        monitorSemConsulta.verificar();
+        //ASSERT
+        assertTrue(monitorSemConsulta.replicaDisponivel());
+    }
+}
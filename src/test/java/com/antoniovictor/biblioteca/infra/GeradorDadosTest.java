@@ -0,0 +1,45 @@
+package com.antoniovictor.biblioteca.infra;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeradorDadosTest {
+
+    @Test
+    @DisplayName("Deve sortear os primeiros elementos com mais frequência na distribuição de Zipf")
+    void zipfConcentraNosPrimeiros() {
+        //ARRANGE
+        var zipf = new GeradorDados.Zipf(1000, 1.1);
+        var random = new SplittableRandom(42);
+        var contagem = new int[1000];
+        //ACT
+        for (int i = 0; i < 100_000; i++) {
+            contagem[(int) zipf.sortear(random)]++;
+        }
+        //ASSERT
+        var primeiros10 = 0;
+        for (int i = 0; i < 10; i++) {
+            primeiros10 += contagem[i];
+        }
+        assertTrue(contagem[0] > contagem[1]);
+        assertTrue(contagem[1] > contagem[100]);
+        assertTrue(primeiros10 > 40_000);
+    }
+
+    @Test
+    @DisplayName("Deve sortear sempre dentro do intervalo de elementos")
+    void zipfDentroDoIntervalo() {
+        //ARRANGE
+        var zipf = new GeradorDados.Zipf(1, 1.1);
+        var random = new SplittableRandom(7);
+        //ACT & ASSERT
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, zipf.sortear(random));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.entities.Emprestimo;
+import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.entities.Reserva;
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.antoniovictor.biblioteca.entities.StatusReserva;
+import com.antoniovictor.biblioteca.entities.Usuario;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class HistoricoCirculacaoTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HistoricoCirculacao historico = new HistoricoCirculacao(jdbcTemplate, meterRegistry, 8, 100, 10, 3);
+    private final OuvinteCirculacao ouvinte = new OuvinteCirculacao(new ContadoresCirculacao(), historico);
+    private final List<HistoricoCirculacao.Evento> gravados = new ArrayList<>();
+
+    @Test
+    @DisplayName("Deve registrar criação, renovação e devolução do empréstimo e as mudanças de status da reserva")
+    void eventos() {
+        //ARRANGE
+        gravar();
+        var usuario = new Usuario();
+        usuario.setId(7L);
+        var livro = new Livro();
+        livro.setId(3L);
+        var emprestimo = new Emprestimo(usuario, livro);
+        emprestimo.setId(10L);
+        var reserva = new Reserva(usuario, livro);
+        reserva.setId(20L);
+        //ACT
+        ouvinte.inserir(emprestimo);
+        emprestimo.setFim(emprestimo.getFim().plusDays(7));
+        ouvinte.atualizar(emprestimo);
+        ouvinte.atualizar(emprestimo);
+        emprestimo.setStatus(StatusEmprestimo.FINALIZADO);
+        ouvinte.atualizar(emprestimo);
+        ouvinte.inserir(reserva);
+        reserva.setStatus(StatusReserva.ATIVA);
+        ouvinte.atualizar(reserva);
+        ouvinte.remover(reserva);
+        historico.stop();
+        //ASSERT
+        assertEquals(List.of(HistoricoCirculacao.Tipo.EMPRESTIMO_CRIADO, HistoricoCirculacao.Tipo.EMPRESTIMO_RENOVADO,
+                HistoricoCirculacao.Tipo.EMPRESTIMO_DEVOLVIDO, HistoricoCirculacao.Tipo.RESERVA_CRIADA,
+                HistoricoCirculacao.Tipo.RESERVA_ATIVADA, HistoricoCirculacao.Tipo.RESERVA_REMOVIDA),
+                gravados.stream().map(HistoricoCirculacao.Evento::tipo).toList());
+        var devolucao = gravados.get(2);
+        assertEquals(10L, devolucao.emprestimoId());
+        assertEquals(7L, devolucao.usuarioId());
+        assertEquals(3L, devolucao.livroId());
+        assertEquals(20L, gravados.get(4).reservaId());
+    }
+
+    @Test
+    @DisplayName("Deve gravar em lote os eventos pendentes no encerramento, mesmo após falha de gravação")
+    void encerramento() {
+        //ARRANGE
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any()))
+                .thenThrow(new DataAccessResourceFailureException("indisponível"))
+                .thenAnswer(i -> {
+                    gravados.addAll(i.<Collection<HistoricoCirculacao.Evento>>getArgument(1));
+                    return new int[0][0];
+                });
+        historico.start();
+        for (int i = 0; i < 3; i++) {
+            historico.publicar(evento(i));
+        }
+        //ACT
+        historico.stop();
+        //ASSERT
+        assertEquals(3, gravados.size());
+        assertEquals(0, historico.pendentes());
+        assertEquals(0.0, meterRegistry.get("biblioteca.historico.descartados").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve gravar um a um o lote que falhou em todas as tentativas e descartar só o evento inválido")
+    void loteInvalido() {
+        //ARRANGE
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any())).thenAnswer(i -> {
+            var lote = i.<Collection<HistoricoCirculacao.Evento>>getArgument(1);
+            if (lote.stream().anyMatch(e -> e.emprestimoId() == 1L)) {
+                throw new DataIntegrityViolationException("inválido");
+            }
+            gravados.addAll(lote);
+            return new int[0][0];
+        });
+        for (int i = 0; i < 3; i++) {
+            historico.publicar(evento(i));
+        }
+        //ACT
+        var tentativas = new ArrayList<Integer>();
+        for (int i = 0; i < 3; i++) {
+            tentativas.add(historico.descarregar());
+        }
+        //ASSERT
+        assertEquals(List.of(0, 0, 2), tentativas);
+        assertEquals(List.of(0L, 2L), gravados.stream().map(HistoricoCirculacao.Evento::emprestimoId).toList());
+        assertEquals(0, historico.pendentes());
+        assertEquals(1.0, meterRegistry.get("biblioteca.historico.rejeitados").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve descartar e contabilizar o evento na hora quando a fila estiver cheia, sem gravar na thread de quem publica")
+    void filaCheia() {
+        //ACT
+        for (int i = 0; i < 10; i++) {
+            historico.publicar(evento(i));
+        }
+        //ASSERT
+        assertEquals(2.0, meterRegistry.get("biblioteca.historico.descartados").counter().count());
+        assertEquals(8, historico.pendentes());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void gravar() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any())).thenAnswer(i -> {
+            gravados.addAll(i.<Collection<HistoricoCirculacao.Evento>>getArgument(1));
+            return new int[0][0];
+        });
+    }
+
+    private HistoricoCirculacao.Evento evento(long id) {
+        return new HistoricoCirculacao.Evento(HistoricoCirculacao.Tipo.EMPRESTIMO_CRIADO, id, null, 1L, 1L, LocalDate.now().atStartOfDay());
+    }
+}
@@ -0,0 +1,63 @@
+package com.antoniovictor.biblioteca.infra;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MapaLongIntTest {
+
+    @Test
+    @DisplayName("Deve somar valores e crescer além da capacidade inicial sem perder chaves")
+    void somar() {
+        //ARRANGE
+        var mapa = new MapaLongInt(8);
+        //ACT
+        for (long chave = 1; chave <= 10_000; chave++) {
+            mapa.somar(chave, 1);
+            mapa.somar(chave << 32, 2);
+        }
+        mapa.somar(5, 3);
+        //ASSERT
+        assertEquals(20_000, mapa.tamanho());
+        assertEquals(4, mapa.get(5, -1));
+        assertEquals(2, mapa.get(7L << 32, -1));
+        assertEquals(-1, mapa.get(10_001, -1));
+        assertThrows(IllegalArgumentException.class, () -> mapa.somar(0, 1));
+    }
+
+    @Test
+    @DisplayName("Deve podar as menores contagens até ficar dentro do máximo")
+    void podar() {
+        //ARRANGE
+        var mapa = new MapaLongInt(8);
+        for (long chave = 1; chave <= 100; chave++) {
+            mapa.somar(chave, chave <= 80 ? 1 : 5);
+        }
+        //ACT
+        var corte = mapa.podar(50);
+        //ASSERT
+        assertEquals(1, corte);
+        assertEquals(20, mapa.tamanho());
+        assertEquals(-1, mapa.get(1, -1));
+        assertEquals(5, mapa.get(100, -1));
+    }
+
+    @Test
+    @DisplayName("Deve respeitar o máximo mesmo quando todas as contagens passam do limite do histograma")
+    void podarContagensAltas() {
+        //ARRANGE
+        var mapa = new MapaLongInt(8);
+        for (long chave = 1; chave <= 1_000; chave++) {
+            mapa.somar(chave, 100 + (int) (chave % 500));
+        }
+        //ACT
+        var corte = mapa.podar(300);
+        //ASSERT
+        assertEquals(449, corte);
+        assertEquals(300, mapa.tamanho());
+        assertEquals(-1, mapa.get(500, -1));
+        assertEquals(599, mapa.get(499, -1));
+    }
+}
@@ -0,0 +1,110 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.repository.EmprestimoRepository;
+import com.antoniovictor.biblioteca.repository.ReservaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RankingLivrosTest {
+
+    private final EmprestimoRepository emprestimoRepository = mock(EmprestimoRepository.class);
+    private final ReservaRepository reservaRepository = mock(ReservaRepository.class);
+    private final RankingLivros ranking = new RankingLivros(emprestimoRepository, reservaRepository, 60_000, 2);
+
+    @Test
+    @DisplayName("Deve ordenar os livros pela quantidade de empréstimos e limitar o resultado")
+    void populares() {
+        //ARRANGE
+        var duna = livro(1L, Categoria.FICCAO);
+        var dracula = livro(2L, Categoria.TERROR);
+        var it = livro(3L, Categoria.TERROR);
+        for (int i = 0; i < 3; i++) {
+            ranking.registrarEmprestimo(dracula);
+        }
+        ranking.registrarEmprestimo(duna);
+        ranking.registrarEmprestimo(duna);
+        ranking.registrarEmprestimo(it);
+        ranking.registrarReserva(it);
+        //ACT
+        var populares = ranking.populares(RankingLivros.Tipo.EMPRESTIMOS, null, 7, 2);
+        var terror = ranking.populares(RankingLivros.Tipo.EMPRESTIMOS, Categoria.TERROR, 7, 10);
+        var reservados = ranking.populares(RankingLivros.Tipo.RESERVAS, null, 7, 10);
+        //ASSERT
+        assertEquals(List.of(2L, 1L), populares.stream().map(p -> p.id()).toList());
+        assertEquals(3L, populares.getFirst().quantidade());
+        assertEquals(List.of(2L, 3L), terror.stream().map(p -> p.id()).toList());
+        assertEquals(List.of(3L), reservados.stream().map(p -> p.id()).toList());
+    }
+
+    @Test
+    @DisplayName("Deve carregar os contadores do banco considerando apenas os dias dentro do período")
+    void carregar() {
+        //ARRANGE
+        var hoje = LocalDate.now();
+        List<Object[]> linhas = List.of(
+                new Object[]{1L, "Duna", "Frank Herbert", Categoria.FICCAO, hoje, 2L},
+                new Object[]{2L, "Drácula", "Bram Stoker", Categoria.TERROR, hoje.minusDays(10), 5L});
+        when(emprestimoRepository.contarPorLivroEDia(any())).thenReturn(linhas);
+        when(reservaRepository.contarPorLivroEDia(any())).thenReturn(List.of());
+        //ACT
+        ranking.carregar();
+        var semana = ranking.populares(RankingLivros.Tipo.EMPRESTIMOS, null, 7, 10);
+        var mes = ranking.populares(RankingLivros.Tipo.EMPRESTIMOS, null, 30, 10);
+        //ASSERT
+        assertEquals(List.of(1L), semana.stream().map(p -> p.id()).toList());
+        assertEquals(List.of(2L, 1L), mes.stream().map(p -> p.id()).toList());
+        assertTrue(ranking.populares(RankingLivros.Tipo.RESERVAS, null, 30, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve refletir a edição e a exclusão do livro nos resultados guardados")
+    void atualizarLivro() {
+        //ARRANGE
+        var duna = livro(1L, Categoria.FICCAO);
+        ranking.registrarEmprestimo(duna);
+        ranking.registrarEmprestimo(livro(2L, Categoria.TERROR));
+        ranking.populares(RankingLivros.Tipo.EMPRESTIMOS, null, 7, 10);
+        var editado = new Livro(1L, "Duna", "Frank Herbert", Categoria.TERROR, 1, true, new ArrayList<>(), new ArrayList<>());
+        //ACT
+        ranking.atualizarLivro(editado);
+        ranking.registrarEmprestimo(duna);
+        var todos = ranking.populares(RankingLivros.Tipo.EMPRESTIMOS, null, 7, 10);
+        var terror = ranking.populares(RankingLivros.Tipo.EMPRESTIMOS, Categoria.TERROR, 7, 10);
+        ranking.removerLivro(livro(2L, Categoria.TERROR));
+        var semExcluido = ranking.populares(RankingLivros.Tipo.EMPRESTIMOS, null, 7, 10);
+        //ASSERT
+        assertEquals("Duna", todos.getFirst().titulo());
+        assertEquals(2L, todos.getFirst().quantidade());
+        assertEquals(List.of(1L, 2L), terror.stream().map(p -> p.id()).toList());
+        assertEquals(List.of(1L), semExcluido.stream().map(p -> p.id()).toList());
+    }
+
+    @Test
+    @DisplayName("Deve guardar no máximo a quantidade configurada de consultas")
+    void limitarResultados() {
+        //ARRANGE
+        ranking.registrarEmprestimo(livro(1L, Categoria.FICCAO));
+        //ACT
+        for (int limite = 1; limite <= 10; limite++) {
+            ranking.populares(RankingLivros.Tipo.EMPRESTIMOS, null, 7, limite);
+        }
+        //ASSERT
+        assertEquals(2, ranking.resultadosGuardados());
+    }
+
+    private Livro livro(long id, Categoria categoria) {
+        return new Livro(id, "Livro " + id, "Autor", categoria, 1, true, new ArrayList<>(), new ArrayList<>());
+    }
+}
@@ -0,0 +1,71 @@
+package com.antoniovictor.biblioteca.infra;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecomendacoesLivrosTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    @DisplayName("Deve recomendar os livros emprestados pelos mesmos leitores, ordenados pela quantidade de leitores em comum")
+    void recomendar() throws Exception {
+        //ARRANGE
+        historicos(new long[][]{
+                {1, 10}, {1, 20}, {1, 30}, {1, 10},
+                {2, 10}, {2, 20},
+                {3, 10}, {3, 20}, {3, 40},
+                {4, 50}});
+        var recomendacoes = new RecomendacoesLivros(jdbcTemplate, 2, 100, 1000, 100, 2);
+        //ACT
+        recomendacoes.atualizar();
+        //ASSERT
+        assertEquals(List.of(new RecomendacoesLivros.Recomendacao(20, 3), new RecomendacoesLivros.Recomendacao(30, 1)),
+                recomendacoes.recomendar(10, 10));
+        assertEquals(List.of(new RecomendacoesLivros.Recomendacao(10, 1)), recomendacoes.recomendar(40, 1));
+        assertTrue(recomendacoes.recomendar(50, 10).isEmpty());
+        assertTrue(recomendacoes.recomendar(99, 10).isEmpty());
+        assertNotNull(recomendacoes.geradaEm());
+    }
+
+    @Test
+    @DisplayName("Deve considerar apenas os empréstimos mais recentes de cada leitor até o limite do histórico")
+    void historicoMaximo() throws Exception {
+        //ARRANGE
+        historicos(new long[][]{{1, 10}, {1, 20}, {1, 30}});
+        var recomendacoes = new RecomendacoesLivros(jdbcTemplate, 5, 2, 1000, 100, 1);
+        //ACT
+        recomendacoes.atualizar();
+        //ASSERT
+        assertEquals(List.of(new RecomendacoesLivros.Recomendacao(20, 1)), recomendacoes.recomendar(10, 10));
+        assertTrue(recomendacoes.recomendar(30, 10).isEmpty());
+    }
+
+    private void historicos(long[][] linhas) throws Exception {
+        var rs = mock(ResultSet.class);
+        var atual = new int[1];
+        when(rs.getLong(1)).thenAnswer(i -> linhas[atual[0]][0]);
+        when(rs.getLong(2)).thenAnswer(i -> linhas[atual[0]][1]);
+        doAnswer(invocacao -> {
+            RowCallbackHandler handler = invocacao.getArgument(1);
+            for (atual[0] = 0; atual[0] < linhas.length; atual[0]++) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+}
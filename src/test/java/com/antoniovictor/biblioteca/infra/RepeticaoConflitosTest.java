@@ -0,0 +1,96 @@
+package com.antoniovictor.biblioteca.infra;
+
+import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.services.LivroService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RepeticaoConflitosTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RepeticaoConflitos repeticao = new RepeticaoConflitos(meterRegistry, 3, 0, 0);
+    private final ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+
+    @BeforeEach
+    void setUp() {
+        var assinatura = mock(Signature.class);
+        doReturn(LivroService.class).when(assinatura).getDeclaringType();
+        when(assinatura.getName()).thenReturn("atualizarLivro");
+        when(joinPoint.getSignature()).thenReturn(assinatura);
+    }
+
+    @Test
+    @DisplayName("Deve repetir o método após um conflito de versão e contabilizar a repetição")
+    void repetirConflitoOtimista() throws Throwable {
+        //ARRANGE
+        when(joinPoint.proceed()).thenThrow(new ObjectOptimisticLockingFailureException(Livro.class, 1L)).thenReturn("ok");
+        //ACT
+        var resultado = repeticao.repetir(joinPoint);
+        //ASSERT
+        assertEquals("ok", resultado);
+        verify(joinPoint, times(2)).proceed();
+        assertEquals(1.0, meterRegistry.counter("biblioteca.conflitos", "metodo", "LivroService.atualizarLivro",
+                "tipo", "otimista", "resultado", "repetido").count());
+    }
+
+    @Test
+    @DisplayName("Deve repetir deadlocks identificados pelo SQLState da causa")
+    void repetirDeadlock() throws Throwable {
+        //ARRANGE
+        var deadlock = new CannotAcquireLockException("deadlock", new SQLException("Deadlock found", "40001", 1213));
+        when(joinPoint.proceed()).thenThrow(deadlock).thenReturn("ok");
+        //ACT
+        var resultado = repeticao.repetir(joinPoint);
+        //ASSERT
+        assertEquals("ok", resultado);
+        assertEquals(1.0, meterRegistry.counter("biblioteca.conflitos", "metodo", "LivroService.atualizarLivro",
+                "tipo", "deadlock", "resultado", "repetido").count());
+    }
+
+    @Test
+    @DisplayName("Deve propagar o conflito quando as tentativas se esgotam")
+    void esgotarTentativas() throws Throwable {
+        //ARRANGE
+        when(joinPoint.proceed()).thenThrow(new ObjectOptimisticLockingFailureException(Livro.class, 1L));
+        //ACT + ASSERT
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> repeticao.repetir(joinPoint));
+        verify(joinPoint, times(3)).proceed();
+        assertEquals(1.0, meterRegistry.counter("biblioteca.conflitos", "metodo", "LivroService.atualizarLivro",
+                "tipo", "otimista", "resultado", "esgotado").count());
+    }
+
+    @Test
+    @DisplayName("Não deve repetir erros que não são conflitos de concorrência")
+    void naoRepetirOutrosErros() throws Throwable {
+        //ARRANGE
+        when(joinPoint.proceed()).thenThrow(new IllegalArgumentException("inválido"));
+        //ACT + ASSERT
+        assertThrows(IllegalArgumentException.class, () -> repeticao.repetir(joinPoint));
+        verify(joinPoint).proceed();
+        assertTrue(meterRegistry.find("biblioteca.conflitos").counters().isEmpty());
+    }
+
+    @Test
+    @DisplayName("A espera deve crescer exponencialmente com jitter, limitada ao máximo configurado")
+    void espera() {
+        //ARRANGE
+        var comEspera = new RepeticaoConflitos(meterRegistry, 5, 10, 50);
+        //ACT + ASSERT
+        for (int i = 0; i < 100; i++) {
+            assertTrue(comEspera.espera(1) <= 10);
+            assertTrue(comEspera.espera(2) <= 20);
+            assertTrue(comEspera.espera(4) <= 50);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.antoniovictor.biblioteca.infra;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RespostasIdempotentesTest {
+
+    private final AtomicLong relogio = new AtomicLong(1_000);
+    private final RespostasIdempotentes respostas = new RespostasIdempotentes(100, 2, relogio::get);
+
+    @Test
+    @DisplayName("Deve descartar as respostas expiradas e as mais antigas acima do limite")
+    void descartar() {
+        //ARRANGE
+        reservarConcluida("a");
+        reservarConcluida("b");
+        relogio.addAndGet(50);
+        reservarConcluida("c");
+        //ACT
+        var tamanhoNoLimite = respostas.tamanho();
+        relogio.addAndGet(60);
+        respostas.limpar();
+        //ASSERT
+        assertEquals(2, tamanhoNoLimite);
+        assertEquals(1, respostas.tamanho());
+        assertNotNull(respostas.reservar("c", 1));
+        assertNull(respostas.reservar("a", 1));
+    }
+
+    @Test
+    @DisplayName("Não deve descartar reservas em andamento ao atingir o limite")
+    void manterEmAndamento() {
+        //ARRANGE
+        respostas.reservar("a", 1);
+        respostas.reservar("b", 1);
+        //ACT
+        respostas.reservar("c", 1);
+        reservarConcluida("d");
+        //ASSERT
+        assertNotNull(respostas.reservar("a", 1));
+        assertNotNull(respostas.reservar("b", 1));
+        assertNotNull(respostas.reservar("c", 1));
+        relogio.addAndGet(150);
+        respostas.limpar();
+        assertEquals(0, respostas.tamanho());
+    }
+
+    private void reservarConcluida(String chave) {
+        respostas.reservar(chave, 1);
+        respostas.concluir(chave, new RespostasIdempotentes.Resposta(201, null, null, new byte[0]));
+    }
+}
@@ -0,0 +1,135 @@
+package com.antoniovictor.biblioteca.security;
+
+import com.antoniovictor.biblioteca.infra.RespostasIdempotentes;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotenciaFilterTest {
+
+    private final RespostasIdempotentes respostas = new RespostasIdempotentes(60_000, 100);
+    private final IdempotenciaFilter filtro = new IdempotenciaFilter(respostas);
+    private final AtomicInteger execucoes = new AtomicInteger();
+    private final FilterChain cadastro = (request, response) -> {
+        var corpo = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        var resposta = (HttpServletResponse) response;
+        resposta.setStatus(201);
+        resposta.setHeader("Location", "/emprestimo/" + execucoes.incrementAndGet());
+        resposta.setContentType("application/json");
+        resposta.getWriter().write(corpo);
+    };
+
+    @Test
+    @DisplayName("Deve repetir a resposta gravada sem executar a requisição novamente")
+    void repetir() throws Exception {
+        //ARRANGE
+        var primeira = executar("chave-1", "{\"livroId\":1}");
+        //ACT
+        var repetida = executar("chave-1", "{\"livroId\":1}");
+        var outraChave = executar("chave-2", "{\"livroId\":1}");
+        //ASSERT
+        assertEquals(2, execucoes.get());
+        assertEquals(201, repetida.getStatus());
+        assertEquals("/emprestimo/1", repetida.getHeader("Location"));
+        assertEquals(primeira.getContentAsString(), repetida.getContentAsString());
+        assertEquals("true", repetida.getHeader(IdempotenciaFilter.CABECALHO_REPETICAO));
+        assertNull(primeira.getHeader(IdempotenciaFilter.CABECALHO_REPETICAO));
+        assertEquals("/emprestimo/2", outraChave.getHeader("Location"));
+    }
+
+    @Test
+    @DisplayName("Deve recusar a chave reutilizada com outro corpo ou ainda em processamento")
+    void recusar() throws Exception {
+        //ARRANGE
+        executar("chave-1", "{\"livroId\":1}");
+        respostas.reservar("usuario POST /emprestimos chave-2", 0);
+        //ACT
+        var outroCorpo = executar("chave-1", "{\"livroId\":2}");
+        var emProcessamento = executar("chave-2", "");
+        var semChave = executar(" ", "{}");
+        //ASSERT
+        assertEquals(422, outroCorpo.getStatus());
+        assertEquals(409, emProcessamento.getStatus());
+        assertEquals("1", emProcessamento.getHeader("Retry-After"));
+        assertEquals(400, semChave.getStatus());
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    @DisplayName("Deve liberar a chave quando a requisição falhar com erro do servidor")
+    void liberarErro() throws Exception {
+        //ARRANGE
+        var request = requisicao("chave-1", "{}");
+        filtro.doFilter(request, new MockHttpServletResponse(), (req, res) -> ((HttpServletResponse) res).setStatus(500));
+        //ACT
+        var novaTentativa = executar("chave-1", "{}");
+        //ASSERT
+        assertEquals(201, novaTentativa.getStatus());
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    @DisplayName("Deve entregar o corpo já lido a quem usa leitura assíncrona")
+    void lerAssincrono() throws Exception {
+        //ARRANGE
+        var eventos = new ArrayList<String>();
+        var lido = new ByteArrayOutputStream();
+        FilterChain assincrono = (request, response) -> {
+            var entrada = request.getInputStream();
+            entrada.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws java.io.IOException {
+                    eventos.add("dados");
+                    while (entrada.isReady() && !entrada.isFinished()) {
+                        lido.write(entrada.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    eventos.add("fim");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    eventos.add("erro");
+                }
+            });
+            ((HttpServletResponse) response).setStatus(201);
+        };
+        //ACT
+        var response = new MockHttpServletResponse();
+        filtro.doFilter(requisicao("chave-1", "{\"livroId\":1}"), response, assincrono);
+        //ASSERT
+        assertEquals(201, response.getStatus());
+        assertEquals(List.of("dados", "fim"), eventos);
+        assertEquals("{\"livroId\":1}", lido.toString(StandardCharsets.UTF_8));
+    }
+
+    private MockHttpServletResponse executar(String chave, String corpo) throws Exception {
+        var response = new MockHttpServletResponse();
+        filtro.doFilter(requisicao(chave, corpo), response, cadastro);
+        return response;
+    }
+
+    private MockHttpServletRequest requisicao(String chave, String corpo) {
+        var request = new MockHttpServletRequest("POST", "/emprestimos");
+        request.setRemoteAddr("usuario");
+        request.addHeader(IdempotenciaFilter.CABECALHO, chave);
+        request.setContent(corpo.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,68 @@
+package com.antoniovictor.biblioteca.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitadorRequisicoesTest {
+
+    private final AtomicLong relogio = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final LimitadorRequisicoes limitador = new LimitadorRequisicoes(Map.of(
+            LimitadorRequisicoes.Perfil.ADMIN, new LimitadorRequisicoes.Limite(10, 60),
+            LimitadorRequisicoes.Perfil.LEITOR, new LimitadorRequisicoes.Limite(3, 60),
+            LimitadorRequisicoes.Perfil.ANONIMO, new LimitadorRequisicoes.Limite(1, 6)), 100, relogio::get);
+
+    @Test
+    @DisplayName("Deve permitir rajadas até a capacidade e repor uma ficha por intervalo")
+    void consumir() {
+        //ARRANGE
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limitador.consumir("leitor GET /livros", LimitadorRequisicoes.Perfil.LEITOR));
+        }
+        //ACT
+        var espera = limitador.consumir("leitor GET /livros", LimitadorRequisicoes.Perfil.LEITOR);
+        var outraRota = limitador.consumir("leitor GET /reservas", LimitadorRequisicoes.Perfil.LEITOR);
+        relogio.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        var aposReposicao = limitador.consumir("leitor GET /livros", LimitadorRequisicoes.Perfil.LEITOR);
+        //ASSERT
+        assertEquals(TimeUnit.SECONDS.toNanos(1), espera);
+        assertEquals(0, outraRota);
+        assertEquals(0, aposReposicao);
+        assertTrue(limitador.consumir("leitor GET /livros", LimitadorRequisicoes.Perfil.LEITOR) > 0);
+    }
+
+    @Test
+    @DisplayName("Deve descartar apenas os baldes que já voltaram à capacidade total")
+    void limpar() {
+        //ARRANGE
+        limitador.consumir("anonimo", LimitadorRequisicoes.Perfil.ANONIMO);
+        limitador.consumir("admin", LimitadorRequisicoes.Perfil.ADMIN);
+        relogio.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        //ACT
+        limitador.limpar();
+        //ASSERT
+        assertEquals(1, limitador.baldes());
+        assertTrue(limitador.consumir("anonimo", LimitadorRequisicoes.Perfil.ANONIMO) > 0);
+    }
+
+    @Test
+    @DisplayName("Deve descartar um balde em O(1) para abrir espaço quando o limite de baldes for atingido")
+    void maximoBaldes() {
+        //ARRANGE
+        var pequeno = new LimitadorRequisicoes(Map.of(LimitadorRequisicoes.Perfil.ANONIMO, new LimitadorRequisicoes.Limite(1, 6)), 2, relogio::get);
+        pequeno.consumir("ip:1", LimitadorRequisicoes.Perfil.ANONIMO);
+        pequeno.consumir("ip:2", LimitadorRequisicoes.Perfil.ANONIMO);
+        //ACT
+        var novo = pequeno.consumir("ip:3", LimitadorRequisicoes.Perfil.ANONIMO);
+        //ASSERT
+        assertEquals(0, novo);
+        assertEquals(2, pequeno.baldes());
+        assertTrue(pequeno.consumir("ip:3", LimitadorRequisicoes.Perfil.ANONIMO) > 0);
+    }
+}
@@ -0,0 +1,107 @@
+package com.antoniovictor.biblioteca.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LimiteRequisicoesFilterTest {
+
+    private final AtomicLong relogio = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final LimitadorRequisicoes limitador = new LimitadorRequisicoes(Map.of(
+            LimitadorRequisicoes.Perfil.ADMIN, new LimitadorRequisicoes.Limite(10, 60),
+            LimitadorRequisicoes.Perfil.LEITOR, new LimitadorRequisicoes.Limite(3, 60),
+            LimitadorRequisicoes.Perfil.ANONIMO, new LimitadorRequisicoes.Limite(1, 6)), 100, relogio::get);
+    private final RotasRequisicao rotas = new RotasRequisicao(() -> Stream.of("/livros", "/livros/livro/{id}", "/livros/busca")
+            .map(PathPatternParser.defaultInstance::parse).toList());
+    private final LimiteRequisicoesFilter filtro = new LimiteRequisicoesFilter(limitador, rotas);
+
+    @AfterEach
+    void limparContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Deve responder 429 com Retry-After quando o limite do usuário for excedido na mesma rota")
+    void limiteExcedido() throws Exception {
+        //ARRANGE
+        autenticar("ROLE_LEITOR");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, requisitar("GET", "/livros/livro/" + i).getStatus());
+        }
+        //ACT
+        var resposta = requisitar("GET", "/livros/livro/99");
+        var metricas = requisitar("GET", "/actuator/prometheus");
+        //ASSERT
+        assertEquals(429, resposta.getStatus());
+        assertEquals("1", resposta.getHeader("Retry-After"));
+        assertEquals(200, metricas.getStatus());
+        assertNull(metricas.getHeader("Retry-After"));
+    }
+
+    @Test
+    @DisplayName("Deve usar o padrão da rota como chave, sem criar um balde por caminho")
+    void chavePorPadrao() throws Exception {
+        //ARRANGE
+        autenticar("ROLE_LEITOR");
+        //ACT
+        requisitar("GET", "/livros/livro/1");
+        requisitar("GET", "/livros/livro/abc");
+        requisitar("GET", "/livros");
+        requisitar("POST", "/livros");
+        requisitar("GET", "/nao-existe/1");
+        requisitar("GET", "/nao-existe/2");
+        requisitar("GET", "/qualquer/outra/coisa");
+        //ASSERT
+        assertEquals(4, limitador.baldes());
+        assertEquals("GET /livros/livro/{id}", rotas.rota(new MockHttpServletRequest("GET", "/livros/livro/42")));
+        assertEquals("GET /livros/busca", rotas.rota(new MockHttpServletRequest("GET", "/livros/busca")));
+        assertEquals("GET " + RotasRequisicao.OUTRAS, rotas.rota(new MockHttpServletRequest("GET", "/livros/livro/42/x")));
+    }
+
+    @Test
+    @DisplayName("Deve limitar requisições anônimas pelo endereço do cliente")
+    void anonimoPorEndereco() throws Exception {
+        //ARRANGE
+        requisitar("GET", "/livros", "10.0.0.1");
+        //ACT
+        var mesmoEndereco = requisitar("GET", "/livros", "10.0.0.1");
+        var outroEndereco = requisitar("GET", "/livros", "10.0.0.2");
+        //ASSERT
+        assertEquals(429, mesmoEndereco.getStatus());
+        assertEquals("10", mesmoEndereco.getHeader("Retry-After"));
+        assertEquals(200, outroEndereco.getStatus());
+    }
+
+    private void autenticar(String perfil) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "leitor@email.com", null, List.of(new SimpleGrantedAuthority(perfil))));
+    }
+
+    private MockHttpServletResponse requisitar(String metodo, String caminho) throws Exception {
+        return requisitar(metodo, caminho, "127.0.0.1");
+    }
+
+    private MockHttpServletResponse requisitar(String metodo, String caminho, String endereco) throws Exception {
+        var request = new MockHttpServletRequest(metodo, caminho);
+        request.setRemoteAddr(endereco);
+        var resposta = new MockHttpServletResponse();
+        filtro.doFilter(request, resposta, new MockFilterChain());
+        return resposta;
+    }
+}
@@ -0,0 +1,77 @@
+package com.antoniovictor.biblioteca.services;
+
+import com.antoniovictor.biblioteca.repository.EmprestimoArquivadoRepository;
+import com.antoniovictor.biblioteca.repository.EmprestimoRepository;
+import com.antoniovictor.biblioteca.repository.ReservaArquivadaRepository;
+import com.antoniovictor.biblioteca.repository.ReservaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArquivamentoServiceTest {
+
+    @Mock
+    private EmprestimoRepository emprestimoRepository;
+    @Mock
+    private EmprestimoArquivadoRepository emprestimoArquivadoRepository;
+    @Mock
+    private ReservaRepository reservaRepository;
+    @Mock
+    private ReservaArquivadaRepository reservaArquivadaRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    private ArquivamentoService arquivamentoService;
+
+    @BeforeEach
+    void setUp() {
+        arquivamentoService = new ArquivamentoService(emprestimoRepository, emprestimoArquivadoRepository, reservaRepository,
+                reservaArquivadaRepository, transactionTemplate, 180, 2);
+    }
+
+    @Test
+    @DisplayName("Deve mover os registros encerrados em lotes, copiando para o arquivo antes de excluir da tabela principal")
+    void arquivar() {
+        //ARRANGE
+        var limite = LocalDate.now().minusDays(180);
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        when(emprestimoRepository.buscarEncerrados(limite, 2)).thenReturn(List.of(1L, 2L), List.of(3L));
+        when(reservaRepository.buscarEncerradas(limite.atStartOfDay(), 2)).thenReturn(List.of());
+        //ACT
+        var arquivados = arquivamentoService.arquivar();
+        //ASSERT
+        assertEquals(3, arquivados);
+        InOrder ordem = inOrder(emprestimoArquivadoRepository, emprestimoRepository);
+        ordem.verify(emprestimoArquivadoRepository).arquivar(eq(List.of(1L, 2L)), any());
+        ordem.verify(emprestimoRepository).excluirPorIds(List.of(1L, 2L));
+        ordem.verify(emprestimoArquivadoRepository).arquivar(eq(List.of(3L)), any());
+        ordem.verify(emprestimoRepository).excluirPorIds(List.of(3L));
+        verify(emprestimoRepository, times(2)).buscarEncerrados(any(), anyInt());
+        verifyNoInteractions(reservaArquivadaRepository);
+        verify(reservaRepository, never()).excluirPorIds(any());
+    }
+
+    @Test
+    @DisplayName("Não deve permitir arquivar registros ainda usados pelo ranking de livros")
+    void arquivarPrazoCurto() {
+        //ACT + ASSERT
+        assertThrows(IllegalArgumentException.class, () -> new ArquivamentoService(emprestimoRepository, emprestimoArquivadoRepository,
+                reservaRepository, reservaArquivadaRepository, transactionTemplate, 7, 1000));
+    }
+}
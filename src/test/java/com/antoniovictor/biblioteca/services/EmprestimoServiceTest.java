@@ -5,30 +5,49 @@ import com.antoniovictor.biblioteca.dto.EmprestimoSaida;
 import com.antoniovictor.biblioteca.entities.*;
 import com.antoniovictor.biblioteca.error.CadastroEmprestimoException;
 import com.antoniovictor.biblioteca.error.RenovacaoEmprestimoException;
+import com.antoniovictor.biblioteca.eventos.EmprestimoDevolvido;
+import com.antoniovictor.biblioteca.eventos.ReservaAtivada;
+import com.antoniovictor.biblioteca.infra.Exportador;
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
+import com.antoniovictor.biblioteca.infra.RankingLivros;
+import com.antoniovictor.biblioteca.repository.EmprestimoArquivadoRepository;
 import com.antoniovictor.biblioteca.repository.EmprestimoRepository;
+import com.antoniovictor.biblioteca.repository.ExemplarRepository;
 import com.antoniovictor.biblioteca.repository.LivroRepository;
 import com.antoniovictor.biblioteca.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,6 +63,18 @@ class EmprestimoServiceTest {
     private  UsuarioRepository usuarioRepository;
     @Mock
     private  LivroRepository livroRepository;
+    @Mock
+    private ExemplarRepository exemplarRepository;
+    @Mock
+    private EmprestimoArquivadoRepository emprestimoArquivadoRepository;
+    @Mock
+    private Exportador exportador;
+    @Mock
+    private RankingLivros rankingLivros;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @BeforeEach
     void setUp() {
@@ -73,6 +104,7 @@ class EmprestimoServiceTest {
         //ARRANGE
         usuario.setEmprestimos(List.of(new Emprestimo(usuario, livro)));
         usuario.getEmprestimos().getFirst().setStatus(StatusEmprestimo.PENDENTE);
+        usuario.setSaldoDevedor(4.0);
         EmprestimoEntrada emprestimoEntrada = new EmprestimoEntrada(1L, 1L);
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
         when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
@@ -95,6 +127,78 @@ class EmprestimoServiceTest {
                 () -> emprestimoService.novoEmprestimo(emprestimoEntrada));
     }
 
+    @Test
+    @DisplayName("Verifica se o empréstimo ocupa um exemplar livre do livro")
+    void novoEmprestimoExemplar() throws CadastroEmprestimoException {
+        //ARRANGE
+        usuario.setEmailVerificado(true);
+        var exemplar = new Exemplar(livro);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
+        when(exemplarRepository.reservarLivre(1L)).thenReturn(Optional.of(exemplar));
+        //ACT
+        emprestimoService.novoEmprestimo(new EmprestimoEntrada(1L, 1L));
+        //ASSERT
+        assertTrue(exemplar.getEmprestado());
+        verify(emprestimoRepository).save(argThat(e -> e.getExemplar() == exemplar));
+    }
+
+    @Test
+    @DisplayName("Verifica se o empréstimo é recusado quando os exemplares livres foram ocupados por outra transação")
+    void novoEmprestimoSemExemplarLivre() {
+        //ARRANGE
+        usuario.setEmailVerificado(true);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
+        when(exemplarRepository.reservarLivre(1L)).thenReturn(Optional.empty());
+        //ACT
+        assertThrows(CadastroEmprestimoException.class,
+                () -> emprestimoService.novoEmprestimo(new EmprestimoEntrada(1L, 1L)));
+        //ASSERT
+        verify(emprestimoRepository, never()).save(any());
+        assertEquals(1.0, meterRegistry.counter("biblioteca.emprestimos.recusados", "motivo", "indisponivel").count());
+    }
+
+    @Test
+    @DisplayName("Verifica se a recusa do empréstimo é contabilizada pelo motivo")
+    void novoEmprestimoMetricaRecusa() {
+        //ARRANGE
+        usuario.setEmprestimos(List.of(new Emprestimo(usuario, livro), new Emprestimo(usuario, livro)));
+        usuario.getEmprestimos().forEach(e -> e.setStatus(StatusEmprestimo.ATIVO));
+        EmprestimoEntrada emprestimoEntrada = new EmprestimoEntrada(1L, 1L);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
+        //ACT
+        assertThrows(CadastroEmprestimoException.class,
+                () -> emprestimoService.novoEmprestimo(emprestimoEntrada));
+        //ASSERT
+        assertEquals(1.0, meterRegistry.counter("biblioteca.emprestimos.recusados", "motivo", "limite_emprestimos").count());
+    }
+
+    @Test
+    @DisplayName("Verifica se a renovação emite o evento JFR com o resultado")
+    void renovarEmprestimoEventoJfr() throws Exception {
+        //ARRANGE
+        Emprestimo emprestimo = new Emprestimo(usuario, livro);
+        when(emprestimoRepository.findById(1L)).thenReturn(Optional.of(emprestimo));
+        var arquivo = Files.createTempFile("emprestimo", ".jfr");
+        //ACT
+        try (var recording = new Recording()) {
+            recording.enable("biblioteca.Emprestimo").withoutThreshold();
+            recording.start();
+            emprestimoService.renovarEmprestimo(1L);
+            recording.stop();
+            recording.dump(arquivo);
+        }
+        //ASSERT
+        var eventos = RecordingFile.readAllEvents(arquivo);
+        Files.delete(arquivo);
+        assertEquals(1, eventos.size());
+        assertEquals("renovacao", eventos.getFirst().getString("operacao"));
+        assertEquals(1L, eventos.getFirst().getLong("usuarioId"));
+        assertEquals("sucesso", eventos.getFirst().getString("resultado"));
+    }
+
     @Test
     @DisplayName("Verifica se o método lança exceção ao tentar realizar um empréstimo de um livro com reserva ativa para outro usuário")
     void novoEmprestimoCenario4() {
@@ -200,6 +304,66 @@ class EmprestimoServiceTest {
         assertThrows(EntityNotFoundException.class, () -> emprestimoService.buscarEmprestimoPorId(1L));
     }
 
+    @Test
+    @DisplayName("Verifica se o empréstimo é buscado no arquivo quando não está mais na tabela principal")
+    void buscarEmprestimoPorIdArquivado() {
+        //ARRANGE
+        var arquivado = new EmprestimoSaida(1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15), 0.0, "O Senhor dos Anéis",
+                StatusEmprestimo.FINALIZADO, "Antonio Victor");
+        when(emprestimoRepository.findById(1L)).thenReturn(Optional.empty());
+        when(emprestimoArquivadoRepository.buscarSaida(1L)).thenReturn(Optional.of(arquivado));
+        //ACT
+        var emprestimoSaida = emprestimoService.buscarEmprestimoPorId(1L);
+        //ASSERT
+        assertEquals(arquivado, emprestimoSaida);
+    }
+
+    @Test
+    @DisplayName("Verifica se o histórico intercala empréstimos atuais e arquivados por id decrescente e informa o próximo cursor")
+    void historicoUsuario() {
+        //ARRANGE
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(emprestimoRepository.historicoPorUsuario(1L, StatusEmprestimo.FINALIZADO, 100L, 4))
+                .thenReturn(List.of(emprestimoSaida(90L), emprestimoSaida(50L)));
+        when(emprestimoArquivadoRepository.historicoPorUsuario(1L, StatusEmprestimo.FINALIZADO, 100L, 4))
+                .thenReturn(List.of(emprestimoSaida(70L), emprestimoSaida(60L), emprestimoSaida(40L)));
+        //ACT
+        var historico = emprestimoService.historicoUsuario(1L, "finalizado", 100L, 3);
+        //ASSERT
+        assertEquals(List.of(emprestimoSaida(90L), emprestimoSaida(70L), emprestimoSaida(60L)), historico.conteudo());
+        assertEquals(60L, historico.proximo());
+    }
+
+    @Test
+    @DisplayName("Verifica se a última página do histórico não informa próximo cursor")
+    void historicoUsuarioUltimaPagina() {
+        //ARRANGE
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(emprestimoRepository.historicoPorUsuario(1L, null, Long.MAX_VALUE, 21)).thenReturn(List.of(emprestimoSaida(2L)));
+        when(emprestimoArquivadoRepository.historicoPorUsuario(1L, null, Long.MAX_VALUE, 21)).thenReturn(List.of(emprestimoSaida(1L)));
+        //ACT
+        var historico = emprestimoService.historicoUsuario(1L, null, null, 20);
+        //ASSERT
+        assertEquals(List.of(emprestimoSaida(2L), emprestimoSaida(1L)), historico.conteudo());
+        assertNull(historico.proximo());
+    }
+
+    @Test
+    @DisplayName("Verifica se o histórico rejeita status e limite inválidos e usuário inexistente")
+    void historicoUsuarioInvalido() {
+        //ACT + ASSERT
+        assertThrows(IllegalArgumentException.class, () -> emprestimoService.historicoUsuario(1L, "atrasado", null, 20));
+        assertThrows(IllegalArgumentException.class, () -> emprestimoService.historicoUsuario(1L, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> emprestimoService.historicoUsuario(1L, null, null, 101));
+        assertThrows(EntityNotFoundException.class, () -> emprestimoService.historicoUsuario(1L, null, null, 20));
+        verifyNoInteractions(emprestimoRepository, emprestimoArquivadoRepository);
+    }
+
+    private static EmprestimoSaida emprestimoSaida(long id) {
+        return new EmprestimoSaida(id, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15), 0.0, "O Senhor dos Anéis",
+                StatusEmprestimo.FINALIZADO, "Antonio Victor");
+    }
+
     @Test
     @DisplayName("Verifica se o método de renovação é chamado")
     void renovarEmprestimoCenario1() throws RenovacaoEmprestimoException {
@@ -227,16 +391,18 @@ class EmprestimoServiceTest {
     }
 
     @Test
-    @DisplayName("Verifica se o estoque do livro é atualizado e o empréstimo finalizado")
+    @DisplayName("Verifica se o exemplar é liberado e o empréstimo finalizado")
     void devolverEmprestimoCenario1() {
         //ARRANGE
         Emprestimo emprestimo = new Emprestimo(usuario, livro);
-        livro.addEmprestimo(emprestimo);
+        var exemplar = new Exemplar(livro);
+        exemplar.setEmprestado(true);
+        emprestimo.setExemplar(exemplar);
         when(emprestimoRepository.findById(1L)).thenReturn(Optional.of(emprestimo));
         //ACT
         emprestimoService.devolverEmprestimo(1L);
         //ASSERT
-        assertEquals(10, livro.getEstoque());
+        assertFalse(exemplar.getEmprestado());
         assertEquals(StatusEmprestimo.FINALIZADO, emprestimo.getStatus());
     }
 
@@ -254,6 +420,25 @@ class EmprestimoServiceTest {
         assertEquals(10.0, emprestimo.getMulta());
     }
 
+    @Test
+    @DisplayName("Verifica se a multa acumulada de um empréstimo pendente é descontada do saldo devedor na devolução")
+    void devolverEmprestimoPendente() {
+        //ARRANGE
+        Emprestimo emprestimo = new Emprestimo(usuario, livro);
+        emprestimo.setFim(LocalDate.now().minusDays(3));
+        emprestimo.setStatus(StatusEmprestimo.PENDENTE);
+        emprestimo.setMulta(4.0);
+        usuario.setSaldoDevedor(10.0);
+        when(emprestimoRepository.findById(1L)).thenReturn(Optional.of(emprestimo));
+        //ACT
+        emprestimoService.devolverEmprestimo(1L);
+        //ASSERT
+        verify(usuarioRepository).descontarSaldo(1L, 4.0);
+        assertEquals(10.0, usuario.getSaldoDevedor());
+        assertEquals(6.0, emprestimo.getMulta());
+        assertEquals(StatusEmprestimo.FINALIZADO, emprestimo.getStatus());
+    }
+
     @Test
     @DisplayName("Verifica se as reservas são atualizadas")
     void devolverEmprestimoCenario3() {
@@ -276,6 +461,8 @@ class EmprestimoServiceTest {
         //ASSERT
         assertEquals(StatusReserva.ATIVA, reserva1.getStatus());
         assertEquals(StatusReserva.PENDENTE, reserva2.getStatus());
+        verify(eventPublisher).publishEvent(any(ReservaAtivada.class));
+        verify(eventPublisher).publishEvent(any(EmprestimoDevolvido.class));
     }
 
     @Test
@@ -295,4 +482,37 @@ class EmprestimoServiceTest {
         //ASSERT
         verify(emprestimoRepository).deleteById(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Verifica se a exportação esgota e fecha o stream do arquivo antes de abrir o da tabela principal")
+    void exportarEmprestimos() throws Exception {
+        //ARRANGE
+        var fechados = new boolean[2];
+        var arquivado = new EmprestimoSaida(1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15), 0.0, "O Senhor dos Anéis",
+                StatusEmprestimo.FINALIZADO, "Antonio Victor");
+        var atual = new EmprestimoSaida(new Emprestimo(usuario, livro));
+        var de = LocalDate.of(2024, 1, 1);
+        var ate = LocalDate.of(2025, 1, 31);
+        var saida = new ByteArrayOutputStream();
+        var exportados = new ArrayList<EmprestimoSaida>();
+        when(emprestimoArquivadoRepository.exportarPorPeriodo(de, ate)).thenReturn(Stream.of(arquivado).onClose(() -> fechados[0] = true));
+        when(emprestimoRepository.exportarPorPeriodo(de, ate)).thenAnswer(i -> {
+            assertTrue(fechados[0]);
+            return Stream.of(atual).onClose(() -> fechados[1] = true);
+        });
+        when(exportador.escrever(anyList(), eq(EmprestimoSaida.class), eq(FormatoArquivo.CSV), eq(saida))).thenAnswer(i -> {
+            for (Supplier<Stream<EmprestimoSaida>> parte : i.<List<Supplier<Stream<EmprestimoSaida>>>>getArgument(0)) {
+                try (var linhas = parte.get()) {
+                    linhas.forEach(exportados::add);
+                }
+            }
+            return (long) exportados.size();
+        });
+        //ACT
+        var total = emprestimoService.exportarEmprestimos(de, ate, FormatoArquivo.CSV, saida);
+        //ASSERT
+        assertEquals(2L, total);
+        assertEquals(List.of(arquivado, atual), exportados);
+        assertTrue(fechados[1]);
+    }
+}
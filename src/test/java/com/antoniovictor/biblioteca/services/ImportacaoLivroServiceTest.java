@@ -0,0 +1,141 @@
+package com.antoniovictor.biblioteca.services;
+
+import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.infra.FormatoArquivo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportacaoLivroServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    private ImportacaoLivroService importacaoLivroService;
+
+    @BeforeEach
+    void setUp() {
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        importacaoLivroService = new ImportacaoLivroService(entityManager, transactionTemplate, new ObjectMapper(), validator, 1000);
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionStatus> acao = invocation.getArgument(0);
+            acao.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Verifica se o CSV é gravado em lotes e se as linhas inválidas são reportadas")
+    void importarCsv() throws Exception {
+        //ARRANGE
+        var csv = """
+                titulo,autor,categoria,quantidade
+                Dom Casmurro,Machado de Assis,romance,3
+                "O Cortiço, edição especial",Aluísio Azevedo,drama,2
+                Duna,Frank Herbert,fantasia,4
+                O Iluminado,Stephen King,terror,1
+                """;
+        var saida = new ByteArrayOutputStream();
+        //ACT
+        var resultado = importacaoLivroService.importar(entrada(csv), FormatoArquivo.CSV, 2, saida);
+        //ASSERT
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(entityManager, times(3)).persist(any(Livro.class));
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        assertEquals(4, resultado.processadas());
+        assertEquals(3, resultado.importadas());
+        assertEquals(1, resultado.erros());
+        assertTrue(resultado.concluida());
+        var eventos = saida.toString(StandardCharsets.UTF_8);
+        assertTrue(eventos.contains("\"linha\":4"));
+        assertTrue(eventos.contains("Digite um valor válido de categoria"));
+    }
+
+    @Test
+    @DisplayName("Verifica se as linhas NDJSON inválidas não impedem a gravação das demais")
+    void importarNdjson() throws Exception {
+        //ARRANGE
+        var ndjson = """
+                {"titulo":"Duna","autor":"Frank Herbert","categoria":"ficcao","quantidade":2}
+                {"titulo":"","autor":"Frank Herbert","categoria":"ficcao","quantidade":2}
+                {"titulo":
+                """;
+        //ACT
+        var resultado = importacaoLivroService.importar(entrada(ndjson), FormatoArquivo.NDJSON, 10, new ByteArrayOutputStream());
+        //ASSERT
+        verify(entityManager, times(1)).persist(any(Livro.class));
+        assertEquals(1, resultado.importadas());
+        assertEquals(2, resultado.erros());
+    }
+
+    @Test
+    @DisplayName("Verifica se uma falha ao gravar o lote é reportada como erro das linhas do lote")
+    void importarFalhaNoLote() throws Exception {
+        //ARRANGE
+        doThrow(new PersistenceException("Data too long")).when(entityManager).flush();
+        var csv = "titulo,autor,categoria,quantidade\nDuna,Frank Herbert,ficcao,2\n";
+        //ACT
+        var resultado = importacaoLivroService.importar(entrada(csv), FormatoArquivo.CSV, 10, new ByteArrayOutputStream());
+        //ASSERT
+        assertEquals(0, resultado.importadas());
+        assertEquals(1, resultado.erros());
+    }
+
+    @Test
+    @DisplayName("Verifica se o lote recusado é refeito linha a linha, reportando a linha e a causa de cada falha")
+    void importarLinhaALinha() throws Exception {
+        //ARRANGE
+        lenient().doThrow(new PersistenceException("Data too long for column 'titulo'"))
+                .when(entityManager).persist(argThat((Livro livro) -> livro.getTitulo().equals("Grande Sertão")));
+        var csv = """
+                titulo,autor,categoria,quantidade
+                Dom Casmurro,Machado de Assis,romance,3
+                Grande Sertão,Guimarães Rosa,romance,2
+                O Iluminado,Stephen King,terror,1
+                """;
+        var saida = new ByteArrayOutputStream();
+        //ACT
+        var resultado = importacaoLivroService.importar(entrada(csv), FormatoArquivo.CSV, 10, saida);
+        //ASSERT
+        verify(transactionTemplate, times(4)).executeWithoutResult(any());
+        assertEquals(2, resultado.importadas());
+        assertEquals(1, resultado.erros());
+        var eventos = saida.toString(StandardCharsets.UTF_8);
+        assertTrue(eventos.contains("{\"linha\":3,\"mensagem\":\"Erro ao gravar livro: Data too long for column 'titulo'\"}"));
+        assertFalse(eventos.contains("\"linha\":2,"));
+        assertFalse(eventos.contains("\"linha\":4,"));
+    }
+
+    @Test
+    @DisplayName("Verifica se deu erro ao informar um tamanho de lote inválido")
+    void tamanhoLoteInvalido() {
+        //ACT + ASSERT
+        assertEquals(1000, importacaoLivroService.tamanhoLote(null));
+        assertThrows(IllegalArgumentException.class, () -> importacaoLivroService.tamanhoLote(0));
+    }
+
+    private ByteArrayInputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,9 +2,18 @@ package com.antoniovictor.biblioteca.services;
 
 import com.antoniovictor.biblioteca.dto.LivroAtualizacao;
 import com.antoniovictor.biblioteca.dto.LivroEntrada;
+import com.antoniovictor.biblioteca.dto.LivroFacetas;
+import com.antoniovictor.biblioteca.dto.LivroFiltro;
+import com.antoniovictor.biblioteca.dto.LivroPopular;
+import com.antoniovictor.biblioteca.dto.LivroRecomendado;
 import com.antoniovictor.biblioteca.dto.LivroSaida;
 import com.antoniovictor.biblioteca.entities.Categoria;
+import com.antoniovictor.biblioteca.entities.Exemplar;
 import com.antoniovictor.biblioteca.entities.Livro;
+import com.antoniovictor.biblioteca.infra.CatalogoVersoes;
+import com.antoniovictor.biblioteca.infra.RankingLivros;
+import com.antoniovictor.biblioteca.infra.RecomendacoesLivros;
+import com.antoniovictor.biblioteca.repository.ExemplarRepository;
 import com.antoniovictor.biblioteca.repository.LivroRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.DisplayName;
@@ -17,12 +26,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +44,14 @@ class LivroServiceTest {
     private LivroService livroService;
     @Mock
     private LivroRepository livroRepository;
+    @Mock
+    private ExemplarRepository exemplarRepository;
+    @Mock
+    private CatalogoVersoes catalogoVersoes;
+    @Mock
+    private RankingLivros rankingLivros;
+    @Mock
+    private RecomendacoesLivros recomendacoesLivros;
 
     @Test
     @DisplayName("Verifica se o livro foi cadastrado corretamente e se o método save foi chamado")
@@ -42,9 +62,10 @@ class LivroServiceTest {
         //ACT
         var livroSaida = livroService.cadastrarLivro(livroEntrada);
         //ASSERT
-        verify(livroRepository).save(any(Livro.class));
+        verify(livroRepository).save(argThat(l -> l.getExemplares().size() == 10));
         assertNotNull(livroSaida);
         assertEquals(livroEntrada.titulo(), livroSaida.titulo());
+        assertEquals(10, livroSaida.estoque());
     }
 
     @Test
@@ -91,6 +112,126 @@ class LivroServiceTest {
         assertThrows(EntityNotFoundException.class, () -> livroService.buscarLivroPorId(1L));
     }
 
+    @Test
+    @DisplayName("Verifica se a versão do livro é consultada no cache sem acessar o repositório")
+    void buscarVersao() {
+        //ARRANGE
+        when(catalogoVersoes.buscar(1L)).thenReturn(Optional.of(new CatalogoVersoes.VersaoLivro(1L, 2L, 5, LocalDateTime.now())));
+        //ACT
+        var versao = livroService.buscarVersao(1L);
+        //ASSERT
+        assertTrue(versao.isPresent());
+        assertEquals("\"1-2-5\"", versao.get().etag());
+        verifyNoInteractions(livroRepository);
+    }
+
+    @Test
+    @DisplayName("Consulta o ranking de livros mais emprestados da categoria e período indicados")
+    void listarPopularesCenario1() {
+        //ARRANGE
+        var popular = new LivroPopular(1L, "Drácula", "Bram Stoker", Categoria.TERROR, 5);
+        when(rankingLivros.populares(RankingLivros.Tipo.EMPRESTIMOS, Categoria.TERROR, 7, 10)).thenReturn(List.of(popular));
+        //ACT
+        var populares = livroService.listarPopulares("terror", 7, "emprestimos", 10);
+        //ASSERT
+        assertEquals(List.of(popular), populares);
+        verifyNoInteractions(livroRepository);
+    }
+
+    @Test
+    @DisplayName("Verifica se deu erro ao consultar o ranking com período ou tipo inválido")
+    void listarPopularesCenario2() {
+        //ACT + ASSERT
+        assertThrows(IllegalArgumentException.class, () -> livroService.listarPopulares(null, 31, "emprestimos", 10));
+        assertThrows(IllegalArgumentException.class, () -> livroService.listarPopulares(null, 7, "devolucoes", 10));
+        verifyNoInteractions(rankingLivros);
+    }
+
+    @Test
+    @DisplayName("Retorna os livros recomendados na ordem da matriz de coocorrência")
+    void listarRecomendacoesCenario1() {
+        //ARRANGE
+        var duna = new Livro(2L, "Duna", "Frank Herbert", Categoria.FICCAO, 1, true, List.of(), List.of());
+        var fundacao = new Livro(3L, "Fundação", "Isaac Asimov", Categoria.FICCAO, 1, true, List.of(), List.of());
+        when(recomendacoesLivros.recomendar(1L, 10)).thenReturn(List.of(new RecomendacoesLivros.Recomendacao(3L, 7), new RecomendacoesLivros.Recomendacao(2L, 4)));
+        when(livroRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(duna, fundacao));
+        //ACT
+        var recomendacoes = livroService.listarRecomendacoes(1L, 10);
+        //ASSERT
+        assertEquals(List.of(3L, 2L), recomendacoes.stream().map(LivroRecomendado::id).toList());
+        assertEquals(7, recomendacoes.getFirst().emprestimosEmComum());
+    }
+
+    @Test
+    @DisplayName("Verifica se deu erro ao buscar recomendações de um livro inexistente")
+    void listarRecomendacoesCenario2() {
+        //ARRANGE
+        when(recomendacoesLivros.recomendar(1L, 10)).thenReturn(List.of());
+        when(livroRepository.existsById(1L)).thenReturn(false);
+        //ACT + ASSERT
+        assertThrows(EntityNotFoundException.class, () -> livroService.listarRecomendacoes(1L, 10));
+    }
+
+    @Test
+    @DisplayName("Busca livros combinando os filtros em uma única consulta")
+    void buscarLivros() {
+        //ARRANGE
+        Pageable pageable = PageRequest.of(0, 10);
+        var livro = new Livro(1L, "O Senhor dos Anéis", "J.R.R. Tolkien", Categoria.FICCAO, 3, true, List.of(), List.of());
+        when(livroRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(new PageImpl<>(List.of(livro)));
+        //ACT
+        var livrosSaida = livroService.buscarLivros(new LivroFiltro("Senhor", "J.R.R", "ficcao", true, 2), pageable);
+        //ASSERT
+        assertEquals(List.of(new LivroSaida(livro)), livrosSaida.getContent());
+        verify(livroRepository).findAll(any(Specification.class), eq(pageable));
+    }
+
+    @Test
+    @DisplayName("Busca livros com as contagens por categoria, disponibilidade e autores sobre o mesmo filtro")
+    void buscarLivrosComFacetas() {
+        //ARRANGE
+        Pageable pageable = PageRequest.of(0, 1);
+        var livro = new Livro(1L, "O Senhor dos Anéis", "J.R.R. Tolkien", Categoria.FICCAO, 3, true, List.of(), List.of());
+        when(livroRepository.contarFacetas(any())).thenReturn(List.of(
+                new Object[]{Categoria.FICCAO, "J.R.R. Tolkien", 3L, 3L},
+                new Object[]{Categoria.FICCAO, "Augusto Cury", 2L, 1L},
+                new Object[]{Categoria.DRAMA, "Augusto Cury", 1L, 1L},
+                new Object[]{Categoria.DRAMA, "Clarice Lispector", 1L, 1L}));
+        when(livroRepository.listar(any(), eq(pageable))).thenReturn(List.of(livro));
+        //ACT
+        var busca = livroService.buscarLivrosComFacetas(new LivroFiltro(null, null, null, null, null), pageable, 2);
+        //ASSERT
+        assertEquals(List.of(new LivroSaida(livro)), busca.livros().getContent());
+        assertEquals(7L, busca.livros().getTotalElements());
+        assertEquals(5L, busca.facetas().categorias().get(Categoria.FICCAO));
+        assertEquals(2L, busca.facetas().categorias().get(Categoria.DRAMA));
+        assertEquals(0L, busca.facetas().categorias().get(Categoria.TERROR));
+        assertEquals(6L, busca.facetas().disponiveis());
+        assertEquals(1L, busca.facetas().indisponiveis());
+        assertEquals(List.of(new LivroFacetas.Autor("Augusto Cury", 3), new LivroFacetas.Autor("J.R.R. Tolkien", 3)), busca.facetas().autores());
+    }
+
+    @Test
+    @DisplayName("Verifica se deu erro ao buscar facetas com limite de autores inválido")
+    void buscarLivrosComFacetasLimiteInvalido() {
+        //ARRANGE
+        Pageable pageable = PageRequest.of(0, 10);
+        //ACT + ASSERT
+        assertThrows(IllegalArgumentException.class, () -> livroService.buscarLivrosComFacetas(new LivroFiltro(null, null, null, null, null), pageable, 0));
+        verifyNoInteractions(livroRepository);
+    }
+
+    @Test
+    @DisplayName("Verifica se deu erro ao buscar livros com categoria inexistente ou estoque mínimo negativo")
+    void buscarLivrosFiltroInvalido() {
+        //ARRANGE
+        Pageable pageable = PageRequest.of(0, 10);
+        //ACT + ASSERT
+        assertThrows(IllegalArgumentException.class, () -> livroService.buscarLivros(new LivroFiltro(null, null, "poesia", null, null), pageable));
+        assertThrows(IllegalArgumentException.class, () -> livroService.buscarLivros(new LivroFiltro(null, null, null, null, -1), pageable));
+        verifyNoInteractions(livroRepository);
+    }
+
     @Test
     @DisplayName("Busca todos os livros da categoria indicada")
     void listarLivrosPorCategoriaCenario1() {
@@ -173,6 +314,47 @@ class LivroServiceTest {
         assertThrows(EntityNotFoundException.class, () -> livroService.atualizarLivro(1L, livroAtualizacao));
     }
 
+    @Test
+    @DisplayName("Verifica se o aumento de estoque cria os exemplares que faltam")
+    void atualizarEstoqueCenario1() {
+        //ARRANGE
+        var livro = new Livro(1L, "Livro", "Autor", Categoria.FICCAO, 1, true, List.of(), List.of());
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
+        when(exemplarRepository.bloquearLivres(1L)).thenReturn(List.of(new Exemplar(livro)));
+        //ACT
+        var livroSaida = livroService.atualizarLivro(1L, new LivroAtualizacao(null, null, null, 3));
+        //ASSERT
+        verify(exemplarRepository).saveAll(argThat((List<Exemplar> novos) -> novos.size() == 2));
+        verify(exemplarRepository, never()).deleteAll(anyList());
+        assertEquals(3, livroSaida.estoque());
+    }
+
+    @Test
+    @DisplayName("Verifica se a redução de estoque remove apenas exemplares livres")
+    void atualizarEstoqueCenario2() {
+        //ARRANGE
+        var livro = new Livro(1L, "Livro", "Autor", Categoria.FICCAO, 3, true, List.of(), List.of());
+        var livres = List.of(new Exemplar(livro), new Exemplar(livro), new Exemplar(livro));
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
+        when(exemplarRepository.bloquearLivres(1L)).thenReturn(livres);
+        //ACT
+        var livroSaida = livroService.atualizarLivro(1L, new LivroAtualizacao(null, null, null, 1));
+        //ASSERT
+        verify(exemplarRepository).deleteAll(livres.subList(1, 3));
+        verify(exemplarRepository, never()).saveAll(anyList());
+        assertEquals(1, livroSaida.estoque());
+    }
+
+    @Test
+    @DisplayName("Verifica se deu erro ao informar estoque negativo")
+    void atualizarEstoqueCenario3() {
+        //ARRANGE
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(new Livro()));
+        //ACT + ASSERT
+        assertThrows(IllegalArgumentException.class, () -> livroService.atualizarLivro(1L, new LivroAtualizacao(null, null, null, -1)));
+        verifyNoInteractions(exemplarRepository);
+    }
+
     @Test
     @DisplayName("Verifica se a exclusão de livro foi bem sucedida")
     void deletarLivro() {
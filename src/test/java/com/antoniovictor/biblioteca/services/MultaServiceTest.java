@@ -0,0 +1,74 @@
+package com.antoniovictor.biblioteca.services;
+
+import com.antoniovictor.biblioteca.entities.StatusEmprestimo;
+import com.antoniovictor.biblioteca.repository.EmprestimoRepository;
+import com.antoniovictor.biblioteca.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MultaServiceTest {
+
+    @Mock
+    private EmprestimoRepository emprestimoRepository;
+    @Mock
+    private UsuarioRepository usuarioRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EstatisticasService estatisticasService;
+    private MultaService multaService;
+
+    @BeforeEach
+    void setUp() {
+        multaService = new MultaService(emprestimoRepository, usuarioRepository, transactionTemplate, estatisticasService, 100);
+    }
+
+    @Test
+    @DisplayName("Deve processar os atrasos em lotes de usuários, atualizar os saldos e reconstruir as estatísticas")
+    void processarAtrasos() {
+        //ARRANGE
+        when(usuarioRepository.menorId()).thenReturn(1L);
+        when(usuarioRepository.maiorId()).thenReturn(250L);
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        when(emprestimoRepository.acumularMultas(anyLong(), anyLong(), any(), anyDouble(), any(), any())).thenReturn(3);
+        //ACT
+        var atualizados = multaService.processarAtrasos();
+        //ASSERT
+        assertEquals(9, atualizados);
+        var abertos = List.of(StatusEmprestimo.ATIVO, StatusEmprestimo.PENDENTE);
+        verify(emprestimoRepository).acumularMultas(1L, 100L, LocalDate.now(), EmprestimoService.MULTA_DIARIA, abertos, StatusEmprestimo.PENDENTE);
+        verify(emprestimoRepository).acumularMultas(101L, 200L, LocalDate.now(), EmprestimoService.MULTA_DIARIA, abertos, StatusEmprestimo.PENDENTE);
+        verify(emprestimoRepository).acumularMultas(201L, 250L, LocalDate.now(), EmprestimoService.MULTA_DIARIA, abertos, StatusEmprestimo.PENDENTE);
+        verify(emprestimoRepository, times(3)).registrarAtrasos(anyLong(), anyLong(), eq(LocalDate.now()), any());
+        verify(usuarioRepository, times(3)).atualizarSaldos(anyLong(), anyLong(), eq(StatusEmprestimo.PENDENTE));
+        verify(estatisticasService).reconstruir();
+    }
+
+    @Test
+    @DisplayName("Não deve processar nada quando não há usuários cadastrados")
+    void processarAtrasosSemUsuarios() {
+        //ARRANGE
+        when(usuarioRepository.menorId()).thenReturn(null);
+        //ACT
+        var atualizados = multaService.processarAtrasos();
+        //ASSERT
+        assertEquals(0, atualizados);
+        verifyNoInteractions(emprestimoRepository, transactionTemplate);
+    }
+}
@@ -10,7 +10,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 
@@ -30,6 +34,8 @@ class NotificacaoServiceTest {
 
     @Mock
     private JavaMailSender javaMailSender;
+    @Spy
+    private TaskExecutor emailExecutor = new SyncTaskExecutor();
 
     private Usuario usuario;
     private Livro livro;
@@ -76,16 +82,24 @@ class NotificacaoServiceTest {
     @Test
     @DisplayName("Deve enviar email de notificação de livro disponível")
     void notificarLivroDisponivel() {
+        // ACT
+        notificacaoService.notificarLivroDisponivel("usuario2@dominio.com", "Dom Quixote");
+
+        // ASSERT
+        verify(javaMailSender, times(1)).send(any(SimpleMailMessage.class));
+        verifyNoInteractions(emailExecutor);
+    }
+
+    @Test
+    @DisplayName("Não deve propagar a falha do servidor SMTP para quem solicitou a notificação")
+    void notificarLivroDisponivelFalhaEnvio() {
         // ARRANGE
-        Usuario usuario2 = new Usuario();
-        usuario2.setEmail("usuario2@dominio.com");
-        Livro livro2 = new Livro();
-        livro2.setTitulo("Dom Quixote");
+        doThrow(new MailSendException("SMTP indisponível")).when(javaMailSender).send(any(SimpleMailMessage.class));
 
         // ACT
-        notificacaoService.notificarLivroDisponivel(usuario2, livro2);
+        notificacaoService.notificarLivroDisponivel(usuario.getEmail(), livro.getTitulo());
 
         // ASSERT
-        verify(javaMailSender, times(1)).send(any(SimpleMailMessage.class));
+        verify(javaMailSender).send(any(SimpleMailMessage.class));
     }
 }
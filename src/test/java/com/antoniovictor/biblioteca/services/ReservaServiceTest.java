@@ -8,7 +8,10 @@ import com.antoniovictor.biblioteca.entities.StatusReserva;
 import com.antoniovictor.biblioteca.entities.Usuario;
 import com.antoniovictor.biblioteca.error.AtualizacaoReservaException;
 import com.antoniovictor.biblioteca.error.CadastroReservaException;
+import com.antoniovictor.biblioteca.eventos.ReservaAtivada;
+import com.antoniovictor.biblioteca.infra.RankingLivros;
 import com.antoniovictor.biblioteca.repository.LivroRepository;
+import com.antoniovictor.biblioteca.repository.ReservaArquivadaRepository;
 import com.antoniovictor.biblioteca.repository.ReservaRepository;
 import com.antoniovictor.biblioteca.repository.UsuarioRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -16,9 +19,11 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,6 +35,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -42,6 +48,12 @@ class ReservaServiceTest {
     private LivroRepository livroRepository;
     @Mock
     private UsuarioRepository usuarioRepository;
+    @Mock
+    private RankingLivros rankingLivros;
+    @Mock
+    private ReservaArquivadaRepository reservaArquivadaRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private ReservaService reservaService;
 
@@ -165,17 +177,73 @@ class ReservaServiceTest {
         assertThrows(IllegalArgumentException.class,() -> reservaService.listaReservasPorStatus("ativo", pageable));
     }
 
+    @Test
+    @DisplayName("Lista reservas encerradas começando pelo arquivo e completando a página com a tabela principal")
+    void listaReservasPorStatusArquivadas() {
+        //ARRANGE
+        Pageable pageable = PageRequest.of(1, 10);
+        var arquivadas = List.of(reservaSaida(11L), reservaSaida(12L));
+        var atuais = List.of(reservaSaida(13L), reservaSaida(14L));
+        when(reservaArquivadaRepository.countByStatus(StatusReserva.FINALIZADA)).thenReturn(12L);
+        when(reservaRepository.countByStatus(StatusReserva.FINALIZADA)).thenReturn(8L);
+        when(reservaArquivadaRepository.listarPorStatus(StatusReserva.FINALIZADA, 10L, 10)).thenReturn(arquivadas);
+        when(reservaRepository.listarPorStatus(StatusReserva.FINALIZADA, 0L, 8)).thenReturn(atuais);
+        //ACT
+        var reservas = reservaService.listaReservasPorStatus("finalizada", pageable);
+        //ASSERT
+        assertEquals(20, reservas.getTotalElements());
+        assertEquals(List.of(reservaSaida(11L), reservaSaida(12L), reservaSaida(13L), reservaSaida(14L)), reservas.getContent());
+        verify(reservaRepository, never()).findAllByStatusOrderByData(any(), any());
+    }
+
+    @Test
+    @DisplayName("Histórico de reservas intercala reservas atuais e arquivadas por id decrescente")
+    void historicoUsuario() {
+        //ARRANGE
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(reservaRepository.historicoPorUsuario(1L, null, Long.MAX_VALUE, 3)).thenReturn(List.of(reservaSaida(30L)));
+        when(reservaArquivadaRepository.historicoPorUsuario(1L, null, Long.MAX_VALUE, 3)).thenReturn(List.of(reservaSaida(20L), reservaSaida(10L)));
+        //ACT
+        var historico = reservaService.historicoUsuario(1L, null, null, 2);
+        //ASSERT
+        assertEquals(List.of(reservaSaida(30L), reservaSaida(20L)), historico.conteudo());
+        assertEquals(20L, historico.proximo());
+    }
+
+    @Test
+    @DisplayName("Erro: status do histórico de reservas não existe")
+    void historicoUsuarioStatusInvalido() {
+        //ACT + ASSERT
+        assertThrows(IllegalArgumentException.class, () -> reservaService.historicoUsuario(1L, "cancelada", null, 20));
+    }
+
+    private static ReservaSaida reservaSaida(long id) {
+        var data = LocalDateTime.of(2024, 1, 1, 10, 0);
+        return new ReservaSaida(id, data, data, data.plusHours(48), "Antonio Victor", "O Senhor dos Anéis", StatusReserva.FINALIZADA);
+    }
+
     @Test
     @DisplayName("Atualização do status da reserva para ATIVA, bem sucedida")
     void atualizarReservaCenario1() throws AtualizacaoReservaException {
         //ARRANGE
         Reserva reserva = spy(new Reserva());
         reserva.setStatus(StatusReserva.PENDENTE);
+        var livro = new Livro();
+        livro.setId(2L);
+        livro.setTitulo("Duna");
+        var usuario = new Usuario();
+        usuario.setEmail("leitor@biblioteca.com");
+        reserva.setLivro(livro);
+        reserva.setUsuario(usuario);
         when(reservaRepository.findById(anyLong())).thenReturn(Optional.of(reserva));
         //ACT
         var reservaSaida = reservaService.atualizarReserva(1L, new ReservaAtualizacao("ativa"));
         //ASSERT
         verify(reserva).setStatus(StatusReserva.ATIVA);
+        var evento = ArgumentCaptor.forClass(ReservaAtivada.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        assertEquals(2L, evento.getValue().livroId());
+        assertEquals("leitor@biblioteca.com", evento.getValue().email());
         assertEquals(new ReservaSaida(reserva), reservaSaida);
         assertEquals(StatusReserva.ATIVA, reserva.getStatus());
     }
@@ -4,11 +4,13 @@ import com.antoniovictor.biblioteca.dto.UsuarioAtualizacao;
 import com.antoniovictor.biblioteca.dto.UsuarioEntrada;
 import com.antoniovictor.biblioteca.dto.UsuarioSaida;
 import com.antoniovictor.biblioteca.entities.Usuario;
+import com.antoniovictor.biblioteca.eventos.UsuarioCadastrado;
 import com.antoniovictor.biblioteca.repository.UsuarioRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -16,6 +18,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -36,6 +39,8 @@ class UsuarioServiceTest {
 
     @Mock
     private JavaMailSender javaMailSender;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private UsuarioService usuarioService;
@@ -157,20 +162,38 @@ class UsuarioServiceTest {
         verify(usuario).setAtivo(false);
     }
 
+    @Test
+    @DisplayName("Deve gerar o código de verificação e publicar o cadastro do usuário sem enviar o email na transação")
+    void cadastrarCenario1() {
+        // ARRANGE
+        var entrada = new UsuarioEntrada("Teste", "teste@email.com", "123456", "12345678901", "leitor");
+
+        // ACT
+        usuarioService.cadastrar(entrada);
+
+        // ASSERT
+        var captor = ArgumentCaptor.forClass(UsuarioCadastrado.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals("teste@email.com", captor.getValue().email());
+        assertNotNull(captor.getValue().codigoVerificacao());
+        verify(usuarioRepository).save(argThat(u -> captor.getValue().codigoVerificacao().equals(u.getCodigoVerificacao())));
+        verifyNoInteractions(javaMailSender);
+    }
+
     @Test
     @DisplayName("Deve enviar um email de verificação para o usuário")
     void enviarEmailCenario1() {
         // ARRANGE
-        Usuario usuario = new Usuario();
-        usuario.setEmail("teste@email.com");
-
         doNothing().when(javaMailSender).send(any(SimpleMailMessage.class));
 
         // ACT
-        usuarioService.enviarEmail(usuario);
+        usuarioService.enviarEmailVerificacao("teste@email.com", "codigo123");
 
         // ASSERT
-        assertNotNull(usuario.getCodigoVerificacao());
+        var captor = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(javaMailSender).send(captor.capture());
+        assertArrayEquals(new String[]{"teste@email.com"}, captor.getValue().getTo());
+        assertEquals("Código de verificação: codigo123", captor.getValue().getText());
     }
 
     @Test